@@ -0,0 +1,32 @@
+package com.pixelservices.mobot.api.commands;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation to mark a method as the autocomplete provider of a SlashCommand option.
+ * <p>
+ * The method is declared in a {@link SlashCommandHandler}, takes the
+ * {@link net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent} as its only parameter
+ * and returns a {@link java.util.Collection} of candidates, either {@link net.dv8tion.jda.api.interactions.commands.Command.Choice}s,
+ * numbers or strings. Only the first 25 candidates are shown. The option must be declared with {@code autoComplete = true}.
+ * </p>
+ * <p>
+ * The command is given by its path, such as {@code "config set"} for a subcommand.
+ * </p>
+ * <p>
+ * Options whose candidates are known in advance should be registered with
+ * {@link com.pixelservices.mobot.api.modules.MbModule#registerAutoComplete(String, String, java.util.Collection)} instead,
+ * which answers every keystroke from an index without calling the module.
+ * </p>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface AutoComplete {
+    @NotNull String command();
+    @NotNull String option();
+}
@@ -0,0 +1,23 @@
+package com.pixelservices.mobot.api.commands;
+
+/**
+ * Defines who shares the replies cached by a {@link CachedResponse}.
+ */
+public enum CacheScope {
+
+    /**
+     * All users share the cached replies.
+     */
+    GLOBAL,
+
+    /**
+     * All users of a guild share the cached replies. In direct messages, every user has their own replies.
+     */
+    GUILD,
+
+    /**
+     * Every user has their own cached replies.
+     */
+    USER
+
+}
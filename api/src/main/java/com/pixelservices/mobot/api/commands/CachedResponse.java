@@ -0,0 +1,31 @@
+package com.pixelservices.mobot.api.commands;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Annotation to cache the reply of a SlashCommand.
+ * <p>
+ * This annotation is used on a method annotated with @SlashCommand that returns a
+ * {@link net.dv8tion.jda.api.utils.messages.MessageCreateData} instead of replying itself. The returned message is sent
+ * as the reply and cached for the given time, keyed by the command, the arguments it was invoked with and the
+ * {@link CacheScope}. While cached, invocations with the same arguments are answered from the cache without invoking
+ * the method. Messages with file attachments are never cached.
+ * </p>
+ * <p>
+ * Cached replies can be dropped early with {@link com.pixelservices.mobot.api.modules.MbModule#invalidateCachedResponses(String)}.
+ * </p>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface CachedResponse {
+    long ttl();
+    @NotNull TimeUnit unit() default TimeUnit.SECONDS;
+    @NotNull CacheScope scope() default CacheScope.GLOBAL;
+    boolean ephemeral() default false;
+}
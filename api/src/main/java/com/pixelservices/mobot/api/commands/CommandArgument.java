@@ -4,6 +4,11 @@ import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.interactions.commands.OptionMapping;
 
 public class CommandArgument {
+    /**
+     * The shared argument returned for options that were not provided.
+     */
+    public static final CommandArgument EMPTY = new CommandArgument(null);
+
     private final OptionMapping option;
 
     public CommandArgument(OptionMapping option) {
@@ -22,6 +27,10 @@ public class CommandArgument {
         return option != null ? option.getAsInt() : null;
     }
 
+    public Long getAsLong() {
+        return option != null ? option.getAsLong() : null;
+    }
+
     public Boolean getAsBoolean() {
         return option != null ? option.getAsBoolean() : null;
     }
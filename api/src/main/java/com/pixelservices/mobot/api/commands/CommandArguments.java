@@ -1,47 +1,276 @@
 package com.pixelservices.mobot.api.commands;
 
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.interactions.commands.CommandInteractionPayload;
 import net.dv8tion.jda.api.interactions.commands.OptionMapping;
 
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+/**
+ * A view over the options of a slash command invocation.
+ * <p>
+ * Every declared {@link SlashCommandArgument} is assigned a fixed slot when the command is registered.
+ * Options are read from the interaction lazily, the first time their slot is accessed. The primitive
+ * accessors such as {@link #getInt(String, int)} return the given default when the option is absent and
+ * never box their result, so they are the allocation-free way to read an argument.
+ * </p>
+ * <p>
+ * {@link #get(String)} wraps the option in a {@link CommandArgument}, which is allocated the first time a
+ * present argument is looked up and reused afterwards. The boxing accessors such as {@link #getAsInt(String)}
+ * box their result.
+ * </p>
+ */
 public class CommandArguments {
-    private final Map<String, CommandArgument> args = new HashMap<>();
+    private static final OptionMapping[] NO_MAPPINGS = new OptionMapping[0];
 
+    private String[] names;
+    private OptionMapping[] mappings;
+    private CommandArgument[] wrappers;
+    private int size;
+    private boolean sharedNames;
+
+    private final CommandInteractionPayload source;
+    private long resolved;
+
+    /**
+     * Creates an empty set of arguments, to be filled through {@link #put(String, OptionMapping)}.
+     */
+    public CommandArguments() {
+        this.names = Layout.EMPTY.names;
+        this.mappings = NO_MAPPINGS;
+        this.sharedNames = true;
+        this.source = null;
+    }
+
+    /**
+     * Creates a view over the options of the given interaction, using the slots assigned by the layout.
+     *
+     * @param layout the slot layout computed when the command was registered
+     * @param source the interaction to read the options from
+     */
+    public CommandArguments(Layout layout, CommandInteractionPayload source) {
+        this.names = layout.names;
+        this.mappings = new OptionMapping[layout.names.length];
+        this.size = layout.names.length;
+        this.sharedNames = true;
+        this.source = source;
+    }
+
+    /**
+     * Sets the option mapping of an argument, adding a slot for it if it isn't part of the layout.
+     *
+     * @param name the name of the argument
+     * @param mapping the option mapping, or {@code null} if the option is absent
+     */
     public void put(String name, OptionMapping mapping) {
-        args.put(name, new CommandArgument(mapping));
+        int slot = slotOf(name);
+        if (slot < 0) {
+            slot = size;
+            if (sharedNames || slot == names.length) {
+                names = Arrays.copyOf(names, Math.max(4, slot * 2));
+                sharedNames = false;
+            }
+            if (slot >= mappings.length) {
+                mappings = Arrays.copyOf(mappings, names.length);
+            }
+            names[slot] = name;
+            size++;
+        }
+        mappings[slot] = mapping;
+        markResolved(slot);
     }
 
+    /**
+     * Returns the argument with the given name, wrapped the first time it is looked up.
+     *
+     * @param name the name of the argument
+     * @return the argument, or {@link CommandArgument#EMPTY} if the option is absent
+     */
     public CommandArgument get(String name) {
-        return args.getOrDefault(name, new CommandArgument(null));
+        int slot = slotOf(name);
+        OptionMapping mapping = slot < 0 ? null : resolve(slot);
+        if (mapping == null) {
+            return CommandArgument.EMPTY;
+        }
+        if (wrappers == null || slot >= wrappers.length) {
+            wrappers = wrappers == null ? new CommandArgument[names.length] : Arrays.copyOf(wrappers, names.length);
+        }
+        CommandArgument wrapper = wrappers[slot];
+        if (wrapper == null || wrapper.getRaw() != mapping) {
+            wrapper = new CommandArgument(mapping);
+            wrappers[slot] = wrapper;
+        }
+        return wrapper;
     }
 
     public String getAsString(String name) {
-        return get(name).getAsString();
+        OptionMapping mapping = mapping(name);
+        return mapping != null ? mapping.getAsString() : null;
     }
 
     public Integer getAsInt(String name) {
-        return get(name).getAsInt();
+        OptionMapping mapping = mapping(name);
+        return mapping != null ? mapping.getAsInt() : null;
     }
 
     public Double getAsDouble(String name) {
-        return get(name).getAsDouble();
+        OptionMapping mapping = mapping(name);
+        return mapping != null ? mapping.getAsDouble() : null;
     }
 
     public Boolean getAsBoolean(String name) {
-        return get(name).getAsBoolean();
+        OptionMapping mapping = mapping(name);
+        return mapping != null ? mapping.getAsBoolean() : null;
+    }
+
+    public Message.Attachment getAsAttachment(String name) {
+        OptionMapping mapping = mapping(name);
+        return mapping != null ? mapping.getAsAttachment() : null;
+    }
+
+    public String getString(String name, String def) {
+        OptionMapping mapping = mapping(name);
+        return mapping != null ? mapping.getAsString() : def;
+    }
+
+    public int getInt(String name, int def) {
+        OptionMapping mapping = mapping(name);
+        return mapping != null ? mapping.getAsInt() : def;
+    }
+
+    public long getLong(String name, long def) {
+        OptionMapping mapping = mapping(name);
+        return mapping != null ? mapping.getAsLong() : def;
     }
 
-    public net.dv8tion.jda.api.entities.Message.Attachment getAsAttachment(String name) {
-        return get(name).getAsAttachment();
+    public double getDouble(String name, double def) {
+        OptionMapping mapping = mapping(name);
+        return mapping != null ? mapping.getAsDouble() : def;
+    }
+
+    public boolean getBoolean(String name, boolean def) {
+        OptionMapping mapping = mapping(name);
+        return mapping != null ? mapping.getAsBoolean() : def;
     }
 
     public boolean has(String name) {
-        return args.containsKey(name) && args.get(name).isPresent();
+        return mapping(name) != null;
+    }
+
+    /**
+     * Returns the raw option mapping stored in the given slot.
+     *
+     * @param slot the slot assigned by the {@link Layout}
+     * @return the option mapping, or {@code null} if the option is absent
+     */
+    public OptionMapping getRaw(int slot) {
+        if (slot < 0 || slot >= size) {
+            return null;
+        }
+        return resolve(slot);
     }
 
     public Map<String, CommandArgument> asMap() {
+        Map<String, CommandArgument> args = new HashMap<>();
+        for (int slot = 0; slot < size; slot++) {
+            args.put(names[slot], new CommandArgument(resolve(slot)));
+        }
         return Map.copyOf(args);
     }
-}
 
+    private OptionMapping mapping(String name) {
+        int slot = slotOf(name);
+        return slot < 0 ? null : resolve(slot);
+    }
+
+    private OptionMapping resolve(int slot) {
+        if (source != null && slot < Long.SIZE && (resolved & (1L << slot)) == 0) {
+            mappings[slot] = source.getOption(names[slot]);
+            markResolved(slot);
+        }
+        return mappings[slot];
+    }
+
+    private void markResolved(int slot) {
+        if (slot < Long.SIZE) {
+            resolved |= 1L << slot;
+        }
+    }
+
+    private int slotOf(String name) {
+        for (int slot = 0; slot < size; slot++) {
+            if (names[slot] == name) {
+                return slot;
+            }
+        }
+        for (int slot = 0; slot < size; slot++) {
+            if (names[slot].equals(name)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * The fixed slot assignment of a command's arguments, computed once when the command is registered.
+     */
+    public static final class Layout {
+        static final Layout EMPTY = new Layout(new String[0]);
+
+        private final String[] names;
+
+        private Layout(String[] names) {
+            this.names = names;
+        }
+
+        /**
+         * Creates a layout assigning each argument the slot of its position in the list.
+         *
+         * @param arguments the arguments declared on the command
+         * @return the layout
+         */
+        public static Layout of(List<SlashCommandArgument> arguments) {
+            String[] names = new String[arguments.size()];
+            for (int slot = 0; slot < names.length; slot++) {
+                names[slot] = arguments.get(slot).name().intern();
+            }
+            return new Layout(names);
+        }
+
+        /**
+         * Creates a layout assigning each argument the slot of its position.
+         *
+         * @param names the names of the arguments declared on the command
+         * @return the layout
+         */
+        public static Layout of(String... names) {
+            String[] slots = new String[names.length];
+            for (int slot = 0; slot < slots.length; slot++) {
+                slots[slot] = names[slot].intern();
+            }
+            return new Layout(slots);
+        }
+
+        /**
+         * Returns the slot assigned to the given argument.
+         *
+         * @param name the name of the argument
+         * @return the slot, or {@code -1} if the argument is not part of this layout
+         */
+        public int slotOf(String name) {
+            for (int slot = 0; slot < names.length; slot++) {
+                if (names[slot].equals(name)) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        public int size() {
+            return names.length;
+        }
+    }
+}
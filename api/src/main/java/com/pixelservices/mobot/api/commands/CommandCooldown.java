@@ -0,0 +1,26 @@
+package com.pixelservices.mobot.api.commands;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Annotation to limit how often a SlashCommand can be used.
+ * <p>
+ * This annotation is used on a method annotated with @SlashCommand. The command may be used {@link #uses()} times
+ * per {@link #period()} within the given {@link CooldownScope}, uses being restored evenly over the period.
+ * Invocations exceeding the limit are answered with an ephemeral message and never reach the command.
+ * </p>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface CommandCooldown {
+    long period();
+    @NotNull TimeUnit unit() default TimeUnit.SECONDS;
+    int uses() default 1;
+    @NotNull CooldownScope scope() default CooldownScope.USER;
+}
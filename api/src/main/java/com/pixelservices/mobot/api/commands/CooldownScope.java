@@ -0,0 +1,28 @@
+package com.pixelservices.mobot.api.commands;
+
+/**
+ * Defines who shares the uses of a {@link CommandCooldown}.
+ */
+public enum CooldownScope {
+
+    /**
+     * Every user has their own cooldown.
+     */
+    USER,
+
+    /**
+     * All users of a guild share a cooldown. In direct messages, every user has their own cooldown.
+     */
+    GUILD,
+
+    /**
+     * All users of a channel share a cooldown.
+     */
+    CHANNEL,
+
+    /**
+     * All users share a single cooldown.
+     */
+    GLOBAL
+
+}
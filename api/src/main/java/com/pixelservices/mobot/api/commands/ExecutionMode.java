@@ -0,0 +1,26 @@
+package com.pixelservices.mobot.api.commands;
+
+/**
+ * Defines on which thread a {@link SlashCommand} is executed.
+ */
+public enum ExecutionMode {
+
+    /**
+     * Use the execution mode configured in the bot.yml.
+     */
+    DEFAULT,
+
+    /**
+     * Execute the command on the event thread of the shard that received it.
+     * Blocking in the command delays all other events of the shard.
+     */
+    INLINE,
+
+    /**
+     * Execute the command on a separate thread, a virtual thread when the runtime supports them.
+     * The interaction is deferred automatically if the command did not reply in time, so commands that may
+     * take a while should check {@code event.isAcknowledged()} and reply through {@code event.getHook()} once it is.
+     */
+    ASYNC
+
+}
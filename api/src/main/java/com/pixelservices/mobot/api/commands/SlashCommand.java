@@ -12,7 +12,19 @@ import java.lang.annotation.Target;
  * Annotation to mark a method as a slash command.
  * <p>
  * This annotation is used to define a slash command for a Discord bot using JDA (Java Discord API).
- * It provides metadata such as the command name, permission requirements, aliases, description, and options.
+ * It provides metadata such as the command name, permission requirements, aliases, description, and options,
+ * as well as the {@link ExecutionMode} the command is executed in.
+ * </p>
+ * <p>
+ * The name is a command path: a command name, optionally followed by a subcommand group and a subcommand,
+ * such as {@code "config set"} or {@code "config role add"}. Commands sharing their first name are registered
+ * with Discord as a single command with subcommands. A path cannot be registered together with one of its
+ * parents, since Discord does not allow commands with subcommands to be invoked on their own.
+ * </p>
+ * <p>
+ * Command methods usually reply through the event. They may instead return a
+ * {@link net.dv8tion.jda.api.utils.messages.MessageCreateData}, which is sent as the reply and can be
+ * cached with {@link CachedResponse}.
  * </p>
  */
 @Retention(RetentionPolicy.RUNTIME)
@@ -22,5 +34,12 @@ public @interface SlashCommand {
     @NotNull Permission permission() default Permission.UNKNOWN;
     @NotNull String[] aliases() default {};
     @NotNull String description() default "";
+    @NotNull ExecutionMode execution() default ExecutionMode.DEFAULT;
+
+    /**
+     * The maximum number of invocations of an {@link ExecutionMode#ASYNC} command running at the same time.
+     * Values of {@code 0} or less use the limit configured in the bot.yml.
+     */
+    int maxConcurrent() default 0;
 
 }
\ No newline at end of file
@@ -0,0 +1,176 @@
+package com.pixelservices.mobot.api.commands;
+
+import net.dv8tion.jda.api.Permission;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.interactions.commands.OptionType;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A dispatch table listing the {@link SlashCommand} methods of a {@link SlashCommandHandler}.
+ * <p>
+ * Implementations are generated at compile time by the annotation processor shipped with the API,
+ * as a class named after the handler with the {@link #SUFFIX} appended. When a table exists, the bot
+ * uses it instead of scanning the handler class: the commands registered with Discord are built from the
+ * definitions in the table, and the command methods are invoked through direct call sites.
+ * </p>
+ */
+public interface SlashCommandTable {
+
+    /**
+     * The suffix appended to the binary name of a handler class to form the name of its table.
+     */
+    String SUFFIX = "$MbCommandTable";
+
+    /**
+     * Returns the command methods of the handler.
+     *
+     * @return the entries of this table
+     */
+    List<Entry> getEntries();
+
+    /**
+     * A direct call site for a command method.
+     */
+    @FunctionalInterface
+    interface Invoker {
+
+        /**
+         * Invokes the command method.
+         *
+         * @param handler   the handler instance
+         * @param event     the interaction event
+         * @param arguments the values of the parameters following the event
+         * @return the value returned by the command method, or {@code null} if it returns {@code void}
+         * @throws Exception if the command method throws
+         */
+        Object invoke(SlashCommandHandler handler, SlashCommandInteractionEvent event, Object[] arguments) throws Exception;
+    }
+
+    /**
+     * A command method of the handler, identified by its name and parameter types, along with the definition of
+     * the command declared by its annotations.
+     * <p>
+     * Entries of tables generated by earlier versions of the processor carry no definition, in which case
+     * {@link #getCommand()} returns {@code null} and the definition is read from the annotations of the method.
+     * </p>
+     */
+    final class Entry {
+        private final String methodName;
+        private final Class<?>[] parameterTypes;
+        private final String[] parameterNames;
+        private final Class<?> returnType;
+        private final Command command;
+        private final List<Option> options;
+        private final Cooldown cooldown;
+        private final Cache cache;
+        private final Invoker invoker;
+
+        public Entry(String methodName, Class<?>[] parameterTypes, Invoker invoker) {
+            this(methodName, parameterTypes, null, null, null, List.of(), null, null, invoker);
+        }
+
+        /**
+         * Constructor for Entry.
+         *
+         * @param methodName     the name of the command method
+         * @param parameterTypes the parameter types of the command method, starting with the interaction event
+         * @param parameterNames the parameter names of the command method, or {@code null} if they are unknown
+         * @param returnType     the return type of the command method
+         * @param command        the command declared by the {@link SlashCommand} annotation
+         * @param options        the options declared by the {@link SlashCommandArgument} annotations
+         * @param cooldown       the cooldown declared by the {@link CommandCooldown} annotation, or {@code null}
+         * @param cache          the cache declared by the {@link CachedResponse} annotation, or {@code null}
+         * @param invoker        the call site of the command method
+         */
+        public Entry(String methodName, Class<?>[] parameterTypes, String[] parameterNames, Class<?> returnType,
+                     Command command, List<Option> options, Cooldown cooldown, Cache cache, Invoker invoker) {
+            this.methodName = methodName;
+            this.parameterTypes = parameterTypes;
+            this.parameterNames = parameterNames;
+            this.returnType = returnType;
+            this.command = command;
+            this.options = List.copyOf(options);
+            this.cooldown = cooldown;
+            this.cache = cache;
+            this.invoker = invoker;
+        }
+
+        public String getMethodName() {
+            return methodName;
+        }
+
+        public Class<?>[] getParameterTypes() {
+            return parameterTypes.clone();
+        }
+
+        /**
+         * Returns the parameter names of the command method, starting with the interaction event.
+         *
+         * @return the names, or {@code null} if they are unknown
+         */
+        public String[] getParameterNames() {
+            return parameterNames == null ? null : parameterNames.clone();
+        }
+
+        public Class<?> getReturnType() {
+            return returnType;
+        }
+
+        /**
+         * Returns the command declared by the {@link SlashCommand} annotation of the method.
+         *
+         * @return the command, or {@code null} if the entry carries no definition
+         */
+        public Command getCommand() {
+            return command;
+        }
+
+        public List<Option> getOptions() {
+            return options;
+        }
+
+        public Cooldown getCooldown() {
+            return cooldown;
+        }
+
+        public Cache getCache() {
+            return cache;
+        }
+
+        public Invoker getInvoker() {
+            return invoker;
+        }
+    }
+
+    /**
+     * The values of a {@link SlashCommand} annotation.
+     */
+    record Command(String name, Permission permission, List<String> aliases, String description, ExecutionMode execution, int maxConcurrent) {
+    }
+
+    /**
+     * The values of a {@link SlashCommandArgument} annotation.
+     */
+    record Option(String name, String description, OptionType type, List<Choice> choices, boolean required, boolean autoComplete) {
+    }
+
+    /**
+     * The values of a {@link SlashCommandChoice} annotation.
+     */
+    record Choice(String name, String value) {
+    }
+
+    /**
+     * The values of a {@link CommandCooldown} annotation.
+     */
+    record Cooldown(long period, TimeUnit unit, int uses, CooldownScope scope) {
+    }
+
+    /**
+     * The values of a {@link CachedResponse} annotation.
+     */
+    record Cache(long ttl, TimeUnit unit, CacheScope scope, boolean ephemeral) {
+    }
+}
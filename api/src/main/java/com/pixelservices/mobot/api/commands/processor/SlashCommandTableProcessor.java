@@ -0,0 +1,278 @@
+package com.pixelservices.mobot.api.commands.processor;
+
+import com.pixelservices.mobot.api.commands.CachedResponse;
+import com.pixelservices.mobot.api.commands.CommandCooldown;
+import com.pixelservices.mobot.api.commands.SlashCommand;
+import com.pixelservices.mobot.api.commands.SlashCommandArgument;
+import com.pixelservices.mobot.api.commands.SlashCommandArguments;
+import com.pixelservices.mobot.api.commands.SlashCommandHandler;
+import com.pixelservices.mobot.api.commands.SlashCommandTable;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Generates a {@link SlashCommandTable} for every {@link SlashCommandHandler} declaring {@link SlashCommand} methods.
+ * <p>
+ * The processor is registered as a service, so it runs automatically when a module is compiled against the API.
+ * Besides a direct call site, every entry of the table holds the values of the command annotations of its method,
+ * so that the bot builds the commands without reading the annotations reflectively.
+ * Handlers whose command methods cannot be called directly from the same package, such as private methods,
+ * are skipped and keep being registered through reflection.
+ * </p>
+ */
+@SupportedAnnotationTypes("com.pixelservices.mobot.api.commands.SlashCommand")
+public class SlashCommandTableProcessor extends AbstractProcessor {
+    private static final String EVENT_TYPE = "net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Map<TypeElement, List<ExecutableElement>> handlers = new LinkedHashMap<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(SlashCommand.class)) {
+            if (element.getKind() == ElementKind.METHOD && element.getEnclosingElement() instanceof TypeElement type) {
+                handlers.computeIfAbsent(type, key -> new ArrayList<>()).add((ExecutableElement) element);
+            }
+        }
+
+        handlers.forEach((type, methods) -> {
+            if (isSupported(type, methods)) {
+                writeTable(type, methods);
+            }
+        });
+        return false;
+    }
+
+    private boolean isSupported(TypeElement type, List<ExecutableElement> methods) {
+        TypeMirror handlerType = processingEnv.getElementUtils().getTypeElement(SlashCommandHandler.class.getCanonicalName()).asType();
+        if (!processingEnv.getTypeUtils().isAssignable(type.asType(), handlerType)) {
+            return false;
+        }
+
+        for (Element element = type; element instanceof TypeElement enclosing; element = element.getEnclosingElement()) {
+            if (enclosing.getModifiers().contains(Modifier.PRIVATE)
+                    || (enclosing.getNestingKind() == NestingKind.MEMBER && !enclosing.getModifiers().contains(Modifier.STATIC))
+                    || enclosing.getNestingKind() == NestingKind.LOCAL || enclosing.getNestingKind() == NestingKind.ANONYMOUS) {
+                note(type, "is not accessible from its package");
+                return false;
+            }
+        }
+
+        for (ExecutableElement method : methods) {
+            if (method.getModifiers().contains(Modifier.PRIVATE) || method.getModifiers().contains(Modifier.STATIC)) {
+                note(type, "declares a private or static command method: " + method.getSimpleName());
+                return false;
+            }
+            List<? extends VariableElement> parameters = method.getParameters();
+            if (parameters.isEmpty() || !erasure(parameters.get(0).asType()).equals(EVENT_TYPE)) {
+                note(type, "declares a command method not taking the interaction event first: " + method.getSimpleName());
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void writeTable(TypeElement type, List<ExecutableElement> methods) {
+        PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(type);
+        String packageName = packageElement.isUnnamed() ? "" : packageElement.getQualifiedName().toString();
+        String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+        String tableName = binaryName.substring(packageName.isEmpty() ? 0 : packageName.length() + 1) + SlashCommandTable.SUFFIX;
+        String handlerName = erasure(type.asType());
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("@javax.annotation.processing.Generated(\"").append(getClass().getName()).append("\")\n");
+        source.append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+        source.append("public final class ").append(tableName).append(" implements ").append(SlashCommandTable.class.getCanonicalName()).append(" {\n");
+        source.append("    private static final java.util.List<Entry> ENTRIES = java.util.List.of(\n");
+
+        for (int i = 0; i < methods.size(); i++) {
+            ExecutableElement method = methods.get(i);
+            List<? extends VariableElement> parameters = method.getParameters();
+
+            StringBuilder types = new StringBuilder();
+            StringBuilder names = new StringBuilder();
+            StringBuilder call = new StringBuilder("event");
+            for (int p = 0; p < parameters.size(); p++) {
+                String parameterType = erasure(parameters.get(p).asType());
+                types.append(p == 0 ? "" : ", ").append(parameterType).append(".class");
+                names.append(p == 0 ? "" : ", ").append(constant(parameters.get(p).getSimpleName().toString()));
+                if (p > 0) {
+                    call.append(", (").append(parameterType).append(") arguments[").append(p - 1).append("]");
+                }
+            }
+
+            String invocation = "((" + handlerName + ") handler)." + method.getSimpleName() + "(" + call + ")";
+            source.append("            new Entry(\"").append(method.getSimpleName()).append("\", new Class<?>[]{").append(types).append("},\n");
+            source.append("                    new String[]{").append(names).append("}, ").append(erasure(method.getReturnType())).append(".class,\n");
+            source.append("                    ").append(commandSource(method)).append(",\n");
+            source.append("                    ").append(optionsSource(method)).append(",\n");
+            source.append("                    ").append(cooldownSource(method)).append(",\n");
+            source.append("                    ").append(cacheSource(method)).append(",\n");
+            if (method.getReturnType().getKind() == TypeKind.VOID) {
+                source.append("                    (handler, event, arguments) -> { ").append(invocation).append("; return null; })");
+            } else {
+                source.append("                    (handler, event, arguments) -> ").append(invocation).append(")");
+            }
+            source.append(i + 1 < methods.size() ? ",\n" : "\n");
+        }
+
+        source.append("    );\n\n");
+        source.append("    @Override\n");
+        source.append("    public java.util.List<Entry> getEntries() {\n");
+        source.append("        return ENTRIES;\n");
+        source.append("    }\n");
+        source.append("}\n");
+
+        String qualifiedName = packageName.isEmpty() ? tableName : packageName + "." + tableName;
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, type);
+            try (Writer writer = file.openWriter()) {
+                writer.write(source.toString());
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to generate slash command table: " + e.getMessage(), type);
+        }
+    }
+
+    private String commandSource(ExecutableElement method) {
+        Map<String, AnnotationValue> values = valuesOf(findAnnotation(method, SlashCommand.class));
+        return "new Command(" + constant(values.get("name")) + ", " + constant(values.get("permission")) + ", "
+                + listSource(values.get("aliases"), this::constant) + ", " + constant(values.get("description")) + ", "
+                + constant(values.get("execution")) + ", " + constant(values.get("maxConcurrent")) + ")";
+    }
+
+    private String optionsSource(ExecutableElement method) {
+        List<AnnotationMirror> arguments = new ArrayList<>();
+        for (AnnotationMirror annotation : method.getAnnotationMirrors()) {
+            if (isAnnotation(annotation, SlashCommandArgument.class)) {
+                arguments.add(annotation);
+            } else if (isAnnotation(annotation, SlashCommandArguments.class)) {
+                for (AnnotationValue value : asList(valuesOf(annotation).get("value"))) {
+                    arguments.add((AnnotationMirror) value.getValue());
+                }
+            }
+        }
+
+        StringBuilder source = new StringBuilder("java.util.List.of(");
+        for (int i = 0; i < arguments.size(); i++) {
+            Map<String, AnnotationValue> values = valuesOf(arguments.get(i));
+            source.append(i == 0 ? "" : ", ").append("new Option(").append(constant(values.get("name"))).append(", ")
+                    .append(constant(values.get("description"))).append(", ").append(constant(values.get("type"))).append(", ")
+                    .append(listSource(values.get("choices"), this::choiceSource)).append(", ")
+                    .append(constant(values.get("required"))).append(", ").append(constant(values.get("autoComplete"))).append(")");
+        }
+        return source.append(")").toString();
+    }
+
+    private String choiceSource(AnnotationValue choice) {
+        Map<String, AnnotationValue> values = valuesOf((AnnotationMirror) choice.getValue());
+        return "new Choice(" + constant(values.get("name")) + ", " + constant(values.get("value")) + ")";
+    }
+
+    private String cooldownSource(ExecutableElement method) {
+        AnnotationMirror annotation = findAnnotation(method, CommandCooldown.class);
+        if (annotation == null) {
+            return "null";
+        }
+        Map<String, AnnotationValue> values = valuesOf(annotation);
+        return "new Cooldown(" + constant(values.get("period")) + ", " + constant(values.get("unit")) + ", "
+                + constant(values.get("uses")) + ", " + constant(values.get("scope")) + ")";
+    }
+
+    private String cacheSource(ExecutableElement method) {
+        AnnotationMirror annotation = findAnnotation(method, CachedResponse.class);
+        if (annotation == null) {
+            return "null";
+        }
+        Map<String, AnnotationValue> values = valuesOf(annotation);
+        return "new Cache(" + constant(values.get("ttl")) + ", " + constant(values.get("unit")) + ", "
+                + constant(values.get("scope")) + ", " + constant(values.get("ephemeral")) + ")";
+    }
+
+    private String listSource(AnnotationValue value, Function<AnnotationValue, String> element) {
+        StringBuilder source = new StringBuilder("java.util.List.of(");
+        List<? extends AnnotationValue> values = asList(value);
+        for (int i = 0; i < values.size(); i++) {
+            source.append(i == 0 ? "" : ", ").append(element.apply(values.get(i)));
+        }
+        return source.append(")").toString();
+    }
+
+    /**
+     * Returns the source of an annotation value of a primitive, string or enum type.
+     */
+    private String constant(AnnotationValue value) {
+        if (value.getValue() instanceof VariableElement constant) {
+            return erasure(constant.asType()) + "." + constant.getSimpleName();
+        }
+        return constant(value.getValue());
+    }
+
+    private String constant(Object value) {
+        return processingEnv.getElementUtils().getConstantExpression(value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<? extends AnnotationValue> asList(AnnotationValue value) {
+        return (List<? extends AnnotationValue>) value.getValue();
+    }
+
+    private Map<String, AnnotationValue> valuesOf(AnnotationMirror annotation) {
+        Map<String, AnnotationValue> values = new LinkedHashMap<>();
+        processingEnv.getElementUtils().getElementValuesWithDefaults(annotation)
+                .forEach((element, value) -> values.put(element.getSimpleName().toString(), value));
+        return values;
+    }
+
+    private AnnotationMirror findAnnotation(ExecutableElement method, Class<?> annotationType) {
+        for (AnnotationMirror annotation : method.getAnnotationMirrors()) {
+            if (isAnnotation(annotation, annotationType)) {
+                return annotation;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isAnnotation(AnnotationMirror annotation, Class<?> annotationType) {
+        return ((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotationType.getCanonicalName());
+    }
+
+    private String erasure(TypeMirror type) {
+        return processingEnv.getTypeUtils().erasure(type).toString();
+    }
+
+    private void note(TypeElement type, String reason) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, "Skipping slash command table for " + type.getQualifiedName() + ", it " + reason + ".", type);
+    }
+}
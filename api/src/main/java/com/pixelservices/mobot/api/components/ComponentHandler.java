@@ -0,0 +1,7 @@
+package com.pixelservices.mobot.api.components;
+
+/**
+ * Marker interface for classes that handle button, select menu and modal interactions.
+ */
+public interface ComponentHandler {
+}
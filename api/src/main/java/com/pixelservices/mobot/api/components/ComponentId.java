@@ -0,0 +1,98 @@
+package com.pixelservices.mobot.api.components;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Builds the custom ids of buttons, select menus and modals routed to a {@link ComponentHandler}.
+ * <p>
+ * A custom id consists of the route of the handler, optionally followed by state values, each introduced by
+ * {@value #SEPARATOR}, for example {@code ticket:close|1a2b3c|true}. Numbers are encoded in base 36 to keep the id
+ * short, since Discord limits custom ids to {@value #MAX_LENGTH} characters. The state is read back with
+ * {@link ComponentState}, in the order it was written.
+ * </p>
+ * <pre>{@code
+ * Button.danger(ComponentId.of("ticket:close").with(ticketId).build(), "Close")
+ * }</pre>
+ */
+public final class ComponentId {
+    public static final char SEPARATOR = '|';
+    public static final char ESCAPE = '\\';
+    public static final int MAX_LENGTH = 100;
+
+    private ComponentId() {
+    }
+
+    /**
+     * Starts a custom id for the given route.
+     *
+     * @param route the route of the handler, which must not contain {@value #SEPARATOR}
+     * @return the builder
+     */
+    public static Builder of(@NotNull String route) {
+        if (route.isEmpty() || route.indexOf(SEPARATOR) >= 0 || route.indexOf(ESCAPE) >= 0) {
+            throw new IllegalArgumentException("Invalid component route: \"" + route + "\". A route must not be empty or contain '" + SEPARATOR + "' or '" + ESCAPE + "'.");
+        }
+        return new Builder(route);
+    }
+
+    /**
+     * Returns the length of the route at the start of a custom id.
+     *
+     * @param customId the custom id
+     * @return the index of the first separator, or the length of the id if it carries no state
+     */
+    public static int routeLength(@NotNull String customId) {
+        int separator = customId.indexOf(SEPARATOR);
+        return separator < 0 ? customId.length() : separator;
+    }
+
+    /**
+     * Builds a custom id by appending state values to a route.
+     */
+    public static final class Builder {
+        private final StringBuilder id;
+
+        private Builder(String route) {
+            this.id = new StringBuilder(route);
+        }
+
+        public Builder with(@NotNull String value) {
+            id.append(SEPARATOR);
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == SEPARATOR || c == ESCAPE) {
+                    id.append(ESCAPE);
+                }
+                id.append(c);
+            }
+            return this;
+        }
+
+        public Builder with(long value) {
+            id.append(SEPARATOR).append(Long.toString(value, Character.MAX_RADIX));
+            return this;
+        }
+
+        public Builder with(boolean value) {
+            id.append(SEPARATOR).append(value ? '1' : '0');
+            return this;
+        }
+
+        public Builder with(@NotNull Enum<?> value) {
+            return with(value.ordinal());
+        }
+
+        /**
+         * Builds the custom id.
+         *
+         * @return the custom id
+         * @throws IllegalStateException if the id exceeds {@value #MAX_LENGTH} characters
+         */
+        public String build() {
+            if (id.length() > MAX_LENGTH) {
+                throw new IllegalStateException("The component id exceeds " + MAX_LENGTH + " characters: " + id);
+            }
+            return id.toString();
+        }
+    }
+}
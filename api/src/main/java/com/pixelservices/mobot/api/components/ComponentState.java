@@ -0,0 +1,93 @@
+package com.pixelservices.mobot.api.components;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The state values carried by a custom id built with {@link ComponentId}.
+ * <p>
+ * Values are read by their position, in the order they were written, and decoded with the getter matching the
+ * type they were written with. The id is split on the first access.
+ * </p>
+ */
+public final class ComponentState {
+    private final String customId;
+    private final int routeLength;
+    private String[] values;
+
+    /**
+     * Constructor for ComponentState.
+     *
+     * @param customId the custom id of the component
+     */
+    public ComponentState(@NotNull String customId) {
+        this.customId = customId;
+        this.routeLength = ComponentId.routeLength(customId);
+    }
+
+    public String getCustomId() {
+        return customId;
+    }
+
+    public String getRoute() {
+        return customId.substring(0, routeLength);
+    }
+
+    public int size() {
+        return values().length;
+    }
+
+    public String getString(int index) {
+        return value(index);
+    }
+
+    public long getLong(int index) {
+        return Long.parseLong(value(index), Character.MAX_RADIX);
+    }
+
+    public int getInt(int index) {
+        return Math.toIntExact(getLong(index));
+    }
+
+    public boolean getBoolean(int index) {
+        return value(index).equals("1");
+    }
+
+    public <E extends Enum<E>> E getEnum(int index, @NotNull Class<E> type) {
+        return type.getEnumConstants()[getInt(index)];
+    }
+
+    private String value(int index) {
+        String[] values = values();
+        if (index < 0 || index >= values.length) {
+            throw new IndexOutOfBoundsException("The component id " + customId + " carries " + values.length + " values, requested: " + index);
+        }
+        return values[index];
+    }
+
+    private String[] values() {
+        if (values == null) {
+            values = parse();
+        }
+        return values;
+    }
+
+    private String[] parse() {
+        List<String> parsed = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        for (int i = routeLength + 1; i <= customId.length(); i++) {
+            char c = i < customId.length() ? customId.charAt(i) : ComponentId.SEPARATOR;
+            if (c == ComponentId.ESCAPE && i + 1 < customId.length()) {
+                value.append(customId.charAt(++i));
+            } else if (c == ComponentId.SEPARATOR) {
+                parsed.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        return parsed.toArray(new String[0]);
+    }
+}
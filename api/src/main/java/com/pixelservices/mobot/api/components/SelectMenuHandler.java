@@ -0,0 +1,24 @@
+package com.pixelservices.mobot.api.components;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation to mark a method as the handler of a select menu interaction.
+ * <p>
+ * The method is declared in a {@link ComponentHandler} and takes the
+ * {@link net.dv8tion.jda.api.events.interaction.component.StringSelectInteractionEvent},
+ * the {@link net.dv8tion.jda.api.events.interaction.component.EntitySelectInteractionEvent} or, for both kinds of menus,
+ * the {@link net.dv8tion.jda.api.events.interaction.component.GenericSelectMenuInteractionEvent} as its first parameter, optionally followed by the {@link ComponentState} carried by the custom id.
+ * It is invoked for every custom id built with {@link ComponentId#of(String)} for the given route.
+ * </p>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface SelectMenuHandler {
+    @NotNull String value();
+}
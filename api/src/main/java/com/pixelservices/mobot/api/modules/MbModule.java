@@ -2,14 +2,21 @@ package com.pixelservices.mobot.api.modules;
 
 import com.pixelservices.mobot.api.commands.SlashCommand;
 import com.pixelservices.mobot.api.commands.SlashCommandHandler;
+import com.pixelservices.mobot.api.components.ComponentHandler;
 import com.pixelservices.mobot.api.env.BotEnvironment;
 import com.pixelservices.mobot.api.env.FinalizedBotEnvironment;
 import com.pixelservices.mobot.api.env.PrimitiveBotEnvironment;
+import com.pixelservices.mobot.api.modules.listener.EventSubscriber;
 import com.pixelservices.mobot.api.modules.listener.ListenerBridge;
 import com.pixelservices.mobot.api.modules.listener.ModuleListener;
+import com.pixelservices.mobot.api.modules.listener.Subscribe;
 import com.pixelservices.mobot.api.scheduler.TaskScheduler;
 import dev.siea.jonion.Plugin;
 
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
 public class MbModule extends Plugin {
 
     private TaskScheduler taskScheduler;
@@ -96,6 +103,60 @@ public class MbModule extends Plugin {
         registryBridge.registerCommandHandler(slashCommandHandler);
     }
 
+    /**
+     * Drops the cached replies of a command, e.g. after the data it displays changed.
+     *
+     * @param command the path of the command
+     */
+    public final void invalidateCachedResponses(String command) {
+        registryBridge.invalidateCachedResponses(command);
+    }
+
+    /**
+     * Drops the cached replies of a command in a scope, e.g. after the data of a guild changed.
+     *
+     * @param command the path of the command
+     * @param scopeId the id of the guild or user the replies were cached for, depending on the scope of the cache
+     */
+    public final void invalidateCachedResponses(String command, long scopeId) {
+        registryBridge.invalidateCachedResponses(command, scopeId);
+    }
+
+    /**
+     * Registers a handler for button, select menu and modal interactions with the bot.
+     *
+     * @param componentHandler the {@link ComponentHandler} to handle the component interactions
+     */
+    public final void registerComponentHandler(ComponentHandler componentHandler){
+        registryBridge.registerComponentHandler(componentHandler);
+    }
+
+    /**
+     * Registers a fixed set of autocomplete candidates for an option of a slash command.
+     * Every keystroke is answered from a prefix index of the candidates, without calling the module.
+     *
+     * @param command    the name of the command
+     * @param option     the name of the option, declared with {@code autoComplete = true}
+     * @param candidates the candidates, either {@link net.dv8tion.jda.api.interactions.commands.Command.Choice}s, numbers or strings
+     */
+    public final void registerAutoComplete(String command, String option, Collection<?> candidates) {
+        registryBridge.registerAutoComplete(command, option, candidates);
+    }
+
+    /**
+     * Registers a set of autocomplete candidates for an option of a slash command, reloaded periodically.
+     * Every keystroke is answered from a prefix index of the last loaded candidates, without calling the module.
+     *
+     * @param command         the name of the command
+     * @param option          the name of the option, declared with {@code autoComplete = true}
+     * @param candidates      the supplier of the candidates, called off the event threads
+     * @param refreshInterval the time between two reloads of the candidates
+     * @param unit            the unit of the refresh interval
+     */
+    public final void registerAutoComplete(String command, String option, Supplier<? extends Collection<?>> candidates, long refreshInterval, TimeUnit unit) {
+        registryBridge.registerAutoComplete(command, option, candidates, refreshInterval, unit);
+    }
+
     /**
      * Registers event listeners with the bot.
      *
@@ -116,6 +177,30 @@ public class MbModule extends Plugin {
         }
     }
 
+    /**
+     * Registers objects declaring {@link Subscribe} methods with the bot.
+     *
+     * @param subscribers the event subscribers to be registered
+     */
+    public final void registerEventListener(EventSubscriber... subscribers){
+        if (listenerBridge != null) {
+            for (EventSubscriber subscriber : subscribers) {
+                if (subscriber instanceof ModuleListener listener) {
+                    registerEventListener(listener);
+                    continue;
+                }
+                if(listenerBridge.getSubscribers().contains(subscriber)) {
+                    getLogger().warn("Skipping subscriber: " + subscriber.getClass().getSimpleName() + ", as it's already registered.");
+                    continue;
+                }
+
+                listenerBridge.registerSubscriber(subscriber);
+            }
+        } else {
+            getLogger().error("Failed to register event subscribers: Bot is not available yet. Please register subscribers after the onEnable method was called.");
+        }
+    }
+
     /**
      * Injects the {@link PrimitiveBotEnvironment} into the module.
      *
@@ -1,6 +1,11 @@
 package com.pixelservices.mobot.api.modules;
 
 import com.pixelservices.mobot.api.commands.SlashCommandHandler;
+import com.pixelservices.mobot.api.components.ComponentHandler;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  * Interface for a registry bridge that allows modules to register commands and command handlers.
@@ -16,4 +21,46 @@ public interface RegistryBridge {
      * @param slashCommand The command handler that will handle the slash command.
      */
     void registerCommandHandler(SlashCommandHandler slashCommand);
+
+    /**
+     * Drops the cached replies of a command.
+     *
+     * @param command The path of the command.
+     */
+    void invalidateCachedResponses(String command);
+
+    /**
+     * Drops the cached replies of a command in a scope.
+     *
+     * @param command The path of the command.
+     * @param scopeId The id of the guild or user the replies were cached for, depending on the scope of the cache.
+     */
+    void invalidateCachedResponses(String command, long scopeId);
+
+    /**
+     * Registers a handler for button, select menu and modal interactions.
+     *
+     * @param componentHandler The handler that will handle the component interactions.
+     */
+    void registerComponentHandler(ComponentHandler componentHandler);
+
+    /**
+     * Registers a fixed set of autocomplete candidates for an option of a slash command.
+     *
+     * @param command    The name of the command.
+     * @param option     The name of the option.
+     * @param candidates The candidates, either {@link net.dv8tion.jda.api.interactions.commands.Command.Choice}s, numbers or strings.
+     */
+    void registerAutoComplete(String command, String option, Collection<?> candidates);
+
+    /**
+     * Registers a set of autocomplete candidates for an option of a slash command, reloaded periodically.
+     *
+     * @param command         The name of the command.
+     * @param option          The name of the option.
+     * @param candidates      The supplier of the candidates, called off the event threads.
+     * @param refreshInterval The time between two reloads of the candidates.
+     * @param unit            The unit of the refresh interval.
+     */
+    void registerAutoComplete(String command, String option, Supplier<? extends Collection<?>> candidates, long refreshInterval, TimeUnit unit);
 }
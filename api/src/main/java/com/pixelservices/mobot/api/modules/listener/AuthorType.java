@@ -0,0 +1,28 @@
+package com.pixelservices.mobot.api.modules.listener;
+
+/**
+ * The kinds of authors an {@link EventFilter} can restrict events to.
+ */
+public enum AuthorType {
+
+    /**
+     * Events of any author, and events without an author.
+     */
+    ANY,
+
+    /**
+     * Events of users that are neither bots nor system users, excluding webhook messages.
+     */
+    HUMAN,
+
+    /**
+     * Events of bot users, excluding webhook messages.
+     */
+    BOT,
+
+    /**
+     * Messages sent by webhooks.
+     */
+    WEBHOOK
+
+}
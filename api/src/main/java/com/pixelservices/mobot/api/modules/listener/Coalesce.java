@@ -0,0 +1,33 @@
+package com.pixelservices.mobot.api.modules.listener;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Annotation to receive the events of a {@link Subscribe} method in batches.
+ * <p>
+ * The method takes an {@link EventBatch} of the event type instead of the event. The first event of a {@link #key()}
+ * opens a batch, which collects the further events of that key and is delivered once the {@link #window()} has passed,
+ * or earlier once it holds {@link #maxEvents()} events. With {@link #latestOnly()}, a batch only keeps the latest
+ * event of its key, for example the current presence of a member.
+ * </p>
+ * <pre>{@code
+ * @Subscribe
+ * @Coalesce(window = 500, key = CoalesceKey.MEMBER, latestOnly = true)
+ * public void onPresence(EventBatch<UserUpdateOnlineStatusEvent> batch) { ... }
+ * }</pre>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Coalesce {
+    long window();
+    @NotNull TimeUnit unit() default TimeUnit.MILLISECONDS;
+    @NotNull CoalesceKey key() default CoalesceKey.NONE;
+    boolean latestOnly() default false;
+    int maxEvents() default 100;
+}
@@ -0,0 +1,38 @@
+package com.pixelservices.mobot.api.modules.listener;
+
+/**
+ * Defines which events a {@link Coalesce} subscription collects into the same {@link EventBatch}.
+ */
+public enum CoalesceKey {
+
+    /**
+     * All events are collected into a single batch.
+     */
+    NONE,
+
+    /**
+     * The events of every guild are collected separately.
+     */
+    GUILD,
+
+    /**
+     * The events of every channel are collected separately.
+     */
+    CHANNEL,
+
+    /**
+     * The events of every user are collected separately, across guilds.
+     */
+    USER,
+
+    /**
+     * The events of every member are collected separately, a user in two guilds being two members.
+     */
+    MEMBER,
+
+    /**
+     * The events of every message, such as its reactions, are collected separately.
+     */
+    MESSAGE
+
+}
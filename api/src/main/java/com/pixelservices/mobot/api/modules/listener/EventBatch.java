@@ -0,0 +1,83 @@
+package com.pixelservices.mobot.api.modules.listener;
+
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.utils.data.DataObject;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * The events collected by a {@link Coalesce} subscription, in the order they were received.
+ * <p>
+ * The batch is itself an event of the shard of its latest event, so it passes through the same dispatch as
+ * any other event.
+ * </p>
+ *
+ * @param <T> the type of the collected events
+ */
+public final class EventBatch<T extends GenericEvent> implements GenericEvent {
+    private final long key;
+    private final List<T> events;
+    private final int coalescedCount;
+
+    /**
+     * Constructor for EventBatch.
+     *
+     * @param key            the id of the entity the events were collected for, or {@code 0}
+     * @param events         the collected events, not empty
+     * @param coalescedCount the number of events received for the batch, including the ones not kept
+     */
+    public EventBatch(long key, @NotNull List<T> events, int coalescedCount) {
+        if (events.isEmpty()) {
+            throw new IllegalArgumentException("An event batch must hold at least one event.");
+        }
+        this.key = key;
+        this.events = List.copyOf(events);
+        this.coalescedCount = coalescedCount;
+    }
+
+    /**
+     * Returns the id of the guild, channel, user or message the events were collected for.
+     * For {@link CoalesceKey#MEMBER} this is the id of the user, for {@link CoalesceKey#NONE} it is {@code 0}.
+     *
+     * @return the id of the key
+     */
+    public long getKey() {
+        return key;
+    }
+
+    public List<T> getEvents() {
+        return events;
+    }
+
+    public T getLatest() {
+        return events.get(events.size() - 1);
+    }
+
+    public int size() {
+        return events.size();
+    }
+
+    public int getCoalescedCount() {
+        return coalescedCount;
+    }
+
+    @NotNull
+    @Override
+    public JDA getJDA() {
+        return getLatest().getJDA();
+    }
+
+    @Override
+    public long getResponseNumber() {
+        return getLatest().getResponseNumber();
+    }
+
+    @Nullable
+    @Override
+    public DataObject getRawData() {
+        return getLatest().getRawData();
+    }
+}
@@ -0,0 +1,46 @@
+package com.pixelservices.mobot.api.modules.listener;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation to restrict the events an event handler receives.
+ * <p>
+ * Used on a {@link ModuleListener} or {@link EventSubscriber} class, the filter applies to all of its handlers.
+ * Used on a {@link Subscribe} method, it replaces the filter of the class for that method. All given conditions must
+ * match, and they are checked by MoBot before any module code is called. An event that does not carry a filtered
+ * property, for example a guild event filtered by message content, never matches.
+ * </p>
+ * <pre>{@code
+ * @EventFilter(guilds = 123456789012345678L, author = AuthorType.HUMAN, prefix = "!")
+ * }</pre>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface EventFilter {
+    /**
+     * The ids of the guilds the events must come from. Empty to allow every guild, and direct messages.
+     */
+    long[] guilds() default {};
+
+    /**
+     * The ids of the channels the events must come from. Empty to allow every channel.
+     */
+    long[] channels() default {};
+
+    @NotNull AuthorType author() default AuthorType.ANY;
+
+    /**
+     * The prefix the raw content of the message must start with. Empty to allow any content.
+     */
+    @NotNull String prefix() default "";
+
+    /**
+     * A regular expression found in the raw content of the message. Empty to allow any content.
+     */
+    @NotNull String pattern() default "";
+}
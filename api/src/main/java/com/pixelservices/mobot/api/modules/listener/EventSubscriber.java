@@ -0,0 +1,11 @@
+package com.pixelservices.mobot.api.modules.listener;
+
+/**
+ * Marker interface for classes declaring {@link Subscribe} methods.
+ * <p>
+ * Unlike a {@link ModuleListener}, a subscriber does not need to extend a JDA class and only receives the event types
+ * its methods take. A {@link ModuleListener} may declare {@link Subscribe} methods as well.
+ * </p>
+ */
+public interface EventSubscriber {
+}
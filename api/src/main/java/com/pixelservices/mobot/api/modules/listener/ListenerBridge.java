@@ -8,4 +8,8 @@ public interface ListenerBridge {
 
     Set<ModuleListener> getListeners();
 
+    void registerSubscriber(EventSubscriber subscriber);
+
+    Set<EventSubscriber> getSubscribers();
+
 }
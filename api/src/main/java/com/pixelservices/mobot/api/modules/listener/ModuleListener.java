@@ -2,6 +2,6 @@ package com.pixelservices.mobot.api.modules.listener;
 
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
 
-public class ModuleListener extends ListenerAdapter {
+public class ModuleListener extends ListenerAdapter implements EventSubscriber {
 
 }
@@ -0,0 +1,20 @@
+package com.pixelservices.mobot.api.modules.listener;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation to mark a method of an {@link EventSubscriber} as an event handler.
+ * <p>
+ * The method takes a single JDA event, for example {@link net.dv8tion.jda.api.events.message.MessageReceivedEvent},
+ * and receives every event of that type and its subtypes. Handlers of the same event are invoked from the highest
+ * priority to the lowest, handlers with equal priorities in the order they were registered.
+ * </p>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Subscribe {
+    int priority() default 0;
+}
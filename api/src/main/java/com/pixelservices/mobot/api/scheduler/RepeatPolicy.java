@@ -0,0 +1,22 @@
+package com.pixelservices.mobot.api.scheduler;
+
+/**
+ * How a repeating task is run when a run takes longer than its period.
+ */
+public enum RepeatPolicy {
+    /**
+     * Runs are due one period after the previous run was due. Synchronous runs that are due while the previous run
+     * is still running start late, one after the other, until the task caught up. Asynchronous runs start on time and
+     * may overlap.
+     */
+    FIXED_RATE,
+    /**
+     * Runs are due one period after the previous run completed, so runs never overlap and never catch up.
+     */
+    FIXED_DELAY,
+    /**
+     * Runs are due one period after the previous run was due, but runs that are due while the previous run is still
+     * running are skipped.
+     */
+    SKIP_IF_RUNNING
+}
@@ -3,6 +3,7 @@ package com.pixelservices.mobot.api.scheduler;
 import com.pixelservices.mobot.api.modules.MbModule;
 
 import java.util.concurrent.ScheduledFuture;
+import java.util.function.LongSupplier;
 
 public class ScheduledTask {
 
@@ -11,17 +12,46 @@ public class ScheduledTask {
     private final Runnable runnable;
     private final boolean async;
     private final boolean repeating;
+    private final RepeatPolicy repeatPolicy;
+    private final LongSupplier runs;
+    private final LongSupplier missedTicks;
+
+    private final Runnable cancelHandler;
 
     private ScheduledFuture<?> future;
 
-    private boolean cancelled;
+    private volatile boolean cancelled;
 
     public ScheduledTask(int taskId, MbModule module, Runnable runnable, boolean async, boolean repeating) {
+        this(taskId, module, runnable, async, repeating, RepeatPolicy.FIXED_RATE, () -> 0, () -> 0, null);
+    }
+
+    /**
+     * Constructor for ScheduledTask.
+     * The counters and the cancel handler are kept by the scheduler running the task, so this task only exposes
+     * the values of the counters and cannot be detached from the scheduler.
+     *
+     * @param taskId        the ID of the task
+     * @param module        the module that scheduled the task
+     * @param runnable      the runnable of the task
+     * @param async         whether the task runs asynchronously
+     * @param repeating     whether the task repeats
+     * @param repeatPolicy  how runs taking longer than the period are handled
+     * @param runs          the number of times the task has run
+     * @param missedTicks   the number of times the task was due while its previous run was still running
+     * @param cancelHandler the action cancelling the task with the scheduler, or {@code null}
+     */
+    public ScheduledTask(int taskId, MbModule module, Runnable runnable, boolean async, boolean repeating, RepeatPolicy repeatPolicy,
+                         LongSupplier runs, LongSupplier missedTicks, Runnable cancelHandler) {
         this.taskId = taskId;
         this.module = module;
         this.runnable = runnable;
         this.async = async;
         this.repeating = repeating;
+        this.repeatPolicy = repeatPolicy;
+        this.runs = runs;
+        this.missedTicks = missedTicks;
+        this.cancelHandler = cancelHandler;
     }
 
     /**
@@ -56,6 +86,29 @@ public class ScheduledTask {
         return repeating;
     }
 
+    /**
+     * Returns how runs of this task taking longer than its period are handled.
+     */
+    public RepeatPolicy getRepeatPolicy() {
+        return repeatPolicy;
+    }
+
+    /**
+     * Returns the number of times this task has run.
+     */
+    public long getRuns() {
+        return runs.getAsLong();
+    }
+
+    /**
+     * Returns the number of times this task was due while its previous run was still running.
+     * Depending on the {@link RepeatPolicy}, these runs were started late, started alongside the previous run,
+     * or skipped.
+     */
+    public long getMissedTicks() {
+        return missedTicks.getAsLong();
+    }
+
     /**
      * Returns whether this task is cancelled.
      */
@@ -72,6 +125,9 @@ public class ScheduledTask {
         if (future != null) {
             future.cancel(false);
         }
+        if (cancelHandler != null) {
+            cancelHandler.run();
+        }
     }
 
     public void setFuture(ScheduledFuture<?> future) {
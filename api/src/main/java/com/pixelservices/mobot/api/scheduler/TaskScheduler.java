@@ -11,18 +11,60 @@ public interface TaskScheduler {
 
     Map<Integer, ScheduledTask> getTasks();
 
+    /**
+     * Returns the pending and repeating tasks of a module.
+     *
+     * @param module the module owning the tasks
+     * @return the tasks by id
+     */
+    Map<Integer, ScheduledTask> getTasks(@NotNull MbModule module);
+
     ScheduledTask runTask(@NotNull MbModule module, Runnable runnable);
 
     ScheduledTask runTaskLater(@NotNull MbModule module, Runnable runnable, @Nullable TimeUnit timeUnit, long delay);
 
     ScheduledTask runTaskTimer(@NotNull MbModule module,  Runnable runnable, @Nullable TimeUnit timeUnit, long delay, long period);
 
+    /**
+     * Runs a task repeatedly on the scheduler threads.
+     *
+     * @param module   the module owning the task
+     * @param runnable the task
+     * @param timeUnit the unit of the delay and period, seconds if {@code null}
+     * @param delay    the delay before the first run
+     * @param period   the period between the runs
+     * @param policy   how runs taking longer than the period are handled
+     * @return the scheduled task
+     */
+    ScheduledTask runTaskTimer(@NotNull MbModule module, Runnable runnable, @Nullable TimeUnit timeUnit, long delay, long period, @NotNull RepeatPolicy policy);
+
     ScheduledTask runTaskAsync(@NotNull MbModule module,  Runnable runnable);
 
     ScheduledTask runTaskLaterAsync(@NotNull MbModule module,  Runnable runnable, @Nullable TimeUnit timeUnit, long delay);
 
     ScheduledTask runTaskTimerAsync(@NotNull MbModule module,  Runnable runnable, @Nullable TimeUnit timeUnit, long delay, long period);
 
+    /**
+     * Runs a task repeatedly on the async workers.
+     *
+     * @param module   the module owning the task
+     * @param runnable the task
+     * @param timeUnit the unit of the delay and period, seconds if {@code null}
+     * @param delay    the delay before the first run
+     * @param period   the period between the runs
+     * @param policy   how runs taking longer than the period are handled
+     * @return the scheduled task
+     */
+    ScheduledTask runTaskTimerAsync(@NotNull MbModule module, Runnable runnable, @Nullable TimeUnit timeUnit, long delay, long period, @NotNull RepeatPolicy policy);
+
     boolean cancelTask(int taskId);
 
+    /**
+     * Cancels all tasks of a module.
+     *
+     * @param module the module owning the tasks
+     * @return the number of cancelled tasks
+     */
+    int cancelTasks(@NotNull MbModule module);
+
 }
@@ -4,8 +4,16 @@ import com.pixelservices.mobot.api.env.FinalizedBotEnvironment;
 import com.pixelservices.mobot.api.env.PrimitiveBotEnvironment;
 import com.pixelservices.mobot.commands.CommandManager;
 import com.pixelservices.mobot.console.Console;
+import com.pixelservices.mobot.events.EventDispatcher;
 import com.pixelservices.mobot.exceptions.BotStartupException;
 import com.pixelservices.mobot.modules.ModuleManager;
+import com.pixelservices.mobot.replay.EventRecorder;
+import com.pixelservices.mobot.replay.GatewayLogReader;
+import com.pixelservices.mobot.replay.GatewaySource;
+import com.pixelservices.mobot.replay.OfflineGateway;
+import com.pixelservices.mobot.replay.ReplayEngine;
+import com.pixelservices.mobot.replay.ReplayOptions;
+import com.pixelservices.mobot.replay.SyntheticGateway;
 import com.pixelservices.mobot.scheduler.BotTaskScheduler;
 import com.pixelservices.mobot.utils.ConfigUtil;
 import com.pixelservices.mobot.utils.UpdateChecker;
@@ -16,12 +24,15 @@ import net.dv8tion.jda.api.sharding.DefaultShardManagerBuilder;
 import net.dv8tion.jda.api.sharding.ShardManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Scanner;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The main class for initializing and managing the MoBot application.
@@ -34,8 +45,14 @@ public class MoBot {
 
     private final Logger logger;
     private final BotTaskScheduler taskScheduler;
+    private final CommandManager commandManager;
+    private final EventDispatcher eventDispatcher;
     private final ModuleManager moduleManager;
     private final Console console;
+    private final ReplayOptions replayOptions;
+    private EventRecorder eventRecorder;
+    private OfflineGateway offlineGateway;
+    private GatewaySource replaySource;
     private FinalizedBotEnvironment finalizedBotEnvironment;
 
     public MoBot(String[] args) {
@@ -44,6 +61,9 @@ public class MoBot {
         // Initialize the Logger
         logger = LoggerFactory.getLogger("MoBot");
 
+        // Check whether gateway events should be replayed offline instead of connecting to Discord
+        replayOptions = ReplayOptions.parse(args);
+
         // Initialize the Console
         CountDownLatch consoleLatch = new CountDownLatch(1);
         console = new Console(this, consoleLatch);
@@ -51,17 +71,24 @@ public class MoBot {
         // Generate the DefaultShardManagerBuilder without initializing it
         DefaultShardManagerBuilder builder = getBuilder();
 
+        // Record the gateway events for offline replays, if enabled. Replays are never recorded, as recording
+        // would re-record the replayed events, or truncate the log being replayed if both use the same file
+        eventRecorder = replayOptions == null ? createEventRecorder(builder) : null;
+
         // Set up the PrimitiveBotEnvironment and pass in all data available pre enabling
         PrimitiveBotEnvironment primitiveBotEnvironment = new PrimitiveBotEnvironment(builder);
 
         // Initialize the CommandManager
-        CommandManager commandManager = new CommandManager();
+        commandManager = new CommandManager();
 
         // Initialize the TaskScheduler
         taskScheduler = new BotTaskScheduler();
 
+        // Initialize the EventDispatcher
+        eventDispatcher = new EventDispatcher();
+
         // Initialize the ModuleManager
-        moduleManager = new ModuleManager(taskScheduler, commandManager);
+        moduleManager = new ModuleManager(taskScheduler, commandManager, eventDispatcher);
 
         // Pre-enable the modules
         moduleManager.preEnable(primitiveBotEnvironment);
@@ -69,7 +96,7 @@ public class MoBot {
         // Start the bot and construct the ShardManager
         ShardManager shardManager;
         try {
-            shardManager = enableBot(builder);
+            shardManager = replayOptions == null ? enableBot(builder) : enableOffline(builder);
             logger.info("Successfully enabled shard manager with {} shards.", shardManager.getShardsTotal());
         } catch (BotStartupException e) {
             logger.error("Bot startup failed", e);
@@ -82,11 +109,20 @@ public class MoBot {
         consoleLatch.countDown();
 
         // Register the CommandManager
+        commandManager.enable(shardManager);
         shardManager.addEventListener(commandManager);
 
+        // Register the EventDispatcher delivering the events to the module listeners
+        shardManager.addEventListener(eventDispatcher);
+
         //Enable the modules
         moduleManager.enable(finalizedBotEnvironment);
 
+        // Push the commands registered by the modules, unless replaying, as the commands would only be pushed offline
+        if (replayOptions == null) {
+            commandManager.startSync();
+        }
+
         // Register the default commands
         console.registerDefaults();
 
@@ -95,7 +131,7 @@ public class MoBot {
 
         // Check for updates
         YamlPluginConfig yamlConfig = ConfigUtil.getBotConfig();
-        if (yamlConfig.getBoolean("check-updates")) {
+        if (replayOptions == null && yamlConfig.getBoolean("check-updates")) {
             UpdateChecker updateChecker = new UpdateChecker();
             if (updateChecker.isLatest()) {
                 logger.info("You are using the latest version of MoBot: {}.", updateChecker.getCurrentVersion());
@@ -108,6 +144,28 @@ public class MoBot {
     public static void main(String[] args) {
         MoBot bot = new MoBot(args);
         Runtime.getRuntime().addShutdownHook(new Thread(bot::shutdown));
+        if (bot.replayOptions != null) {
+            bot.replay();
+            System.exit(0);
+        }
+    }
+
+    /**
+     * Replays the gateway events given on the command line through the offline shards and logs the results.
+     */
+    public void replay() {
+        if (offlineGateway == null) {
+            return;
+        }
+
+        GatewaySource source = replaySource != null ? replaySource : new SyntheticGateway(replayOptions.shards(), replayOptions.guilds(),
+                replayOptions.events(), replayOptions.commandShare(), commandManager.getMetrics().keySet());
+        logger.info("Replaying {} gateway events...", replayOptions.isSynthetic() ? "synthetic" : replayOptions.source());
+        try (source) {
+            new ReplayEngine(offlineGateway, source, replayOptions.rate()).run().log(logger);
+        } catch (IOException e) {
+            logger.error("Replay failed", e);
+        }
     }
 
     public void shutdown() {
@@ -121,7 +179,13 @@ public class MoBot {
             logger.info("Shard manager has been shut down.");
         }
 
+        if (eventRecorder != null) {
+            eventRecorder.close();
+        }
+
         moduleManager.disable();
+        eventDispatcher.shutdown();
+        commandManager.shutdown();
 
         logger.info("See you soon!.");
     }
@@ -138,6 +202,14 @@ public class MoBot {
         return taskScheduler;
     }
 
+    public CommandManager getCommandManager() {
+        return commandManager;
+    }
+
+    public EventDispatcher getEventDispatcher() {
+        return eventDispatcher;
+    }
+
     public ModuleManager getModuleManager() {
         return moduleManager;
     }
@@ -158,6 +230,46 @@ public class MoBot {
         return builder;
     }
 
+    private EventRecorder createEventRecorder(DefaultShardManagerBuilder builder) {
+        String path = ConfigUtil.getBotConfig().getString("event-recording");
+        if (path == null || path.isBlank()) {
+            return null;
+        }
+
+        try {
+            EventRecorder recorder = new EventRecorder(Path.of(path));
+            // Registered before the shards log in, so that the recording includes the guilds the shards start with
+            builder.setRawEventsEnabled(true);
+            builder.addEventListeners(recorder);
+            return recorder;
+        } catch (IOException e) {
+            logger.error("Unable to record gateway events to {}", path, e);
+            return null;
+        }
+    }
+
+    private ShardManager enableOffline(DefaultShardManagerBuilder builder) throws BotStartupException {
+        int shards = replayOptions.shards();
+        if (!replayOptions.isSynthetic()) {
+            try {
+                replaySource = GatewayLogReader.open(Path.of(replayOptions.source()));
+                shards = replaySource.getShardsTotal();
+            } catch (IOException e) {
+                throw new BotStartupException("Unable to read the gateway log " + replayOptions.source() + ".", e);
+            }
+        }
+
+        offlineGateway = new OfflineGateway();
+        try {
+            ShardManager shardManager = offlineGateway.configure(builder, shards).build();
+            offlineGateway.attach(shardManager, 30, TimeUnit.SECONDS);
+            return shardManager;
+        } catch (Exception e) {
+            offlineGateway = null;
+            throw new BotStartupException("An unknown error occurred while setting up the offline shard manager.", e);
+        }
+    }
+
     private ShardManager enableBot(DefaultShardManagerBuilder builder) throws BotStartupException {
         ShardManager shardManager = null;
         Scanner scanner = new Scanner(System.in);
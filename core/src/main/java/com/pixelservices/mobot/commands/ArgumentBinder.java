@@ -0,0 +1,100 @@
+package com.pixelservices.mobot.commands;
+
+import com.pixelservices.mobot.api.commands.CommandArgument;
+import com.pixelservices.mobot.api.commands.SlashCommandArgument;
+import com.pixelservices.mobot.api.commands.SlashCommandTable;
+import com.pixelservices.mobot.exceptions.CommandException;
+import net.dv8tion.jda.api.entities.IMentionable;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.Role;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.entities.channel.middleman.GuildChannel;
+import net.dv8tion.jda.api.entities.channel.unions.GuildChannelUnion;
+import net.dv8tion.jda.api.interactions.commands.CommandInteractionPayload;
+import net.dv8tion.jda.api.interactions.commands.OptionMapping;
+import net.dv8tion.jda.api.interactions.commands.OptionType;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * ArgumentBinder converts a single slash command option into the value of a typed handler parameter.
+ * The conversion is chosen once, when the command is registered, based on the parameter type
+ * and the {@link OptionType} of the matching {@link SlashCommandArgument}.
+ */
+final class ArgumentBinder {
+    private static final Set<OptionType> SNOWFLAKE_TYPES = EnumSet.of(OptionType.INTEGER, OptionType.USER, OptionType.ROLE, OptionType.CHANNEL, OptionType.MENTIONABLE);
+    private static final Set<OptionType> ANY_TYPE = EnumSet.allOf(OptionType.class);
+
+    private final String name;
+    private final Function<OptionMapping, Object> converter;
+    private final Object defaultValue;
+
+    private ArgumentBinder(String name, Function<OptionMapping, Object> converter, Object defaultValue) {
+        this.name = name;
+        this.converter = converter;
+        this.defaultValue = defaultValue;
+    }
+
+    /**
+     * Reads the option from the interaction and converts it to the parameter type.
+     *
+     * @param payload the interaction to read the option from
+     * @return the converted value, or the parameter's default value if the option is absent
+     */
+    Object bind(CommandInteractionPayload payload) {
+        OptionMapping mapping = payload.getOption(name);
+        return mapping == null ? defaultValue : converter.apply(mapping);
+    }
+
+    /**
+     * Creates the binder for a handler parameter.
+     *
+     * @param type     the type of the handler method parameter
+     * @param argument the argument declared for the parameter
+     * @return the binder
+     * @throws CommandException if the parameter type cannot hold values of the argument's option type
+     */
+    static ArgumentBinder of(Class<?> type, SlashCommandTable.Option argument) {
+        String name = argument.name().intern();
+
+        if (type == String.class) {
+            return create(name, argument, type, ANY_TYPE, OptionMapping::getAsString, null);
+        } else if (type == long.class || type == Long.class) {
+            return create(name, argument, type, SNOWFLAKE_TYPES, OptionMapping::getAsLong, type == long.class ? 0L : null);
+        } else if (type == int.class || type == Integer.class) {
+            return create(name, argument, type, EnumSet.of(OptionType.INTEGER), OptionMapping::getAsInt, type == int.class ? 0 : null);
+        } else if (type == double.class || type == Double.class) {
+            return create(name, argument, type, EnumSet.of(OptionType.NUMBER, OptionType.INTEGER), OptionMapping::getAsDouble, type == double.class ? 0D : null);
+        } else if (type == boolean.class || type == Boolean.class) {
+            return create(name, argument, type, EnumSet.of(OptionType.BOOLEAN), OptionMapping::getAsBoolean, type == boolean.class ? false : null);
+        } else if (type == User.class) {
+            return create(name, argument, type, EnumSet.of(OptionType.USER), OptionMapping::getAsUser, null);
+        } else if (type == Member.class) {
+            return create(name, argument, type, EnumSet.of(OptionType.USER), OptionMapping::getAsMember, null);
+        } else if (type == Role.class) {
+            return create(name, argument, type, EnumSet.of(OptionType.ROLE), OptionMapping::getAsRole, null);
+        } else if (type == IMentionable.class) {
+            return create(name, argument, type, EnumSet.of(OptionType.MENTIONABLE, OptionType.USER, OptionType.ROLE), OptionMapping::getAsMentionable, null);
+        } else if (type == GuildChannelUnion.class || type == GuildChannel.class) {
+            return create(name, argument, type, EnumSet.of(OptionType.CHANNEL), OptionMapping::getAsChannel, null);
+        } else if (type == Message.Attachment.class) {
+            return create(name, argument, type, EnumSet.of(OptionType.ATTACHMENT), OptionMapping::getAsAttachment, null);
+        } else if (type == OptionMapping.class) {
+            return create(name, argument, type, ANY_TYPE, mapping -> mapping, null);
+        } else if (type == CommandArgument.class) {
+            return create(name, argument, type, ANY_TYPE, CommandArgument::new, CommandArgument.EMPTY);
+        }
+
+        throw new CommandException("Unsupported parameter type " + type.getName() + " for argument: " + argument.name());
+    }
+
+    private static ArgumentBinder create(String name, SlashCommandTable.Option argument, Class<?> type, Set<OptionType> optionTypes, Function<OptionMapping, Object> converter, Object defaultValue) {
+        if (!optionTypes.contains(argument.type())) {
+            throw new CommandException("Parameter type " + type.getSimpleName() + " is not compatible with option type " + argument.type() + " of argument: " + argument.name());
+        }
+        return new ArgumentBinder(name, converter, defaultValue);
+    }
+}
@@ -0,0 +1,292 @@
+package com.pixelservices.mobot.commands;
+
+import com.pixelservices.mobot.api.commands.AutoComplete;
+import com.pixelservices.mobot.api.commands.SlashCommandHandler;
+import com.pixelservices.mobot.exceptions.CommandException;
+import com.pixelservices.mobot.utils.ThreadUtil;
+import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
+import net.dv8tion.jda.api.interactions.commands.Command;
+import net.dv8tion.jda.api.interactions.commands.OptionType;
+import net.dv8tion.jda.api.interactions.commands.build.OptionData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/**
+ * AutoCompleteRegistry holds the {@link AutoCompleteSource}s of the slash command options, by command path and option name.
+ * <p>
+ * Fixed and refreshable candidate sets are answered from a {@link CandidateIndex}, refreshable sets being reloaded on
+ * a background thread. {@link AutoComplete} handler methods are bound to a {@link MethodHandle} once, when registered.
+ * The sources are published as an immutable map, so lookups do not lock. Every source remembers the module that
+ * registered it, so that it can be removed when the module is disabled.
+ * </p>
+ * <p>
+ * Candidates are converted to choices of the {@link OptionType} their option is declared with by the command definition.
+ * Candidates may be registered before their command, in which case the index is rebuilt once the type is known.
+ * </p>
+ */
+class AutoCompleteRegistry {
+    private static final MethodType HANDLER_TYPE = MethodType.methodType(Object.class, CommandAutoCompleteInteractionEvent.class);
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+    private final ScheduledExecutorService refreshExecutor = Executors.newSingleThreadScheduledExecutor(ThreadUtil.newDaemonThreadFactory("AutoComplete-Refresh"));
+    private final BiFunction<String, String, OptionType> optionTypes;
+    private volatile Map<String, Map<String, Registration>> sources = Map.of();
+
+    /**
+     * Constructor for AutoCompleteRegistry.
+     *
+     * @param optionTypes resolves the declared type of an option from the command path and the option name,
+     *                    returning {@code null} if the command is not registered. Called on every completion, so it must not block.
+     */
+    AutoCompleteRegistry(BiFunction<String, String, OptionType> optionTypes) {
+        this.optionTypes = optionTypes;
+    }
+
+    /**
+     * Finds the source of an option.
+     *
+     * @param command the normalized path of the command
+     * @param option  the name of the option
+     * @return the source, or {@code null} if no source is registered for the option
+     */
+    AutoCompleteSource find(String command, String option) {
+        Map<String, Registration> options = sources.get(command);
+        if (options == null) {
+            return null;
+        }
+        Registration registration = options.get(option);
+        return registration == null ? null : registration.source();
+    }
+
+    void registerCandidates(String owner, String command, String option, Collection<?> candidates) {
+        String path = CommandRouter.normalize(command);
+        TypedIndex index = new TypedIndex(path, option);
+        index.update(new ArrayList<>(candidates));
+        put(owner, path, option, (event, input) -> index.complete(input));
+    }
+
+    void registerCandidates(String owner, String command, String option, Supplier<? extends Collection<?>> candidates, long refreshInterval, TimeUnit unit) {
+        if (refreshInterval <= 0) {
+            throw new CommandException("The refresh interval of autocomplete candidates must be positive.");
+        }
+        String path = CommandRouter.normalize(command);
+        put(owner, path, option, new RefreshingCandidates(path, option, candidates, unit.toMillis(refreshInterval)));
+    }
+
+    /**
+     * Registers the {@link AutoComplete} methods of a handler.
+     *
+     * @param owner   the id of the module registering the handler, or {@code null}
+     * @param handler the handler declaring the methods
+     */
+    void registerHandler(String owner, SlashCommandHandler handler) {
+        for (Method method : handler.getClass().getDeclaredMethods()) {
+            AutoComplete annotation = method.getAnnotation(AutoComplete.class);
+            if (annotation == null) {
+                continue;
+            }
+            try {
+                String path = CommandRouter.normalize(annotation.command());
+                put(owner, path, annotation.option(), new HandlerCandidates(path, annotation.option(), bind(handler, method)));
+            } catch (CommandException e) {
+                logger.warn("Unable to register autocomplete for option: " + annotation.option() + " of command: " + annotation.command() + ". " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Removes the sources registered by a module, stopping their refreshes.
+     *
+     * @param owner the id of the module
+     */
+    synchronized void unregister(String owner) {
+        Map<String, Map<String, Registration>> commands = new HashMap<>();
+        sources.forEach((command, options) -> {
+            Map<String, Registration> kept = new HashMap<>();
+            options.forEach((option, registration) -> {
+                if (owner.equals(registration.owner())) {
+                    registration.source().close();
+                } else {
+                    kept.put(option, registration);
+                }
+            });
+            if (!kept.isEmpty()) {
+                commands.put(command, Map.copyOf(kept));
+            }
+        });
+        sources = Map.copyOf(commands);
+    }
+
+    void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    private synchronized void put(String owner, String command, String option, AutoCompleteSource source) {
+        Map<String, Map<String, Registration>> commands = new HashMap<>(sources);
+        Map<String, Registration> options = new HashMap<>(commands.getOrDefault(command, Map.of()));
+        Registration previous = options.put(option, new Registration(owner, source));
+        commands.put(command, Map.copyOf(options));
+        sources = Map.copyOf(commands);
+
+        if (previous != null) {
+            logger.warn("Replaced the autocomplete of option: " + option + " of command: " + command + ".");
+            previous.source().close();
+        }
+    }
+
+    private static MethodHandle bind(SlashCommandHandler handler, Method method) {
+        if (method.getParameterCount() != 1 || method.getParameterTypes()[0] != CommandAutoCompleteInteractionEvent.class) {
+            throw new CommandException("Autocomplete methods must take the CommandAutoCompleteInteractionEvent as their only parameter.");
+        }
+        if (!Collection.class.isAssignableFrom(method.getReturnType())) {
+            throw new CommandException("Autocomplete methods must return a Collection of candidates.");
+        }
+
+        try {
+            method.setAccessible(true);
+            return MethodHandles.lookup().unreflect(method).bindTo(handler).asType(HANDLER_TYPE);
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new CommandException("Unable to bind autocomplete method " + method.getName(), e);
+        }
+    }
+
+    private record Registration(String owner, AutoCompleteSource source) {
+    }
+
+    /**
+     * An index of candidates, rebuilt when the declared type of its option changes,
+     * as it does when the candidates are registered before their command.
+     */
+    private final class TypedIndex {
+        private final String command;
+        private final String option;
+        private volatile Collection<?> candidates = List.of();
+        private volatile CandidateIndex index = CandidateIndex.EMPTY;
+
+        TypedIndex(String command, String option) {
+            this.command = command;
+            this.option = option;
+        }
+
+        /**
+         * Replaces the candidates.
+         *
+         * @throws CommandException if a candidate is not a valid choice of the option
+         */
+        void update(Collection<?> candidates) {
+            CandidateIndex updated = CandidateIndex.of(candidates, optionTypes.apply(command, option));
+            this.candidates = candidates;
+            this.index = updated;
+        }
+
+        List<Command.Choice> complete(String input) {
+            CandidateIndex current = index;
+            OptionType type = optionTypes.apply(command, option);
+            if (current.getType() != type) {
+                current = CandidateIndex.of(candidates, type);
+                index = current;
+            }
+            return current.complete(input);
+        }
+    }
+
+    /**
+     * Candidates provided on demand by a handler method, converted to choices on every call.
+     */
+    private final class HandlerCandidates implements AutoCompleteSource {
+        private final String command;
+        private final String option;
+        private final MethodHandle handle;
+
+        HandlerCandidates(String command, String option, MethodHandle handle) {
+            this.command = command;
+            this.option = option;
+            this.handle = handle;
+        }
+
+        @Override
+        public List<Command.Choice> complete(CommandAutoCompleteInteractionEvent event, String input) throws Exception {
+            Collection<?> candidates;
+            try {
+                candidates = (Collection<?>) handle.invokeExact(event);
+            } catch (Exception | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new RuntimeException(e);
+            }
+
+            List<Command.Choice> choices = new ArrayList<>(Math.min(candidates == null ? 0 : candidates.size(), OptionData.MAX_CHOICES));
+            if (candidates != null) {
+                OptionType type = optionTypes.apply(command, option);
+                for (Object candidate : candidates) {
+                    if (choices.size() == OptionData.MAX_CHOICES) {
+                        break;
+                    }
+                    if (candidate != null) {
+                        choices.add(CandidateIndex.toChoice(candidate, type));
+                    }
+                }
+            }
+            return choices;
+        }
+
+        @Override
+        public boolean isBlocking() {
+            return true;
+        }
+    }
+
+    /**
+     * Candidates reloaded periodically on the refresh thread, answering lookups from the last loaded index.
+     */
+    private final class RefreshingCandidates implements AutoCompleteSource {
+        private final String command;
+        private final String option;
+        private final Supplier<? extends Collection<?>> supplier;
+        private final TypedIndex index;
+        private final ScheduledFuture<?> refreshTask;
+
+        RefreshingCandidates(String command, String option, Supplier<? extends Collection<?>> supplier, long refreshMillis) {
+            this.command = command;
+            this.option = option;
+            this.supplier = supplier;
+            this.index = new TypedIndex(command, option);
+            this.refreshTask = refreshExecutor.scheduleWithFixedDelay(this::refresh, 0, Math.max(1, refreshMillis), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public List<Command.Choice> complete(CommandAutoCompleteInteractionEvent event, String input) {
+            return index.complete(input);
+        }
+
+        @Override
+        public void close() {
+            refreshTask.cancel(false);
+        }
+
+        private void refresh() {
+            try {
+                Collection<?> candidates = supplier.get();
+                index.update(candidates == null ? List.of() : new ArrayList<>(candidates));
+            } catch (Exception e) {
+                logger.error("Failed to refresh the autocomplete of option: " + option + " of command: " + command, e);
+            }
+        }
+    }
+}
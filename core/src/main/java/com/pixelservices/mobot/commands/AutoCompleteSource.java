@@ -0,0 +1,35 @@
+package com.pixelservices.mobot.commands;
+
+import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
+import net.dv8tion.jda.api.interactions.commands.Command;
+
+import java.util.List;
+
+/**
+ * Provides the autocomplete candidates of a slash command option.
+ */
+interface AutoCompleteSource {
+
+    /**
+     * Finds the candidates for the text typed by the user.
+     *
+     * @param event the autocomplete interaction
+     * @param input the text typed into the focused option
+     * @return the candidates to show, at most {@link net.dv8tion.jda.api.interactions.commands.build.OptionData#MAX_CHOICES}
+     * @throws Exception if the candidates could not be provided
+     */
+    List<Command.Choice> complete(CommandAutoCompleteInteractionEvent event, String input) throws Exception;
+
+    /**
+     * Whether the source calls module code and must therefore not run on the event thread of the shard.
+     */
+    default boolean isBlocking() {
+        return false;
+    }
+
+    /**
+     * Releases the resources of the source once it was replaced or unregistered.
+     */
+    default void close() {
+    }
+}
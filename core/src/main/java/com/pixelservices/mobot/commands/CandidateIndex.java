@@ -0,0 +1,158 @@
+package com.pixelservices.mobot.commands;
+
+import com.pixelservices.mobot.exceptions.CommandException;
+import net.dv8tion.jda.api.interactions.commands.Command;
+import net.dv8tion.jda.api.interactions.commands.OptionType;
+import net.dv8tion.jda.api.interactions.commands.build.OptionData;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * An immutable prefix index over a set of autocomplete candidates.
+ * <p>
+ * The candidates are sorted by their lower-cased name, so the candidates starting with a prefix form a contiguous
+ * range found with a binary search. Lookups return a view of the prebuilt choices and do not copy them.
+ * </p>
+ * <p>
+ * The choices are converted to the {@link OptionType} the option is declared with, so that their values have the type
+ * Discord expects, whatever the Java type of the candidates.
+ * </p>
+ */
+final class CandidateIndex {
+    static final CandidateIndex EMPTY = new CandidateIndex(null, new String[0], new Command.Choice[0]);
+
+    private final OptionType type;
+    private final String[] keys;
+    private final List<Command.Choice> choices;
+
+    private CandidateIndex(OptionType type, String[] keys, Command.Choice[] choices) {
+        this.type = type;
+        this.keys = keys;
+        this.choices = Arrays.asList(choices);
+    }
+
+    /**
+     * Builds an index of the given candidates.
+     *
+     * @param candidates the candidates, either {@link Command.Choice}s, numbers or strings
+     * @param type       the declared type of the option, or {@code null} if the command is not registered yet
+     * @return the index
+     * @throws CommandException if a candidate cannot be converted to a choice of the type
+     */
+    static CandidateIndex of(Collection<?> candidates, OptionType type) {
+        List<Command.Choice> choices = new ArrayList<>(candidates.size());
+        for (Object candidate : candidates) {
+            if (candidate != null) {
+                choices.add(toChoice(candidate, type));
+            }
+        }
+        choices.sort(Comparator.comparing(choice -> choice.getName().toLowerCase(Locale.ROOT)));
+
+        String[] keys = new String[choices.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = choices.get(i).getName().toLowerCase(Locale.ROOT);
+        }
+        return new CandidateIndex(type, keys, choices.toArray(new Command.Choice[0]));
+    }
+
+    /**
+     * Finds the candidates whose name starts with the given input, ignoring case.
+     *
+     * @param input the text typed by the user
+     * @return at most {@link OptionData#MAX_CHOICES} matching candidates
+     */
+    List<Command.Choice> complete(String input) {
+        String prefix = input.toLowerCase(Locale.ROOT);
+        int from = lowerBound(prefix);
+        int to = from;
+        while (to < keys.length && to - from < OptionData.MAX_CHOICES && keys[to].startsWith(prefix)) {
+            to++;
+        }
+        return choices.subList(from, to);
+    }
+
+    int size() {
+        return keys.length;
+    }
+
+    /**
+     * Returns the option type the choices were converted to.
+     *
+     * @return the type, or {@code null} if it was not known when the index was built
+     */
+    OptionType getType() {
+        return type;
+    }
+
+    private int lowerBound(String prefix) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys[middle].compareTo(prefix) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Converts a candidate to a choice of the given option type.
+     * Numbers and numeric strings are accepted for {@link OptionType#INTEGER} and {@link OptionType#NUMBER} options,
+     * any other type of option is answered with string choices.
+     *
+     * @param candidate the candidate, either a {@link Command.Choice}, a number or a string
+     * @param type      the declared type of the option, or {@code null} to convert to a string choice
+     * @return the choice
+     * @throws CommandException if the candidate is not a valid choice of the type
+     */
+    static Command.Choice toChoice(Object candidate, OptionType type) {
+        String name;
+        String value;
+        if (candidate instanceof Command.Choice choice) {
+            if (choice.getType() == type) {
+                return choice;
+            }
+            name = choice.getName();
+            value = choice.getAsString();
+        } else {
+            name = candidate.toString();
+            value = candidate.toString();
+        }
+
+        try {
+            if (type == OptionType.INTEGER) {
+                return new Command.Choice(name, parseLong(candidate, value));
+            } else if (type == OptionType.NUMBER) {
+                return new Command.Choice(name, parseDouble(candidate, value));
+            }
+            return new Command.Choice(name, value);
+        } catch (IllegalArgumentException e) {
+            throw new CommandException("Invalid autocomplete candidate: " + candidate + ". " + e.getMessage());
+        }
+    }
+
+    private static long parseLong(Object candidate, String value) {
+        try {
+            return new BigDecimal(value).longValueExact();
+        } catch (NumberFormatException | ArithmeticException e) {
+            throw new CommandException("Invalid autocomplete candidate: " + candidate + ". The option only accepts integers.");
+        }
+    }
+
+    private static double parseDouble(Object candidate, String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new CommandException("Invalid autocomplete candidate: " + candidate + ". The option only accepts numbers.");
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.pixelservices.mobot.commands;
+
+import com.pixelservices.mobot.api.commands.SlashCommandTable;
+import net.dv8tion.jda.api.Permission;
+
+import java.util.List;
+
+/**
+ * The metadata of a registered command path, from which the {@link net.dv8tion.jda.api.interactions.commands.build.CommandData}
+ * registered with Discord is generated.
+ *
+ * @param path        the normalized command path
+ * @param owner       the id of the module that registered the command, or {@code null}
+ * @param description the description of the command
+ * @param permission  the permission required to use the command
+ * @param options     the options of the command
+ */
+record CommandDefinition(String path, String owner, String description, Permission permission, List<SlashCommandTable.Option> options) {
+}
@@ -0,0 +1,120 @@
+package com.pixelservices.mobot.commands;
+
+import com.pixelservices.mobot.utils.ThreadUtil;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * CommandExecutionPool runs asynchronous slash commands off the event threads of the shards.
+ * <p>
+ * Commands run on virtual threads when the runtime supports them, or on a bounded pool of platform threads otherwise.
+ * If a command did not acknowledge its interaction within the auto-defer threshold, the reply is deferred for it,
+ * so that Discord does not expire the interaction while the command is still working.
+ * </p>
+ * <p>
+ * The time to the first response is recorded in the {@link CommandMetrics} of the command once, either when the
+ * reply was deferred automatically or when the command acknowledged the interaction, whichever came first.
+ * </p>
+ */
+class CommandExecutionPool {
+    private final ExecutorService executor;
+    private final ScheduledExecutorService deferScheduler;
+    private final long autoDeferMillis;
+
+    /**
+     * Constructor for CommandExecutionPool.
+     *
+     * @param autoDeferMillis the time after which unacknowledged interactions are deferred, or {@code 0} or less to never defer them
+     * @param fallbackThreads the number of platform threads used if virtual threads are not available
+     */
+    CommandExecutionPool(long autoDeferMillis, int fallbackThreads) {
+        this.executor = ThreadUtil.newVirtualThreadExecutor("Command-Thread", fallbackThreads);
+        this.deferScheduler = Executors.newSingleThreadScheduledExecutor(ThreadUtil.newDaemonThreadFactory("CommandDefer-Thread"));
+        this.autoDeferMillis = autoDeferMillis;
+    }
+
+    /**
+     * Runs the command asynchronously, deferring the reply if the command takes longer than the auto-defer threshold.
+     *
+     * @param event        the interaction the command was invoked with
+     * @param metrics      the metrics of the command
+     * @param dispatchedAt the {@link System#nanoTime()} at which the interaction was dispatched
+     * @param command      the command to run, returning the {@link System#nanoTime()} at which it acknowledged
+     *                     the interaction, or {@code 0} if it did not
+     * @throws RejectedExecutionException if the pool was shut down
+     */
+    void submit(SlashCommandInteractionEvent event, CommandMetrics metrics, long dispatchedAt, LongSupplier command) {
+        ScheduledFuture<Boolean> autoDefer = autoDeferMillis > 0 ? deferScheduler.schedule(() -> defer(event, metrics, dispatchedAt), autoDeferMillis, TimeUnit.MILLISECONDS) : null;
+        try {
+            executor.execute(() -> {
+                long respondedAt = 0;
+                try {
+                    respondedAt = command.getAsLong();
+                } finally {
+                    if (!deferred(autoDefer) && respondedAt != 0) {
+                        metrics.recordResponse(respondedAt - dispatchedAt);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            if (autoDefer != null) {
+                autoDefer.cancel(false);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Runs a task on the pool without deferring any interaction, for interactions that cannot be deferred.
+     *
+     * @param task the task to run
+     * @throws RejectedExecutionException if the pool was shut down
+     */
+    void execute(Runnable task) {
+        executor.execute(task);
+    }
+
+    void shutdown() {
+        deferScheduler.shutdownNow();
+        executor.shutdown();
+    }
+
+    private static boolean defer(SlashCommandInteractionEvent event, CommandMetrics metrics, long dispatchedAt) {
+        if (event.isAcknowledged()) {
+            return false;
+        }
+        // The command may acknowledge the interaction concurrently, in which case deferring fails harmlessly
+        event.deferReply().queue(null, error -> {});
+        metrics.recordAutoDeferral();
+        metrics.recordResponse(System.nanoTime() - dispatchedAt);
+        return true;
+    }
+
+    /**
+     * Cancels the automatic deferral of a command that completed, waiting for it if it is already running.
+     *
+     * @return {@code true} if the reply was deferred automatically
+     */
+    private static boolean deferred(ScheduledFuture<Boolean> autoDefer) {
+        if (autoDefer == null || autoDefer.cancel(false)) {
+            return false;
+        }
+        try {
+            return autoDefer.get();
+        } catch (CancellationException | ExecutionException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
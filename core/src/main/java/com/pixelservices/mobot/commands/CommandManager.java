@@ -1,40 +1,143 @@
 package com.pixelservices.mobot.commands;
 
+import com.pixelservices.mobot.api.commands.ExecutionMode;
 import com.pixelservices.mobot.api.commands.SlashCommand;
-import com.pixelservices.mobot.api.commands.SlashCommandArgument;
-import com.pixelservices.mobot.api.commands.SlashCommandChoice;
 import com.pixelservices.mobot.api.commands.SlashCommandHandler;
+import com.pixelservices.mobot.api.commands.SlashCommandTable;
+import com.pixelservices.mobot.api.components.ComponentHandler;
+import com.pixelservices.mobot.exceptions.CommandException;
 import com.pixelservices.mobot.exceptions.CommandExecuteException;
+import com.pixelservices.mobot.utils.ConfigUtil;
+import dev.siea.jonion.configuration.YamlPluginConfig;
 import net.dv8tion.jda.api.Permission;
-import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.events.guild.GuildJoinEvent;
+import net.dv8tion.jda.api.events.guild.GuildLeaveEvent;
 import net.dv8tion.jda.api.events.guild.GuildReadyEvent;
+import net.dv8tion.jda.api.events.interaction.ModalInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.component.EntitySelectInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.component.StringSelectInteractionEvent;
+import net.dv8tion.jda.api.events.session.ReadyEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import net.dv8tion.jda.api.interactions.AutoCompleteQuery;
+import net.dv8tion.jda.api.interactions.commands.Command;
+import net.dv8tion.jda.api.interactions.commands.OptionType;
 import net.dv8tion.jda.api.interactions.commands.build.CommandData;
 import net.dv8tion.jda.api.interactions.commands.build.Commands;
 import net.dv8tion.jda.api.interactions.commands.build.OptionData;
 import net.dv8tion.jda.api.interactions.commands.build.SlashCommandData;
+import net.dv8tion.jda.api.interactions.commands.build.SubcommandData;
+import net.dv8tion.jda.api.interactions.commands.build.SubcommandGroupData;
+import net.dv8tion.jda.api.sharding.ShardManager;
+import net.dv8tion.jda.api.utils.messages.MessageCreateData;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.Method;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  * CommandManager is responsible for managing and registering slash commands within a Discord guild.
- * It handles the registration of commands when the bot joins a new guild or when the guild is ready.
- * It also processes interactions with slash commands.
+ * It handles the registration of commands when the bot joins a new guild or when the guild is ready,
+ * pushing them through a {@link CommandSyncEngine} which skips scopes whose commands did not change.
+ * It also processes interactions with slash commands, routing them by their command path through a {@link CommandRouter}
+ * and running {@link ExecutionMode#ASYNC} commands
+ * through a {@link CommandExecutionPool} so they do not block the event thread of the shard.
+ * Autocomplete interactions are answered from the {@link AutoCompleteRegistry}, and button, select menu and modal
+ * interactions are dispatched to {@link ComponentHandler}s by the {@link ComponentRouter}.
  */
 public class CommandManager extends ListenerAdapter {
+    private static final String COMMAND_CACHE_FILE = "command-cache.properties";
+    private static final long DEFAULT_SYNC_DEBOUNCE_MILLIS = 2000;
+    private static final long DEFAULT_SYNC_INTERVAL_MILLIS = 50;
+    private static final long DEFAULT_AUTO_DEFER_MILLIS = 2000;
+    private static final int DEFAULT_MAX_CONCURRENT = 16;
+    private static final int DEFAULT_ASYNC_THREADS = 32;
+    private static final int DEFAULT_RESPONSE_CACHE_SIZE = 1000;
+    private static final String BUSY_MESSAGE = "This command is busy right now, please try again in a moment.";
+    private static final String COOLDOWN_MESSAGE = "You are using this command too quickly. You can use it again <t:%d:R>.";
+
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
-    private final ArrayList<CommandData> commandDataList = new ArrayList<>();
-    private final Map<String, SlashCommandExecutor> slashCommandExecutorMap = new HashMap<>();
-    private final List<Guild> guilds = new ArrayList<>();
+    private final Map<String, CommandDefinition> commandDefinitions = new LinkedHashMap<>();
+    private volatile Map<String, SlashCommandExecutor> slashCommandExecutorMap = Map.of();
+    private volatile CommandRouter commandRouter = CommandRouter.EMPTY;
+    private final ExecutionMode defaultExecutionMode;
+    private final int defaultMaxConcurrent;
+    private final CommandExecutionPool executionPool;
+    private final AutoCompleteRegistry autoCompleteRegistry = new AutoCompleteRegistry(this::getOptionType);
+    private final ComponentRouter componentRouter = new ComponentRouter();
+    private final ResponseCache responseCache;
+    private CommandSyncEngine syncEngine;
+
+    public CommandManager() {
+        YamlPluginConfig config = ConfigUtil.getBotConfig();
+        long autoDeferMillis = config == null ? DEFAULT_AUTO_DEFER_MILLIS : config.getYamlConfiguration().getLong("command-auto-defer", DEFAULT_AUTO_DEFER_MILLIS);
+        int asyncThreads = config == null ? DEFAULT_ASYNC_THREADS : config.getYamlConfiguration().getInt("command-async-threads", DEFAULT_ASYNC_THREADS);
+
+        this.defaultExecutionMode = getExecutionMode(config);
+        this.defaultMaxConcurrent = config == null ? DEFAULT_MAX_CONCURRENT : config.getYamlConfiguration().getInt("command-max-concurrent", DEFAULT_MAX_CONCURRENT);
+        this.executionPool = new CommandExecutionPool(autoDeferMillis, asyncThreads);
+        this.responseCache = new ResponseCache(config == null ? DEFAULT_RESPONSE_CACHE_SIZE : config.getYamlConfiguration().getInt("command-response-cache-size", DEFAULT_RESPONSE_CACHE_SIZE));
+    }
+
+    /**
+     * Enables the registration of commands with Discord through the given {@link ShardManager}.
+     * Commands are not pushed before {@link #startSync()} is called, so that the commands registered
+     * while the modules are being enabled are pushed as a single batch.
+     *
+     * @param shardManager the {@link ShardManager} used to register the commands
+     */
+    public void enable(ShardManager shardManager) {
+        YamlPluginConfig config = ConfigUtil.getBotConfig();
+        long debounceMillis = config == null ? DEFAULT_SYNC_DEBOUNCE_MILLIS : config.getYamlConfiguration().getLong("command-sync-debounce", DEFAULT_SYNC_DEBOUNCE_MILLIS);
+        long intervalMillis = config == null ? DEFAULT_SYNC_INTERVAL_MILLIS : config.getYamlConfiguration().getLong("command-sync-interval", DEFAULT_SYNC_INTERVAL_MILLIS);
+
+        syncEngine = new CommandSyncEngine(new ShardCommandPublisher(shardManager), getRegistrationMode(config), Paths.get(COMMAND_CACHE_FILE), debounceMillis, intervalMillis);
+        syncEngine.setCommands(generateCommandData());
+    }
+
+    /**
+     * Starts pushing the registered commands to Discord.
+     */
+    public void startSync() {
+        syncEngine.start();
+    }
+
+    /**
+     * Stops running asynchronous commands and saves the state of the command registration.
+     */
+    public void shutdown() {
+        executionPool.shutdown();
+        autoCompleteRegistry.shutdown();
+        if (syncEngine != null) {
+            syncEngine.shutdown();
+        }
+    }
+
+    /**
+     * This method is called when a shard is ready.
+     * It registers the slash commands globally, if commands are registered globally.
+     *
+     * @param event the ReadyEvent of the shard
+     */
+    @Override
+    public void onReady(@NotNull ReadyEvent event) {
+        syncEngine.syncGlobal();
+    }
 
     /**
      * This method is called when the guild is fully loaded and ready.
@@ -44,10 +147,7 @@ public class CommandManager extends ListenerAdapter {
      */
     @Override
     public void onGuildReady(@NotNull GuildReadyEvent event) {
-        event.getGuild().updateCommands()
-                .addCommands(commandDataList)
-                .queue();
-        if (!guilds.contains(event.getGuild())) { guilds.add(event.getGuild()); }
+        syncEngine.syncGuild(event.getGuild().getIdLong());
     }
 
     /**
@@ -58,29 +158,254 @@ public class CommandManager extends ListenerAdapter {
      */
     @Override
     public void onGuildJoin(@NotNull GuildJoinEvent event) {
-        event.getGuild().updateCommands()
-                .addCommands(commandDataList)
-                .queue();
-        if (!guilds.contains(event.getGuild())) { guilds.add(event.getGuild()); }
+        syncEngine.syncGuild(event.getGuild().getIdLong());
+    }
+
+    /**
+     * This method is called when the bot leaves a guild.
+     * It forgets the commands registered with the guild.
+     *
+     * @param event the GuildLeaveEvent containing information about the guild the bot has left
+     */
+    @Override
+    public void onGuildLeave(@NotNull GuildLeaveEvent event) {
+        syncEngine.removeGuild(event.getGuild().getIdLong());
     }
 
     /**
      * This method is called when a slash command interaction is received.
-     * It executes the corresponding command based on the command name.
+     * It executes the corresponding command based on the command path, either directly or asynchronously,
+     * unless the command is on cooldown.
      *
      * @param event the SlashCommandInteractionEvent containing information about the command interaction
      */
     @Override
     public void onSlashCommandInteraction(@NotNull SlashCommandInteractionEvent event) {
-        SlashCommandExecutor executor = slashCommandExecutorMap.get(event.getName());
-        if (executor != null) {
-            try {
-                executor.execute(event);
-            } catch (CommandExecuteException e) {
-                logger.error("Failed to execute command: " + event.getName(), e);
+        long dispatchedAt = System.nanoTime();
+        SlashCommandExecutor executor = commandRouter.route(event);
+        if (executor == null) {
+            return;
+        }
+
+        CommandMetrics metrics = executor.getMetrics();
+        // Take the concurrency permit first, so that an invocation rejected as busy does not use up a cooldown
+        if (!executor.tryAcquire()) {
+            metrics.recordRejection();
+            event.reply(BUSY_MESSAGE).setEphemeral(true).queue(null, error -> {});
+            return;
+        }
+
+        long cooldownMillis = executor.checkCooldown(event);
+        if (cooldownMillis > 0) {
+            executor.release();
+            metrics.recordRejection();
+            long availableAt = Math.floorDiv(System.currentTimeMillis() + cooldownMillis + 999, 1000);
+            event.reply(String.format(COOLDOWN_MESSAGE, availableAt)).setEphemeral(true).queue(null, error -> {});
+            return;
+        }
+
+        if (!executor.isAsync()) {
+            long respondedAt = execute(executor, event);
+            if (respondedAt != 0) {
+                metrics.recordResponse(respondedAt - dispatchedAt);
             }
             return;
         }
+
+        try {
+            executionPool.submit(event, metrics, dispatchedAt, () -> {
+                try {
+                    return execute(executor, event);
+                } finally {
+                    executor.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            executor.release();
+            logger.warn("Unable to execute command: " + event.getFullCommandName() + ". The bot is shutting down.");
+        }
+    }
+
+    /**
+     * This method is called when the user types into an autocomplete option of a slash command.
+     * It answers with the candidates of the focused option, calling handler methods off the event thread.
+     *
+     * @param event the CommandAutoCompleteInteractionEvent containing information about the focused option
+     */
+    @Override
+    public void onCommandAutoCompleteInteraction(@NotNull CommandAutoCompleteInteractionEvent event) {
+        AutoCompleteQuery focusedOption = event.getFocusedOption();
+        AutoCompleteSource source = autoCompleteRegistry.find(CommandRouter.pathOf(event), focusedOption.getName());
+        if (source == null) {
+            event.replyChoices(List.of()).queue(null, error -> {});
+            return;
+        }
+
+        if (!source.isBlocking()) {
+            complete(source, event, focusedOption.getValue());
+            return;
+        }
+        try {
+            executionPool.execute(() -> complete(source, event, focusedOption.getValue()));
+        } catch (RejectedExecutionException e) {
+            logger.warn("Unable to autocomplete command: " + event.getName() + ". The bot is shutting down.");
+        }
+    }
+
+    /**
+     * This method is called when a button is clicked.
+     * It invokes the {@link ComponentHandler} registered for the route of the button's custom id, if any.
+     *
+     * @param event the ButtonInteractionEvent containing information about the clicked button
+     */
+    @Override
+    public void onButtonInteraction(@NotNull ButtonInteractionEvent event) {
+        componentRouter.dispatch(event);
+    }
+
+    /**
+     * This method is called when options of a string select menu are selected.
+     * It invokes the {@link ComponentHandler} registered for the route of the menu's custom id, if any.
+     *
+     * @param event the StringSelectInteractionEvent containing information about the selection
+     */
+    @Override
+    public void onStringSelectInteraction(@NotNull StringSelectInteractionEvent event) {
+        componentRouter.dispatch(event);
+    }
+
+    /**
+     * This method is called when entities of an entity select menu are selected.
+     * It invokes the {@link ComponentHandler} registered for the route of the menu's custom id, if any.
+     *
+     * @param event the EntitySelectInteractionEvent containing information about the selection
+     */
+    @Override
+    public void onEntitySelectInteraction(@NotNull EntitySelectInteractionEvent event) {
+        componentRouter.dispatch(event);
+    }
+
+    /**
+     * This method is called when a modal is submitted.
+     * It invokes the {@link ComponentHandler} registered for the route of the modal's custom id, if any.
+     *
+     * @param event the ModalInteractionEvent containing information about the submitted modal
+     */
+    @Override
+    public void onModalInteraction(@NotNull ModalInteractionEvent event) {
+        componentRouter.dispatch(event);
+    }
+
+    private void complete(AutoCompleteSource source, CommandAutoCompleteInteractionEvent event, String input) {
+        List<Command.Choice> choices;
+        try {
+            choices = source.complete(event, input);
+        } catch (Exception e) {
+            logger.error("Failed to autocomplete option: " + event.getFocusedOption().getName() + " of command: " + event.getFullCommandName(), e);
+            choices = List.of();
+        }
+        event.replyChoices(choices).queue(null, error -> {});
+    }
+
+    /**
+     * Executes the command, replying with its result if it returns a {@link MessageCreateData}.
+     * <p>
+     * If the command acknowledged the interaction itself, the time it did so is not known and the time it returned
+     * is reported instead.
+     * </p>
+     *
+     * @return the {@link System#nanoTime()} at which the interaction was first acknowledged, or {@code 0} if it was not
+     */
+    private long execute(SlashCommandExecutor executor, SlashCommandInteractionEvent event) {
+        ResponseCache.Key cacheKey = executor.isCached() ? executor.cacheKey(event) : null;
+        if (cacheKey != null) {
+            MessageCreateData cached = responseCache.get(cacheKey);
+            if (cached != null) {
+                executor.getMetrics().recordCacheHit();
+                return reply(event, cached, executor.isEphemeral());
+            }
+            executor.getMetrics().recordCacheMiss();
+        }
+
+        long startedAt = System.nanoTime();
+        Object result = null;
+        boolean failed = false;
+        try {
+            result = executor.execute(event);
+        } catch (CommandExecuteException e) {
+            failed = true;
+            logger.error("Failed to execute command: " + event.getFullCommandName(), e);
+        }
+        long finishedAt = System.nanoTime();
+        executor.getMetrics().recordExecution(finishedAt - startedAt, failed);
+
+        if (result instanceof MessageCreateData data) {
+            long respondedAt = reply(event, data, executor.isEphemeral());
+            if (cacheKey != null && data.getFiles().isEmpty()) {
+                responseCache.put(cacheKey, data, executor.getCacheTtlNanos());
+            }
+            return respondedAt != 0 ? respondedAt : finishedAt;
+        }
+        return event.isAcknowledged() ? finishedAt : 0;
+    }
+
+    /**
+     * Replies to the interaction, or sends a followup message if it was already acknowledged.
+     *
+     * @return the {@link System#nanoTime()} at which the reply was sent, or {@code 0} if the interaction was already acknowledged
+     */
+    private long reply(SlashCommandInteractionEvent event, MessageCreateData data, boolean ephemeral) {
+        if (event.isAcknowledged()) {
+            event.getHook().sendMessage(data).setEphemeral(ephemeral).queue();
+            return 0;
+        }
+        event.reply(data).setEphemeral(ephemeral).queue();
+        return System.nanoTime();
+    }
+
+    /**
+     * Returns the metrics of the registered commands by command path.
+     * Aliases share the metrics of the command they belong to.
+     *
+     * @return the metrics by command path, sorted by path
+     */
+    public Map<String, CommandMetrics> getMetrics() {
+        Map<String, CommandMetrics> metrics = new TreeMap<>();
+        slashCommandExecutorMap.forEach((path, executor) -> metrics.put(path, executor.getMetrics()));
+        return metrics;
+    }
+
+    /**
+     * Drops the cached replies of a command.
+     *
+     * @param command the path of the command
+     */
+    public void invalidateCachedResponses(String command) {
+        SlashCommandExecutor executor = findExecutor(command);
+        if (executor != null) {
+            responseCache.invalidate(executor);
+        }
+    }
+
+    /**
+     * Drops the cached replies of a command in a scope.
+     *
+     * @param command the path of the command
+     * @param scopeId the id of the guild or user the replies were cached for, depending on the scope of the cache
+     */
+    public void invalidateCachedResponses(String command, long scopeId) {
+        SlashCommandExecutor executor = findExecutor(command);
+        if (executor != null) {
+            responseCache.invalidate(executor, scopeId);
+        }
+    }
+
+    private SlashCommandExecutor findExecutor(String command) {
+        try {
+            return slashCommandExecutorMap.get(CommandRouter.normalize(command));
+        } catch (CommandException e) {
+            return null;
+        }
     }
 
     /**
@@ -90,67 +415,310 @@ public class CommandManager extends ListenerAdapter {
      * @param handler the {@link SlashCommandHandler} to register
      */
     public void registerCommandHandler(SlashCommandHandler handler) {
-        Class<?> handlerClass = handler.getClass();
-        for (Method method : handlerClass.getDeclaredMethods()) {
-            if (method.isAnnotationPresent(SlashCommand.class)) {
-                SlashCommand annotation = method.getAnnotation(SlashCommand.class);
-                String commandName = annotation.name();
-
-                if (commandExists(commandName)) {
-                    logger.warn("Unable to register command: " + commandName + ". A command with this name has already been registered.");
-                    continue;
-                }
+        registerCommandHandler(null, handler);
+    }
+
+    /**
+     * Registers a {@link SlashCommandHandler} on behalf of a module.
+     * The registered commands are removed again by {@link #unregisterCommands(String)} when the module is disabled.
+     *
+     * @param owner   the id of the module registering the handler, or {@code null} if the commands are not owned by a module
+     * @param handler the {@link SlashCommandHandler} to register
+     */
+    public synchronized void registerCommandHandler(String owner, SlashCommandHandler handler) {
+        autoCompleteRegistry.registerHandler(owner, handler);
 
-                List<CommandData> commandDataList = new ArrayList<>();
-
-                //Setup the Command Executor
-                SlashCommandArgument[] argumentAnnotations = method.getAnnotationsByType(SlashCommandArgument.class);
-                List<SlashCommandArgument> arguments = List.of(argumentAnnotations);
-                SlashCommandExecutor executor = new SlashCommandExecutor(handler, method, arguments);
-                
-                String description = annotation.description();
-                Permission permission = annotation.permission();
-                
-                //Setup the Command
-                SlashCommandData commandData = generateSlashCommandData(commandName, description, permission, argumentAnnotations);
-                commandDataList.add(commandData);
-                slashCommandExecutorMap.put(commandName, executor);
-                
-                //Setup the Aliases
-                String[] aliases = annotation.aliases();
-                for (String alias : aliases) {
-                    if (slashCommandExecutorMap.containsKey(alias)) {
-                        logger.warn("Unable to register alias: " + alias + ". A command with this name has already been registered.");
-                        continue;
+        Class<?> handlerClass = handler.getClass();
+        SlashCommandTable table = findCommandTable(handlerClass);
+        if (table == null) {
+            for (Method method : handlerClass.getDeclaredMethods()) {
+                if (method.isAnnotationPresent(SlashCommand.class)) {
+                    try {
+                        registerCommand(owner, handler, ReflectiveCommands.describe(handler, method, null));
+                    } catch (CommandException e) {
+                        logger.warn("Unable to register command method: " + method.getName() + ". " + e.getMessage());
                     }
-                    commandDataList.add(generateSlashCommandData(alias, description, permission, argumentAnnotations));
-                    slashCommandExecutorMap.put(commandName, executor);
                 }
+            }
+            return;
+        }
+
+        for (SlashCommandTable.Entry entry : table.getEntries()) {
+            if (entry.getCommand() != null) {
+                registerCommand(owner, handler, entry);
+                continue;
+            }
 
-                //Register the command and its aliases
-                for (Guild guild : guilds) {
-                    guild.updateCommands()
-                            .addCommands(commandDataList)
-                            .queue();
+            //Tables generated by earlier versions of the processor do not carry the command definition
+            try {
+                Method method = handlerClass.getDeclaredMethod(entry.getMethodName(), entry.getParameterTypes());
+                registerCommand(owner, handler, ReflectiveCommands.describe(handler, method, entry.getInvoker()));
+            } catch (NoSuchMethodException e) {
+                logger.warn("Unable to register command method: " + entry.getMethodName() + ". The command table of " + handlerClass.getName() + " is out of date.");
+            } catch (CommandException e) {
+                logger.warn("Unable to register command method: " + entry.getMethodName() + ". " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Registers a {@link ComponentHandler} with the CommandManager.
+     * The registered handlers will be invoked for the buttons, select menus and modals whose custom id starts with their route.
+     *
+     * @param owner   the id of the module registering the handler, or {@code null}
+     * @param handler the {@link ComponentHandler} to register
+     */
+    public void registerComponentHandler(String owner, ComponentHandler handler) {
+        componentRouter.registerHandler(owner, handler);
+    }
+
+    /**
+     * Registers a fixed set of autocomplete candidates for an option of a slash command.
+     *
+     * @param owner      the id of the module registering the candidates, or {@code null}
+     * @param command    the path of the command
+     * @param option     the name of the option
+     * @param candidates the candidates, either {@link Command.Choice}s, numbers or strings
+     */
+    public void registerAutoComplete(String owner, String command, String option, Collection<?> candidates) {
+        try {
+            autoCompleteRegistry.registerCandidates(owner, command, option, candidates);
+        } catch (CommandException e) {
+            logger.warn("Unable to register autocomplete for option: " + option + " of command: " + command + ". " + e.getMessage());
+        }
+    }
+
+    /**
+     * Registers a set of autocomplete candidates for an option of a slash command, reloaded periodically.
+     *
+     * @param owner           the id of the module registering the candidates, or {@code null}
+     * @param command         the path of the command
+     * @param option          the name of the option
+     * @param candidates      the supplier of the candidates
+     * @param refreshInterval the time between two reloads of the candidates
+     * @param unit            the unit of the refresh interval
+     */
+    public void registerAutoComplete(String owner, String command, String option, Supplier<? extends Collection<?>> candidates, long refreshInterval, TimeUnit unit) {
+        try {
+            autoCompleteRegistry.registerCandidates(owner, command, option, candidates, refreshInterval, unit);
+        } catch (CommandException e) {
+            logger.warn("Unable to register autocomplete for option: " + option + " of command: " + command + ". " + e.getMessage());
+        }
+    }
+
+    /**
+     * Removes the commands, autocomplete sources and component handlers registered by a module.
+     * <p>
+     * The commands are removed from dispatch in a single step, so no interaction reaches a handler of the module
+     * afterwards, and their cached replies are dropped. The new command set is then handed to the sync engine, whose
+     * debounce coalesces it with the commands registered again by a reload, so a reload pushes at most one update per
+     * scope, and none if the commands did not change.
+     * </p>
+     *
+     * @param owner the id of the module
+     * @return the number of removed command paths, including aliases
+     */
+    public synchronized int unregisterCommands(String owner) {
+        autoCompleteRegistry.unregister(owner);
+        componentRouter.unregister(owner);
+
+        Map<String, SlashCommandExecutor> executors = new HashMap<>(slashCommandExecutorMap);
+        int removed = 0;
+        for (Iterator<CommandDefinition> iterator = commandDefinitions.values().iterator(); iterator.hasNext(); ) {
+            CommandDefinition definition = iterator.next();
+            if (owner.equals(definition.owner())) {
+                iterator.remove();
+                SlashCommandExecutor executor = executors.remove(definition.path());
+                if (executor != null) {
+                    responseCache.invalidate(executor);
                 }
-                this.commandDataList.addAll(commandDataList);
+                removed++;
             }
         }
+        if (removed == 0) {
+            return 0;
+        }
+
+        publishExecutors(executors);
+        if (syncEngine != null) {
+            syncEngine.setCommands(generateCommandData());
+            syncEngine.requestSync();
+        }
+        return removed;
+    }
+
+    private void registerCommand(String owner, SlashCommandHandler handler, SlashCommandTable.Entry entry) {
+        SlashCommandTable.Command command = entry.getCommand();
+        String commandName;
+        try {
+            commandName = CommandRouter.normalize(command.name());
+        } catch (CommandException e) {
+            logger.warn("Unable to register command: " + command.name() + ". " + e.getMessage());
+            return;
+        }
+
+        if (commandExists(commandName)) {
+            logger.warn("Unable to register command: " + commandName + ". A command with this name, a subcommand of it or its parent command has already been registered.");
+            return;
+        }
+
+        //Setup the Command Executor
+        List<SlashCommandTable.Option> options = entry.getOptions();
+        SlashCommandExecutor executor;
+        try {
+            ExecutionMode executionMode = command.execution() == ExecutionMode.DEFAULT ? defaultExecutionMode : command.execution();
+            int maxConcurrent = command.maxConcurrent() > 0 ? command.maxConcurrent() : defaultMaxConcurrent;
+            executor = new SlashCommandExecutor(handler, entry, executionMode, maxConcurrent);
+        } catch (CommandException e) {
+            logger.warn("Unable to register command: " + commandName + ". " + e.getMessage());
+            return;
+        }
+
+        String description = command.description();
+        Permission permission = command.permission();
+
+        //Setup the Command
+        Map<String, SlashCommandExecutor> executors = new HashMap<>(slashCommandExecutorMap);
+        executors.put(commandName, executor);
+        commandDefinitions.put(commandName, new CommandDefinition(commandName, owner, description, permission, options));
+
+        //Setup the Aliases
+        for (String alias : command.aliases()) {
+            String aliasPath;
+            try {
+                aliasPath = CommandRouter.normalize(alias);
+            } catch (CommandException e) {
+                logger.warn("Unable to register alias: " + alias + ". " + e.getMessage());
+                continue;
+            }
+            if (executors.keySet().stream().anyMatch(path -> CommandRouter.conflicts(path, aliasPath))) {
+                logger.warn("Unable to register alias: " + aliasPath + ". A command with this name, a subcommand of it or its parent command has already been registered.");
+                continue;
+            }
+            executors.put(aliasPath, executor);
+            commandDefinitions.put(aliasPath, new CommandDefinition(aliasPath, owner, description, permission, options));
+        }
+
+        //Register the command and its aliases
+        publishExecutors(executors);
+        if (syncEngine != null) {
+            syncEngine.setCommands(generateCommandData());
+            syncEngine.requestSync();
+        }
+    }
+
+    private CommandSyncEngine.Mode getRegistrationMode(YamlPluginConfig config) {
+        String mode = config == null ? null : config.getYamlConfiguration().getString("command-registration", CommandSyncEngine.Mode.GUILD.name());
+        try {
+            return CommandSyncEngine.Mode.valueOf(String.valueOf(mode).toUpperCase());
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid command-registration mode: {}. Falling back to {}.", mode, CommandSyncEngine.Mode.GUILD);
+            return CommandSyncEngine.Mode.GUILD;
+        }
+    }
+
+    private ExecutionMode getExecutionMode(YamlPluginConfig config) {
+        String mode = config == null ? null : config.getYamlConfiguration().getString("command-execution", ExecutionMode.INLINE.name());
+        try {
+            ExecutionMode executionMode = ExecutionMode.valueOf(String.valueOf(mode).toUpperCase());
+            return executionMode == ExecutionMode.DEFAULT ? ExecutionMode.INLINE : executionMode;
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid command-execution mode: {}. Falling back to {}.", mode, ExecutionMode.INLINE);
+            return ExecutionMode.INLINE;
+        }
     }
 
-    private SlashCommandData generateSlashCommandData(String commandName, String description, Permission permission, SlashCommandArgument[] arguments) {
-        SlashCommandData commandData = Commands.slash(commandName, description);
-        for (SlashCommandArgument argument : arguments) {
-            OptionData optionData = new OptionData(argument.type(), argument.name(), argument.description(), argument.required(), argument.autoComplete());
-            for (SlashCommandChoice choice : argument.choices()) {
+    /**
+     * Resolves the declared type of an option from the executor snapshot, so that autocomplete lookups do not lock.
+     */
+    private OptionType getOptionType(String command, String option) {
+        SlashCommandExecutor executor = slashCommandExecutorMap.get(command);
+        SlashCommandTable.Option definition = executor == null ? null : executor.getOption(option);
+        return definition == null ? null : definition.type();
+    }
+
+    private SlashCommandTable findCommandTable(Class<?> handlerClass) {
+        try {
+            Class<?> tableClass = Class.forName(handlerClass.getName() + SlashCommandTable.SUFFIX, true, handlerClass.getClassLoader());
+            return (SlashCommandTable) tableClass.getDeclaredConstructor().newInstance();
+        } catch (ClassNotFoundException e) {
+            return null;
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            logger.warn("Unable to load the command table of " + handlerClass.getName() + ", falling back to reflection.", e);
+            return null;
+        }
+    }
+
+    /**
+     * Generates the commands registered with Discord from the command definitions.
+     * Definitions sharing their first path segment are merged into one command with subcommands and subcommand groups.
+     */
+    private List<CommandData> generateCommandData() {
+        Map<String, SlashCommandData> commands = new LinkedHashMap<>();
+        Map<String, Map<String, List<SubcommandData>>> subcommands = new LinkedHashMap<>();
+
+        for (CommandDefinition definition : commandDefinitions.values()) {
+            String[] segments = CommandRouter.split(definition.path());
+            if (segments.length == 1) {
+                SlashCommandData commandData = Commands.slash(segments[0], describe(definition.description(), segments[0]));
+                commandData.addOptions(generateOptionData(definition.options()));
+                commands.put(segments[0], commandData);
+                continue;
+            }
+
+            commands.computeIfAbsent(segments[0], name -> Commands.slash(name, name));
+            String group = segments.length == 3 ? segments[1] : "";
+            String name = segments[segments.length - 1];
+            SubcommandData subcommandData = new SubcommandData(name, describe(definition.description(), name));
+            subcommandData.addOptions(generateOptionData(definition.options()));
+            subcommands.computeIfAbsent(segments[0], key -> new LinkedHashMap<>()).computeIfAbsent(group, key -> new ArrayList<>()).add(subcommandData);
+        }
+
+        subcommands.forEach((command, groups) -> groups.forEach((group, data) -> {
+            if (group.isEmpty()) {
+                commands.get(command).addSubcommands(data);
+            } else {
+                commands.get(command).addSubcommandGroups(new SubcommandGroupData(group, group).addSubcommands(data));
+            }
+        }));
+        return new ArrayList<>(commands.values());
+    }
+
+    private List<OptionData> generateOptionData(List<SlashCommandTable.Option> arguments) {
+        List<OptionData> options = new ArrayList<>(arguments.size());
+        for (SlashCommandTable.Option argument : arguments) {
+            OptionData optionData = new OptionData(argument.type(), argument.name(), describe(argument.description(), argument.name()), argument.required(), argument.autoComplete());
+            for (SlashCommandTable.Choice choice : argument.choices()) {
                 optionData.addChoice(choice.name(), choice.value());
             }
-            commandData.addOptions(optionData);
+            options.add(optionData);
         }
-        return commandData;
+        return options;
+    }
+
+    /**
+     * Discord requires a description, so commands and options without one are described by their name.
+     */
+    private static String describe(String description, String name) {
+        return description.isEmpty() ? name : description;
+    }
+
+    /**
+     * Publishes the executor map and the router built from it.
+     * The map is only modified while registering commands, so dispatch reads immutable structures without locking.
+     */
+    private void publishExecutors(Map<String, SlashCommandExecutor> executors) {
+        Map<String, SlashCommandExecutor> snapshot = Map.copyOf(executors);
+        commandRouter = CommandRouter.of(snapshot);
+        slashCommandExecutorMap = snapshot;
     }
 
     private boolean commandExists(String commandName) {
-        return slashCommandExecutorMap.containsKey(commandName);
+        for (String path : slashCommandExecutorMap.keySet()) {
+            if (CommandRouter.conflicts(path, commandName)) {
+                return true;
+            }
+        }
+        return false;
     }
 }
@@ -0,0 +1,102 @@
+package com.pixelservices.mobot.commands;
+
+import com.pixelservices.mobot.utils.LatencyHistogram;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The invocation counters and latency histograms of a slash command.
+ * <p>
+ * The execution time covers the handler method only. The response time is measured from the moment the interaction
+ * was dispatched until it was first replied to or deferred: when the reply for its result was sent or when it was
+ * deferred automatically, or when the handler returned if the handler acknowledged the interaction itself.
+ * </p>
+ */
+public class CommandMetrics {
+    private final LongAdder invocations = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    private final LongAdder autoDeferrals = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LatencyHistogram executionTimes = new LatencyHistogram();
+    private final LatencyHistogram responseTimes = new LatencyHistogram();
+
+    void recordExecution(long nanos, boolean failed) {
+        invocations.increment();
+        if (failed) {
+            errors.increment();
+        }
+        executionTimes.record(nanos);
+    }
+
+    void recordResponse(long nanos) {
+        responseTimes.record(nanos);
+    }
+
+    void recordAutoDeferral() {
+        autoDeferrals.increment();
+    }
+
+    void recordRejection() {
+        rejections.increment();
+    }
+
+    void recordCacheHit() {
+        cacheHits.increment();
+    }
+
+    void recordCacheMiss() {
+        cacheMisses.increment();
+    }
+
+    /**
+     * @return the number of completed invocations of the command
+     */
+    public long getInvocations() {
+        return invocations.sum();
+    }
+
+    /**
+     * @return the number of invocations of the command that threw an exception
+     */
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    /**
+     * @return the number of invocations rejected because the command was on cooldown or busy
+     */
+    public long getRejections() {
+        return rejections.sum();
+    }
+
+    /**
+     * @return the number of invocations whose reply was deferred automatically
+     */
+    public long getAutoDeferrals() {
+        return autoDeferrals.sum();
+    }
+
+    /**
+     * @return the number of invocations answered from the response cache
+     */
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    /**
+     * @return the number of invocations of a cached command that had to invoke the handler
+     */
+    public long getCacheMisses() {
+        return cacheMisses.sum();
+    }
+
+    public LatencyHistogram getExecutionTimes() {
+        return executionTimes;
+    }
+
+    public LatencyHistogram getResponseTimes() {
+        return responseTimes;
+    }
+}
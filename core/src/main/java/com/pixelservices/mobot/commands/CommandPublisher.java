@@ -0,0 +1,32 @@
+package com.pixelservices.mobot.commands;
+
+import net.dv8tion.jda.api.interactions.commands.build.CommandData;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The REST layer used by the {@link CommandSyncEngine} to push command sets to Discord.
+ * <p>
+ * Each call replaces the full set of commands registered in the given scope.
+ * </p>
+ */
+public interface CommandPublisher {
+
+    /**
+     * Replaces the global commands of the application.
+     *
+     * @param commands the commands to register
+     * @return a future completing once Discord accepted the commands
+     */
+    CompletableFuture<?> publishGlobal(List<CommandData> commands);
+
+    /**
+     * Replaces the commands registered in a guild.
+     *
+     * @param guildId  the id of the guild
+     * @param commands the commands to register
+     * @return a future completing once Discord accepted the commands
+     */
+    CompletableFuture<?> publishGuild(long guildId, List<CommandData> commands);
+}
@@ -0,0 +1,131 @@
+package com.pixelservices.mobot.commands;
+
+import com.pixelservices.mobot.exceptions.CommandException;
+import net.dv8tion.jda.api.interactions.commands.CommandInteractionPayload;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * CommandRouter resolves the {@link SlashCommandExecutor} of an interaction through a tree of command path segments.
+ * <p>
+ * A command path is the command name, optionally followed by a subcommand group and a subcommand, separated by
+ * spaces, such as {@code "config set"} or {@code "config role add"}. Every level of the tree is an immutable hash map,
+ * so routing an interaction takes one lookup per level on the names JDA already parsed, without building the full
+ * command name. The router is rebuilt whenever commands are registered.
+ * </p>
+ */
+final class CommandRouter {
+    static final int MAX_DEPTH = 3;
+    static final CommandRouter EMPTY = new CommandRouter(Map.of());
+
+    private final Map<String, Node> roots;
+
+    private CommandRouter(Map<String, Node> roots) {
+        this.roots = roots;
+    }
+
+    /**
+     * Builds a router from executors keyed by their normalized command path.
+     *
+     * @param executors the executors by command path
+     * @return the router
+     */
+    static CommandRouter of(Map<String, SlashCommandExecutor> executors) {
+        Map<String, Builder> roots = new HashMap<>();
+        executors.forEach((path, executor) -> {
+            String[] segments = split(path);
+            Builder node = roots.computeIfAbsent(segments[0], key -> new Builder());
+            for (int i = 1; i < segments.length; i++) {
+                node = node.children.computeIfAbsent(segments[i], key -> new Builder());
+            }
+            node.executor = executor;
+        });
+        return new CommandRouter(Builder.build(roots));
+    }
+
+    /**
+     * Finds the executor of the command invoked by an interaction.
+     *
+     * @param event the interaction
+     * @return the executor, or {@code null} if no command is registered for the invoked path
+     */
+    SlashCommandExecutor route(CommandInteractionPayload event) {
+        Node node = roots.get(event.getName());
+        if (node == null) {
+            return null;
+        }
+
+        String group = event.getSubcommandGroup();
+        if (group != null && (node = node.children.get(group)) == null) {
+            return null;
+        }
+        String subcommand = event.getSubcommandName();
+        if (subcommand != null && (node = node.children.get(subcommand)) == null) {
+            return null;
+        }
+        return node.executor;
+    }
+
+    /**
+     * Normalizes a command path, collapsing whitespace between its segments.
+     *
+     * @param path the command path, such as {@code "config set"}
+     * @return the interned, normalized path
+     * @throws CommandException if the path is empty or has more than {@value #MAX_DEPTH} segments
+     */
+    static String normalize(String path) {
+        return String.join(" ", split(path)).intern();
+    }
+
+    /**
+     * Splits a command path into its segments.
+     *
+     * @param path the command path
+     * @return the segments
+     * @throws CommandException if the path is empty or has more than {@value #MAX_DEPTH} segments
+     */
+    static String[] split(String path) {
+        String trimmed = path.trim();
+        String[] segments = trimmed.isEmpty() ? new String[0] : trimmed.split("\\s+");
+        if (segments.length == 0 || segments.length > MAX_DEPTH) {
+            throw new CommandException("Invalid command path: \"" + path + "\". A path consists of a command name, an optional subcommand group and an optional subcommand.");
+        }
+        return segments;
+    }
+
+    /**
+     * Returns the normalized command path invoked by an interaction.
+     * For top-level commands, this is the command name and does not allocate.
+     *
+     * @param event the interaction
+     * @return the command path
+     */
+    static String pathOf(CommandInteractionPayload event) {
+        return event.getSubcommandName() == null ? event.getName() : event.getFullCommandName();
+    }
+
+    /**
+     * Checks whether two command paths can be registered together.
+     * Discord does not allow a command or subcommand group to be invoked on its own if it has subcommands.
+     *
+     * @return {@code true} if one path equals or is a parent of the other
+     */
+    static boolean conflicts(String path, String other) {
+        return path.equals(other) || path.startsWith(other + " ") || other.startsWith(path + " ");
+    }
+
+    private record Node(Map<String, Node> children, SlashCommandExecutor executor) {
+    }
+
+    private static final class Builder {
+        private final Map<String, Builder> children = new HashMap<>();
+        private SlashCommandExecutor executor;
+
+        static Map<String, Node> build(Map<String, Builder> builders) {
+            Map<String, Node> nodes = new HashMap<>();
+            builders.forEach((name, builder) -> nodes.put(name, new Node(build(builder.children), builder.executor)));
+            return Map.copyOf(nodes);
+        }
+    }
+}
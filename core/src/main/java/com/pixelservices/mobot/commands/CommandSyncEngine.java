@@ -0,0 +1,332 @@
+package com.pixelservices.mobot.commands;
+
+import com.pixelservices.mobot.utils.ConcurrentLongMap;
+import com.pixelservices.mobot.utils.ConcurrentLongQueue;
+import com.pixelservices.mobot.utils.ConcurrentLongSet;
+import net.dv8tion.jda.api.interactions.commands.build.CommandData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * CommandSyncEngine keeps the slash commands registered with Discord in sync with the commands known to the bot.
+ * <p>
+ * Commands are registered either globally or per guild, depending on the {@link Mode}. For every scope the engine
+ * remembers a content hash of the last command set Discord accepted, persisted in a local file, and skips the REST
+ * call when the set did not change. Scopes holding commands from the other mode are cleared once.
+ * </p>
+ * <p>
+ * Scopes needing a push are queued and drained one request at a time, spaced by the configured interval.
+ * Changes to the command set are coalesced: {@link #requestSync()} waits for the debounce window to pass without
+ * further changes before queueing every known scope, so a burst of registrations results in a single push per scope.
+ * The engine starts paused and only pushes commands once {@link #start()} was called. A scope whose push failed is
+ * queued again after a backoff, doubling with every further failure.
+ * </p>
+ */
+public class CommandSyncEngine {
+    private static final long GLOBAL_SCOPE = 0L;
+    private static final long NO_SCOPE = -1L;
+    private static final String GLOBAL_KEY = "global";
+    private static final long SAVE_INTERVAL_SECONDS = 5;
+    private static final String EMPTY_HASH = hash(List.of());
+    private static final long DEFAULT_RETRY_MILLIS = 5_000;
+    private static final long MAX_RETRY_MILLIS = 600_000;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+    private final CommandPublisher publisher;
+    private final Mode mode;
+    private final Path cacheFile;
+    private final long debounceMillis;
+    private final long intervalMillis;
+    private final long retryMillis;
+    private final ConcurrentLongMap<Integer> failures = new ConcurrentLongMap<>();
+    private final ConcurrentLongMap<String> publishedHashes = new ConcurrentLongMap<>();
+    private final ConcurrentLongMap<String> pendingHashes = new ConcurrentLongMap<>();
+    private final ConcurrentLongSet guilds = new ConcurrentLongSet();
+    private final ConcurrentLongQueue queue = new ConcurrentLongQueue();
+    private final ConcurrentLongSet queued = new ConcurrentLongSet();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private final ScheduledExecutorService executor;
+
+    private volatile List<CommandData> commands = List.of();
+    private volatile String commandsHash = EMPTY_HASH;
+    private volatile boolean started;
+    private ScheduledFuture<?> pendingSync;
+
+    /**
+     * Constructor for CommandSyncEngine.
+     *
+     * @param publisher      the REST layer used to push command sets
+     * @param mode           whether commands are registered globally or per guild
+     * @param cacheFile      the file the hashes of the pushed command sets are stored in
+     * @param debounceMillis how long {@link #requestSync()} waits for further changes before pushing them
+     * @param intervalMillis the minimum delay between two pushes
+     */
+    public CommandSyncEngine(CommandPublisher publisher, Mode mode, Path cacheFile, long debounceMillis, long intervalMillis) {
+        this(publisher, mode, cacheFile, debounceMillis, intervalMillis, DEFAULT_RETRY_MILLIS);
+    }
+
+    /**
+     * Constructor for CommandSyncEngine.
+     *
+     * @param publisher      the REST layer used to push command sets
+     * @param mode           whether commands are registered globally or per guild
+     * @param cacheFile      the file the hashes of the pushed command sets are stored in
+     * @param debounceMillis how long {@link #requestSync()} waits for further changes before pushing them
+     * @param intervalMillis the minimum delay between two pushes
+     * @param retryMillis    the delay before a failed push is retried for the first time
+     */
+    CommandSyncEngine(CommandPublisher publisher, Mode mode, Path cacheFile, long debounceMillis, long intervalMillis, long retryMillis) {
+        this.publisher = publisher;
+        this.mode = mode;
+        this.cacheFile = cacheFile;
+        this.debounceMillis = Math.max(0, debounceMillis);
+        this.intervalMillis = Math.max(0, intervalMillis);
+        this.retryMillis = Math.max(1, retryMillis);
+        load();
+
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "CommandSync-Thread");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.scheduleWithFixedDelay(this::save, SAVE_INTERVAL_SECONDS, SAVE_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Sets the full set of commands that should be registered with Discord.
+     * This does not push the commands, call {@link #requestSync()} to do so.
+     *
+     * @param commands the commands known to the bot
+     */
+    public void setCommands(List<CommandData> commands) {
+        List<CommandData> snapshot = List.copyOf(commands);
+        this.commandsHash = hash(snapshot);
+        this.commands = snapshot;
+    }
+
+    /**
+     * Starts pushing commands, including the scopes queued while the engine was paused.
+     */
+    public void start() {
+        started = true;
+        drainLater(0);
+    }
+
+    /**
+     * Pushes the current commands to every known scope once the debounce window passed without further requests.
+     */
+    public synchronized void requestSync() {
+        if (pendingSync != null) {
+            pendingSync.cancel(false);
+        }
+        pendingSync = executor.schedule(() -> {
+            enqueue(GLOBAL_SCOPE);
+            guilds.forEach(this::enqueue);
+        }, debounceMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queues a push of the commands to the global scope if they changed since the last push.
+     */
+    public void syncGlobal() {
+        enqueue(GLOBAL_SCOPE);
+    }
+
+    /**
+     * Remembers the guild and queues a push of the commands to it if they changed since the last push.
+     *
+     * @param guildId the id of the guild
+     */
+    public void syncGuild(long guildId) {
+        guilds.add(guildId);
+        enqueue(guildId);
+    }
+
+    /**
+     * Forgets a guild the bot is no longer in.
+     *
+     * @param guildId the id of the guild
+     */
+    public void removeGuild(long guildId) {
+        guilds.remove(guildId);
+        if (publishedHashes.remove(guildId) != null) {
+            dirty.set(true);
+        }
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Writes the hashes of the pushed command sets to the cache file, if any changed.
+     */
+    public void save() {
+        if (!dirty.getAndSet(false)) {
+            return;
+        }
+
+        Properties properties = new Properties();
+        publishedHashes.forEach((hash, scope) -> properties.setProperty(scope == GLOBAL_SCOPE ? GLOBAL_KEY : Long.toUnsignedString(scope), hash));
+        try (OutputStream outputStream = Files.newOutputStream(cacheFile)) {
+            properties.store(outputStream, "Hashes of the slash command sets last registered with Discord");
+        } catch (IOException e) {
+            logger.error("Failed to save the command cache to {}", cacheFile, e);
+        }
+    }
+
+    /**
+     * Stops pushing commands and writes any pending changes to the cache file.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+        save();
+    }
+
+    private void enqueue(long scope) {
+        if (isOutdated(scope) && queued.add(scope)) {
+            queue.add(scope);
+            drainLater(0);
+        }
+    }
+
+    private void drainLater(long delayMillis) {
+        if (started && !queue.isEmpty() && draining.compareAndSet(false, true)) {
+            executor.schedule(this::drain, delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void drain() {
+        long scope = queue.poll(NO_SCOPE);
+        if (scope == NO_SCOPE) {
+            draining.set(false);
+            drainLater(0);
+            return;
+        }
+
+        queued.remove(scope);
+        boolean published = publish(scope);
+        executor.schedule(this::drain, published ? intervalMillis : 0, TimeUnit.MILLISECONDS);
+    }
+
+    private boolean isOutdated(long scope) {
+        String published = publishedHashes.get(scope);
+        if (!isActive(scope)) {
+            return published != null && !published.equals(EMPTY_HASH);
+        }
+        return !commandsHash.equals(published);
+    }
+
+    private boolean isActive(long scope) {
+        return (scope == GLOBAL_SCOPE) == (mode == Mode.GLOBAL);
+    }
+
+    private boolean publish(long scope) {
+        if (!isOutdated(scope)) {
+            return false;
+        }
+
+        boolean active = isActive(scope);
+        List<CommandData> target = active ? commands : List.of();
+        String targetHash = active ? commandsHash : EMPTY_HASH;
+        if (targetHash.equals(pendingHashes.put(scope, targetHash))) {
+            return false;
+        }
+
+        CompletableFuture<?> future = scope == GLOBAL_SCOPE ? publisher.publishGlobal(target) : publisher.publishGuild(scope, target);
+        future.whenComplete((result, error) -> {
+            pendingHashes.remove(scope, targetHash);
+            if (error != null) {
+                retryLater(scope, error);
+                return;
+            }
+            failures.remove(scope);
+            publishedHashes.put(scope, targetHash);
+            dirty.set(true);
+        });
+        return true;
+    }
+
+    private void retryLater(long scope, Throwable error) {
+        // Only one push per scope is in flight, so the count is never updated concurrently
+        Integer previousFailures = failures.get(scope);
+        int failed = previousFailures == null ? 1 : previousFailures + 1;
+        failures.put(scope, failed);
+        long delayMillis = Math.min(MAX_RETRY_MILLIS, retryMillis << Math.min(failed - 1, 20));
+        logger.warn("Failed to register commands in {}: {}. Retrying in {}ms.", scope == GLOBAL_SCOPE ? "the global scope" : "guild " + Long.toUnsignedString(scope), error.getMessage(), delayMillis);
+        try {
+            executor.schedule(() -> enqueue(scope), delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // The engine was shut down, the scope is pushed again on the next start
+        }
+    }
+
+    private void load() {
+        if (!Files.exists(cacheFile)) {
+            return;
+        }
+
+        Properties properties = new Properties();
+        try (InputStream inputStream = Files.newInputStream(cacheFile)) {
+            properties.load(inputStream);
+        } catch (IOException e) {
+            logger.error("Failed to load the command cache from {}, all commands will be registered again.", cacheFile, e);
+            return;
+        }
+
+        for (String key : properties.stringPropertyNames()) {
+            try {
+                long scope = key.equals(GLOBAL_KEY) ? GLOBAL_SCOPE : Long.parseUnsignedLong(key);
+                publishedHashes.put(scope, properties.getProperty(key));
+            } catch (NumberFormatException e) {
+                logger.warn("Ignoring invalid command cache entry: {}", key);
+            }
+        }
+    }
+
+    private static String hash(List<CommandData> commands) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            commands.stream()
+                    .sorted(Comparator.comparing(CommandData::getName))
+                    .forEach(command -> digest.update(command.toData().toJson()));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Where commands are registered with Discord.
+     */
+    public enum Mode {
+        /**
+         * Commands are registered once for the whole application.
+         */
+        GLOBAL,
+        /**
+         * Commands are registered separately in every guild the bot is in.
+         */
+        GUILD
+    }
+}
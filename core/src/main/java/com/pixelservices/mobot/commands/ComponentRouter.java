@@ -0,0 +1,206 @@
+package com.pixelservices.mobot.commands;
+
+import com.pixelservices.mobot.api.components.ButtonHandler;
+import com.pixelservices.mobot.api.components.ComponentHandler;
+import com.pixelservices.mobot.api.components.ComponentId;
+import com.pixelservices.mobot.api.components.ComponentState;
+import com.pixelservices.mobot.api.components.ModalHandler;
+import com.pixelservices.mobot.api.components.SelectMenuHandler;
+import com.pixelservices.mobot.exceptions.CommandException;
+import net.dv8tion.jda.api.events.interaction.GenericInteractionCreateEvent;
+import net.dv8tion.jda.api.events.interaction.ModalInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.component.GenericSelectMenuInteractionEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ComponentRouter dispatches button, select menu and modal interactions to the methods of {@link ComponentHandler}s.
+ * <p>
+ * Handlers are found by the route at the start of the custom id, see {@link ComponentId}. Every kind of component has
+ * its own {@link RouteTable}, hashing the route directly from the custom id, so dispatching an interaction is a single
+ * lookup that neither allocates nor depends on the number of registered handlers. Custom ids without a registered
+ * route are ignored, leaving them to the module listeners.
+ * </p>
+ */
+class ComponentRouter {
+    private static final MethodType ROUTE_TYPE = MethodType.methodType(void.class, GenericInteractionCreateEvent.class, ComponentState.class);
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+    private volatile RouteTable buttons = RouteTable.EMPTY;
+    private volatile RouteTable selectMenus = RouteTable.EMPTY;
+    private volatile RouteTable modals = RouteTable.EMPTY;
+
+    /**
+     * Registers the {@link ButtonHandler}, {@link SelectMenuHandler} and {@link ModalHandler} methods of a handler.
+     *
+     * @param owner   the id of the module registering the handler, or {@code null}
+     * @param handler the handler declaring the methods
+     */
+    synchronized void registerHandler(String owner, ComponentHandler handler) {
+        for (Method method : handler.getClass().getDeclaredMethods()) {
+            if (method.isAnnotationPresent(ButtonHandler.class)) {
+                buttons = register(buttons, owner, handler, method, method.getAnnotation(ButtonHandler.class).value(), ButtonInteractionEvent.class);
+            }
+            if (method.isAnnotationPresent(SelectMenuHandler.class)) {
+                selectMenus = register(selectMenus, owner, handler, method, method.getAnnotation(SelectMenuHandler.class).value(), GenericSelectMenuInteractionEvent.class);
+            }
+            if (method.isAnnotationPresent(ModalHandler.class)) {
+                modals = register(modals, owner, handler, method, method.getAnnotation(ModalHandler.class).value(), ModalInteractionEvent.class);
+            }
+        }
+    }
+
+    /**
+     * Removes the handlers registered by a module.
+     *
+     * @param owner the id of the module
+     */
+    synchronized void unregister(String owner) {
+        buttons = buttons.without(owner);
+        selectMenus = selectMenus.without(owner);
+        modals = modals.without(owner);
+    }
+
+    /**
+     * Dispatches a button interaction.
+     *
+     * @return {@code true} if a handler was registered for the custom id
+     */
+    boolean dispatch(ButtonInteractionEvent event) {
+        return dispatch(buttons, event, event.getComponentId());
+    }
+
+    /**
+     * Dispatches a string or entity select menu interaction.
+     *
+     * @return {@code true} if a handler was registered for the custom id
+     */
+    boolean dispatch(GenericSelectMenuInteractionEvent<?, ?> event) {
+        return dispatch(selectMenus, event, event.getComponentId());
+    }
+
+    /**
+     * Dispatches a modal interaction.
+     *
+     * @return {@code true} if a handler was registered for the custom id
+     */
+    boolean dispatch(ModalInteractionEvent event) {
+        return dispatch(modals, event, event.getModalId());
+    }
+
+    private boolean dispatch(RouteTable table, GenericInteractionCreateEvent event, String customId) {
+        Route route = table.find(customId);
+        if (route == null || !route.eventType.isInstance(event)) {
+            return false;
+        }
+
+        try {
+            route.handle.invokeExact(event, route.stateful ? new ComponentState(customId) : null);
+        } catch (Throwable e) {
+            logger.error("Failed to handle component interaction: " + customId, e);
+        }
+        return true;
+    }
+
+    private RouteTable register(RouteTable table, String owner, ComponentHandler handler, Method method, String route, Class<? extends GenericInteractionCreateEvent> baseType) {
+        try {
+            ComponentId.of(route);
+            if (table.find(route) != null) {
+                throw new CommandException("A handler for this route has already been registered.");
+            }
+            return table.with(bind(owner, handler, method, route, baseType));
+        } catch (CommandException | IllegalArgumentException e) {
+            logger.warn("Unable to register component handler: " + route + ". " + e.getMessage());
+            return table;
+        }
+    }
+
+    private static Route bind(String owner, ComponentHandler handler, Method method, String route, Class<? extends GenericInteractionCreateEvent> baseType) {
+        Class<?>[] parameters = method.getParameterTypes();
+        if (parameters.length == 0 || parameters.length > 2 || !baseType.isAssignableFrom(parameters[0])
+                || (parameters.length == 2 && parameters[1] != ComponentState.class)) {
+            throw new CommandException("Component handlers must take a " + baseType.getSimpleName() + " and optionally the ComponentState.");
+        }
+
+        MethodHandle handle;
+        try {
+            method.setAccessible(true);
+            handle = MethodHandles.lookup().unreflect(method).bindTo(handler);
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new CommandException("Unable to bind component handler " + method.getName(), e);
+        }
+
+        boolean stateful = parameters.length == 2;
+        if (!stateful) {
+            handle = MethodHandles.dropArguments(handle, 1, ComponentState.class);
+        }
+        handle = handle.asType(handle.type().changeReturnType(void.class)).asType(ROUTE_TYPE);
+        return new Route(owner, route, parameters[0], handle, stateful);
+    }
+
+    private record Route(String owner, String route, Class<?> eventType, MethodHandle handle, boolean stateful) {
+    }
+
+    /**
+     * An immutable open-addressing table of routes, hashing the route prefix of a custom id without copying it.
+     */
+    private static final class RouteTable {
+        static final RouteTable EMPTY = new RouteTable(List.of());
+
+        private final List<Route> routes;
+        private final Route[] table;
+        private final int mask;
+
+        private RouteTable(List<Route> routes) {
+            int capacity = Integer.highestOneBit(Math.max(4, routes.size() * 4) - 1) << 1;
+            this.routes = routes;
+            this.table = new Route[capacity];
+            this.mask = capacity - 1;
+            for (Route route : routes) {
+                int index = hash(route.route, route.route.length()) & mask;
+                while (table[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                table[index] = route;
+            }
+        }
+
+        RouteTable with(Route route) {
+            List<Route> routes = new ArrayList<>(this.routes);
+            routes.add(route);
+            return new RouteTable(List.copyOf(routes));
+        }
+
+        RouteTable without(String owner) {
+            List<Route> routes = this.routes.stream().filter(route -> !owner.equals(route.owner)).toList();
+            return routes.size() == this.routes.size() ? this : new RouteTable(routes);
+        }
+
+        Route find(String customId) {
+            int length = ComponentId.routeLength(customId);
+            for (int index = hash(customId, length) & mask; table[index] != null; index = (index + 1) & mask) {
+                String route = table[index].route;
+                if (route.length() == length && customId.startsWith(route)) {
+                    return table[index];
+                }
+            }
+            return null;
+        }
+
+        private static int hash(String value, int length) {
+            int hash = 0;
+            for (int i = 0; i < length; i++) {
+                hash = 31 * hash + value.charAt(i);
+            }
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
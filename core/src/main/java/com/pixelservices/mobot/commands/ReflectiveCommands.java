@@ -0,0 +1,98 @@
+package com.pixelservices.mobot.commands;
+
+import com.pixelservices.mobot.api.commands.CachedResponse;
+import com.pixelservices.mobot.api.commands.CommandCooldown;
+import com.pixelservices.mobot.api.commands.SlashCommand;
+import com.pixelservices.mobot.api.commands.SlashCommandArgument;
+import com.pixelservices.mobot.api.commands.SlashCommandChoice;
+import com.pixelservices.mobot.api.commands.SlashCommandHandler;
+import com.pixelservices.mobot.api.commands.SlashCommandTable;
+import com.pixelservices.mobot.exceptions.CommandException;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * ReflectiveCommands reads the {@link SlashCommandTable.Entry} of a command method from its annotations.
+ * <p>
+ * This is the fallback for handlers compiled without the annotation processor, whose command tables are missing or
+ * were generated by an earlier version of the processor. The resulting entries are registered exactly like the
+ * entries of a generated table, with the method bound through a {@link MethodHandle} unless a call site is given.
+ * </p>
+ */
+final class ReflectiveCommands {
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, SlashCommandInteractionEvent.class, Object[].class);
+
+    private ReflectiveCommands() {
+    }
+
+    /**
+     * Reads the entry of a command method.
+     *
+     * @param handler the handler declaring the method
+     * @param method  the method annotated with {@link SlashCommand}
+     * @param invoker the generated call site of the method, or {@code null} to bind the method reflectively
+     * @return the entry
+     * @throws CommandException if the method cannot be bound
+     */
+    static SlashCommandTable.Entry describe(SlashCommandHandler handler, Method method, SlashCommandTable.Invoker invoker) {
+        SlashCommand annotation = method.getAnnotation(SlashCommand.class);
+        SlashCommandTable.Command command = new SlashCommandTable.Command(annotation.name(), annotation.permission(), List.of(annotation.aliases()),
+                annotation.description(), annotation.execution(), annotation.maxConcurrent());
+
+        List<SlashCommandTable.Option> options = new ArrayList<>();
+        for (SlashCommandArgument argument : method.getAnnotationsByType(SlashCommandArgument.class)) {
+            List<SlashCommandTable.Choice> choices = new ArrayList<>();
+            for (SlashCommandChoice choice : argument.choices()) {
+                choices.add(new SlashCommandTable.Choice(choice.name(), choice.value()));
+            }
+            options.add(new SlashCommandTable.Option(argument.name(), argument.description(), argument.type(), List.copyOf(choices), argument.required(), argument.autoComplete()));
+        }
+
+        CommandCooldown cooldown = method.getAnnotation(CommandCooldown.class);
+        CachedResponse cache = method.getAnnotation(CachedResponse.class);
+
+        Parameter[] parameters = method.getParameters();
+        boolean namesPresent = Arrays.stream(parameters).allMatch(Parameter::isNamePresent);
+        String[] parameterNames = namesPresent ? Arrays.stream(parameters).map(Parameter::getName).toArray(String[]::new) : null;
+
+        return new SlashCommandTable.Entry(method.getName(), method.getParameterTypes(), parameterNames, method.getReturnType(), command, options,
+                cooldown == null ? null : new SlashCommandTable.Cooldown(cooldown.period(), cooldown.unit(), cooldown.uses(), cooldown.scope()),
+                cache == null ? null : new SlashCommandTable.Cache(cache.ttl(), cache.unit(), cache.scope(), cache.ephemeral()),
+                invoker != null ? invoker : bind(handler, method));
+    }
+
+    private static SlashCommandTable.Invoker bind(SlashCommandHandler handler, Method method) {
+        if (method.getParameterCount() == 0 || method.getParameterTypes()[0] != SlashCommandInteractionEvent.class) {
+            throw new CommandException("Incompatible method parameters. " + Arrays.toString(method.getParameters()));
+        }
+
+        MethodHandle handle;
+        try {
+            method.setAccessible(true);
+            handle = MethodHandles.lookup().unreflect(method)
+                    .bindTo(handler)
+                    .asSpreader(Object[].class, method.getParameterCount() - 1)
+                    .asType(INVOKER_TYPE);
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new CommandException("Unable to bind command method " + method.getName(), e);
+        }
+
+        return (target, event, values) -> {
+            try {
+                return (Object) handle.invokeExact(event, values);
+            } catch (Exception | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new RuntimeException(e);
+            }
+        };
+    }
+}
@@ -0,0 +1,110 @@
+package com.pixelservices.mobot.commands;
+
+import net.dv8tion.jda.api.utils.messages.MessageCreateData;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * ResponseCache holds the replies of {@link com.pixelservices.mobot.api.commands.CachedResponse} commands.
+ * <p>
+ * The cache is bounded: once it holds the maximum number of replies, the least recently used reply is evicted.
+ * Expired replies are dropped when they are looked up.
+ * </p>
+ */
+class ResponseCache {
+    private final Map<Key, Entry> entries;
+
+    /**
+     * Constructor for ResponseCache.
+     *
+     * @param maxSize the maximum number of cached replies
+     */
+    ResponseCache(int maxSize) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Looks up a cached reply.
+     *
+     * @param key the key of the reply
+     * @return the reply, or {@code null} if no reply is cached or it expired
+     */
+    synchronized MessageCreateData get(Key key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.expiresAt >= 0) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.data;
+    }
+
+    synchronized void put(Key key, MessageCreateData data, long ttlNanos) {
+        entries.put(key, new Entry(data, System.nanoTime() + ttlNanos));
+    }
+
+    /**
+     * Drops all cached replies of a command.
+     *
+     * @return the number of dropped replies
+     */
+    synchronized int invalidate(SlashCommandExecutor executor) {
+        int size = entries.size();
+        entries.keySet().removeIf(key -> key.executor == executor);
+        return size - entries.size();
+    }
+
+    /**
+     * Drops the cached replies of a command in a scope, such as a guild or a user.
+     *
+     * @return the number of dropped replies
+     */
+    synchronized int invalidate(SlashCommandExecutor executor, long scopeId) {
+        int size = entries.size();
+        entries.keySet().removeIf(key -> key.executor == executor && key.scopeId == scopeId);
+        return size - entries.size();
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private record Entry(MessageCreateData data, long expiresAt) {
+    }
+
+    /**
+     * Identifies a reply by the command, the id of the scope it was cached in and the normalized arguments.
+     */
+    static final class Key {
+        private final SlashCommandExecutor executor;
+        private final long scopeId;
+        private final String[] arguments;
+        private final int hash;
+
+        Key(SlashCommandExecutor executor, long scopeId, String[] arguments) {
+            this.executor = executor;
+            this.scopeId = scopeId;
+            this.arguments = arguments;
+            this.hash = 31 * (31 * System.identityHashCode(executor) + Long.hashCode(scopeId)) + Arrays.hashCode(arguments);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key key && executor == key.executor && scopeId == key.scopeId && Arrays.equals(arguments, key.arguments);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
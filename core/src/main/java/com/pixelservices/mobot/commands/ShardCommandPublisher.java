@@ -0,0 +1,37 @@
+package com.pixelservices.mobot.commands;
+
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.interactions.commands.build.CommandData;
+import net.dv8tion.jda.api.sharding.ShardManager;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The {@link CommandPublisher} pushing command sets through the shards of a {@link ShardManager}.
+ */
+public class ShardCommandPublisher implements CommandPublisher {
+    private final ShardManager shardManager;
+
+    public ShardCommandPublisher(ShardManager shardManager) {
+        this.shardManager = shardManager;
+    }
+
+    @Override
+    public CompletableFuture<?> publishGlobal(List<CommandData> commands) {
+        for (JDA shard : shardManager.getShardCache()) {
+            return shard.updateCommands().addCommands(commands).submit();
+        }
+        return CompletableFuture.failedFuture(new IllegalStateException("No shard is available to register global commands."));
+    }
+
+    @Override
+    public CompletableFuture<?> publishGuild(long guildId, List<CommandData> commands) {
+        Guild guild = shardManager.getGuildById(guildId);
+        if (guild == null) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Guild " + guildId + " is not available."));
+        }
+        return guild.updateCommands().addCommands(commands).submit();
+    }
+}
@@ -1,82 +1,280 @@
 package com.pixelservices.mobot.commands;
 
+import com.pixelservices.mobot.api.commands.CachedResponse;
 import com.pixelservices.mobot.api.commands.CommandArguments;
+import com.pixelservices.mobot.api.commands.CommandCooldown;
+import com.pixelservices.mobot.api.commands.CooldownScope;
+import com.pixelservices.mobot.api.commands.ExecutionMode;
 import com.pixelservices.mobot.api.commands.SlashCommandArgument;
 import com.pixelservices.mobot.api.commands.SlashCommandHandler;
+import com.pixelservices.mobot.api.commands.SlashCommandTable;
+import com.pixelservices.mobot.exceptions.CommandException;
 import com.pixelservices.mobot.exceptions.CommandExecuteException;
+import com.pixelservices.mobot.utils.RateLimiter;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.interactions.commands.OptionMapping;
+import net.dv8tion.jda.api.utils.messages.MessageCreateData;
 
-import java.lang.reflect.Method;
-import java.lang.reflect.Parameter;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Semaphore;
 
 /**
  * SlashCommandExecutor is responsible for executing a slash command when it is invoked.
- * It uses reflection to invoke the appropriate method in the handler with the provided arguments.
+ * The handler method is validated once, when the executor is created from its {@link SlashCommandTable.Entry},
+ * and invoked through the call site of the entry, so that invoking the command does not go through reflection.
+ * <p>
+ * Besides the {@code (event)}, {@code (event, CommandArguments)} and legacy {@code (event, Map)} signatures,
+ * handler methods may declare typed parameters after the event, which are bound to the command's
+ * {@link SlashCommandArgument}s by name when the parameter names are known and all match an argument,
+ * or by position otherwise.
+ * </p>
+ * <p>
+ * Commands in the {@link ExecutionMode#ASYNC} mode hold a permit while they run, limiting the number of
+ * invocations in flight. Commands annotated with {@link CommandCooldown} are rate limited per {@link CooldownScope}.
+ * Commands annotated with {@link CachedResponse} provide the {@link ResponseCache.Key} their replies are cached under.
+ * </p>
  */
 class SlashCommandExecutor {
+    private static final Object[] NO_ARGUMENTS = new Object[0];
+
+    private final List<SlashCommandTable.Option> arguments;
+    private final CommandArguments.Layout layout;
+    private final Shape shape;
+    private final ArgumentBinder[] binders;
     private final SlashCommandHandler handler;
-    private final Method method;
-    private final List<SlashCommandArgument> arguments;
+    private final SlashCommandTable.Invoker invoker;
+    private final ExecutionMode executionMode;
+    private final Semaphore permits;
+    private final CooldownScope cooldownScope;
+    private final RateLimiter cooldown;
+    private final SlashCommandTable.Cache cachedResponse;
+    private final CommandMetrics metrics = new CommandMetrics();
 
     /**
      * Constructor for SlashCommandExecutor.
      *
-     * @param handler    The handler that contains the command method.
-     * @param method     The method to be executed when the command is invoked.
-     * @param arguments  The list of arguments for the command.
+     * @param handler       The handler that contains the command method.
+     * @param entry         The command method, along with the definition of the command.
+     * @param executionMode The resolved execution mode of the command, either {@link ExecutionMode#INLINE} or {@link ExecutionMode#ASYNC}.
+     * @param maxConcurrent The maximum number of asynchronous invocations running at the same time.
+     * @throws CommandException if the method signature is not supported.
      */
-    SlashCommandExecutor(SlashCommandHandler handler, Method method, List<SlashCommandArgument> arguments) {
+    SlashCommandExecutor(SlashCommandHandler handler, SlashCommandTable.Entry entry, ExecutionMode executionMode, int maxConcurrent) {
+        Class<?>[] parameterTypes = entry.getParameterTypes();
+        this.arguments = entry.getOptions();
+        this.layout = CommandArguments.Layout.of(arguments.stream().map(SlashCommandTable.Option::name).toArray(String[]::new));
+        this.shape = Shape.of(parameterTypes);
+        this.binders = shape == Shape.BOUND ? createBinders(parameterTypes, entry.getParameterNames(), arguments) : null;
         this.handler = handler;
-        this.method = method;
-        this.arguments = arguments;
+        this.invoker = entry.getInvoker();
+        this.executionMode = executionMode;
+        this.permits = executionMode == ExecutionMode.ASYNC ? new Semaphore(Math.max(1, maxConcurrent)) : null;
+
+        SlashCommandTable.Cooldown cooldownDefinition = entry.getCooldown();
+        if (cooldownDefinition != null && (cooldownDefinition.period() <= 0 || cooldownDefinition.uses() <= 0)) {
+            throw new CommandException("Invalid cooldown. The period and the number of uses must be positive.");
+        }
+        this.cooldownScope = cooldownDefinition == null ? null : cooldownDefinition.scope();
+        this.cooldown = cooldownDefinition == null ? null : new RateLimiter(cooldownDefinition.uses(), cooldownDefinition.unit().toMillis(cooldownDefinition.period()));
+
+        this.cachedResponse = entry.getCache();
+        if (cachedResponse != null && !MessageCreateData.class.isAssignableFrom(entry.getReturnType())) {
+            throw new CommandException("Commands with a cached response must return a MessageCreateData.");
+        }
+        if (cachedResponse != null && cachedResponse.ttl() <= 0) {
+            throw new CommandException("Invalid cached response. The ttl must be positive.");
+        }
+    }
+
+    boolean isCached() {
+        return cachedResponse != null;
+    }
+
+    boolean isEphemeral() {
+        return cachedResponse != null && cachedResponse.ephemeral();
+    }
+
+    long getCacheTtlNanos() {
+        return cachedResponse.unit().toNanos(cachedResponse.ttl());
+    }
+
+    /**
+     * Creates the key the reply to the event is cached under.
+     * The arguments are normalized to their string values, in the order the arguments are declared.
+     *
+     * @param event The SlashCommandInteractionEvent containing information about the command interaction.
+     * @return the key
+     */
+    ResponseCache.Key cacheKey(SlashCommandInteractionEvent event) {
+        long scopeId = switch (cachedResponse.scope()) {
+            case GLOBAL -> 0L;
+            case GUILD -> event.getGuild() != null ? event.getGuild().getIdLong() : event.getUser().getIdLong();
+            case USER -> event.getUser().getIdLong();
+        };
+
+        String[] values = new String[arguments.size()];
+        for (int i = 0; i < values.length; i++) {
+            OptionMapping option = event.getOption(arguments.get(i).name());
+            values[i] = option == null ? null : option.getAsString();
+        }
+        return new ResponseCache.Key(this, scopeId, values);
+    }
+
+    /**
+     * Uses the cooldown of the command for the scope the event was invoked in.
+     *
+     * @param event The SlashCommandInteractionEvent containing information about the command interaction.
+     * @return {@code 0} if the command may be executed, otherwise the number of milliseconds until it may be used again.
+     */
+    long checkCooldown(SlashCommandInteractionEvent event) {
+        if (cooldown == null) {
+            return 0;
+        }
+        long key = switch (cooldownScope) {
+            case USER -> event.getUser().getIdLong();
+            case GUILD -> event.getGuild() != null ? event.getGuild().getIdLong() : event.getUser().getIdLong();
+            case CHANNEL -> event.getChannelIdLong();
+            case GLOBAL -> 0L;
+        };
+        return cooldown.tryAcquire(key);
+    }
+
+    CommandMetrics getMetrics() {
+        return metrics;
+    }
+
+    boolean isAsync() {
+        return executionMode == ExecutionMode.ASYNC;
+    }
+
+    /**
+     * Acquires a permit to run the command asynchronously.
+     *
+     * @return {@code false} if the maximum number of invocations is already running
+     */
+    boolean tryAcquire() {
+        return permits == null || permits.tryAcquire();
+    }
+
+    void release() {
+        if (permits != null) {
+            permits.release();
+        }
     }
 
     /**
      * Executes the command with the provided event and arguments.
+     * <p>
+     * Apart from the {@code (event)} signature, the generated invokers take the parameters following the event as an
+     * array, so every invocation allocates one, along with the {@link CommandArguments} view or the legacy map.
+     * </p>
      *
      * @param event The SlashCommandInteractionEvent containing information about the command interaction.
+     * @return The value returned by the command method, or {@code null} if it returns {@code void}.
      */
-    void execute(SlashCommandInteractionEvent event) {
+    Object execute(SlashCommandInteractionEvent event) {
         try {
-            Parameter[] parameters = method.getParameters();
-            if (parameters.length == 0 || parameters[0].getType() != SlashCommandInteractionEvent.class || parameters.length > 2) {
-                throw new CommandExecuteException("Incompatible method parameters. " + Arrays.toString(parameters));
-            }
+            Object[] values = switch (shape) {
+                case EVENT -> NO_ARGUMENTS;
+                case LEGACY_MAP -> new Object[]{legacyArguments(event)};
+                case COMMAND_ARGUMENTS -> new Object[]{commandArguments(event)};
+                case BOUND -> boundArguments(event);
+            };
+            return invoker.invoke(handler, event, values);
+        } catch (Exception e) {
+            throw new CommandExecuteException(e);
+        }
+    }
 
-            if (parameters.length == 1) {
-                method.invoke(handler, event);
-                return;
-            }
+    // OLD WAY (DEPRECATED)
+    private Map<String, Object> legacyArguments(SlashCommandInteractionEvent event) {
+        Map<String, Object> legacyArgs = new HashMap<>();
+        for (SlashCommandTable.Option arg : arguments) {
+            legacyArgs.put(arg.name(), event.getOption(arg.name()));
+        }
+        return legacyArgs;
+    }
+
+    private CommandArguments commandArguments(SlashCommandInteractionEvent event) {
+        return new CommandArguments(layout, event);
+    }
 
-            Object argumentContainer;
+    private Object[] boundArguments(SlashCommandInteractionEvent event) {
+        Object[] values = new Object[binders.length];
+        for (int i = 0; i < binders.length; i++) {
+            values[i] = binders[i].bind(event);
+        }
+        return values;
+    }
 
-            Class<?> paramType = parameters[1].getType();
-            if (Map.class.isAssignableFrom(paramType)) {
-                // OLD WAY (DEPRECATED)
-                Map<String, Object> legacyArgs = new HashMap<>();
-                for (SlashCommandArgument arg : arguments) {
-                    legacyArgs.put(arg.name(), event.getOption(arg.name()));
-                }
-                argumentContainer = legacyArgs;
-            } else if (paramType == CommandArguments.class) {
-                CommandArguments parsedArgs = new CommandArguments();
-                for (SlashCommandArgument arg : arguments) {
-                    parsedArgs.put(arg.name(), event.getOption(arg.name()));
-                }
-                argumentContainer = parsedArgs;
+    private static ArgumentBinder[] createBinders(Class<?>[] parameterTypes, String[] parameterNames, List<SlashCommandTable.Option> arguments) {
+        int count = parameterTypes.length - 1;
+        ArgumentBinder[] binders = new ArgumentBinder[count];
 
-            } else {
-                throw new CommandExecuteException("Unsupported argument type: " + paramType.getName());
+        boolean byName = parameterNames != null;
+        for (int i = 0; byName && i < count; i++) {
+            byName = findArgument(arguments, parameterNames[i + 1]) != null;
+        }
+        if (!byName && count != arguments.size()) {
+            throw new CommandException("Expected " + arguments.size() + " argument parameters but found " + count + ". Compile with -parameters to bind arguments by name.");
+        }
+
+        for (int i = 0; i < count; i++) {
+            SlashCommandTable.Option argument = byName ? findArgument(arguments, parameterNames[i + 1]) : arguments.get(i);
+            binders[i] = ArgumentBinder.of(parameterTypes[i + 1], argument);
+        }
+        return binders;
+    }
+
+    /**
+     * Returns the definition of an option of the command.
+     *
+     * @param name the name of the option
+     * @return the option, or {@code null} if the command has no option with this name
+     */
+    SlashCommandTable.Option getOption(String name) {
+        return findArgument(arguments, name);
+    }
+
+    private static SlashCommandTable.Option findArgument(List<SlashCommandTable.Option> arguments, String name) {
+        for (SlashCommandTable.Option argument : arguments) {
+            if (argument.name().equals(name)) {
+                return argument;
             }
+        }
+        return null;
+    }
 
-            method.invoke(handler, event, argumentContainer);
+    /**
+     * The supported handler method signatures.
+     */
+    private enum Shape {
+        EVENT,
+        LEGACY_MAP,
+        COMMAND_ARGUMENTS,
+        BOUND;
 
-        } catch (Exception e) {
-            throw new CommandExecuteException(e);
+        static Shape of(Class<?>[] parameters) {
+            if (parameters.length == 0 || parameters[0] != SlashCommandInteractionEvent.class) {
+                throw new CommandException("Incompatible method parameters. " + Arrays.toString(parameters));
+            }
+
+            if (parameters.length == 1) {
+                return EVENT;
+            }
+
+            if (parameters.length == 2) {
+                Class<?> paramType = parameters[1];
+                if (Map.class.isAssignableFrom(paramType) && paramType.isAssignableFrom(HashMap.class)) {
+                    return LEGACY_MAP;
+                } else if (paramType == CommandArguments.class) {
+                    return COMMAND_ARGUMENTS;
+                }
+            }
+            return BOUND;
         }
     }
-}
\ No newline at end of file
+}
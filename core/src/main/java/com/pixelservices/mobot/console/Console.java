@@ -1,6 +1,7 @@
 package com.pixelservices.mobot.console;
 
 import com.pixelservices.mobot.MoBot;
+import com.pixelservices.mobot.console.impl.CommandsCommand;
 import com.pixelservices.mobot.console.impl.ModuleCommand;
 import com.pixelservices.mobot.console.impl.SetTokenCommand;
 import com.pixelservices.mobot.console.impl.VersionCommand;
@@ -65,8 +66,9 @@ public class Console {
         registerCommand("modules" , (args, logger) -> {
             logger.info("Did you mean 'module list'?");
         });
-        registerCommand("module", new ModuleCommand(moBot.getTaskScheduler(), moBot.getModuleManager()));
+        registerCommand("module", new ModuleCommand(moBot.getTaskScheduler(), moBot.getModuleManager(), moBot.getEventDispatcher()));
         registerCommand("version", new VersionCommand());
+        registerCommand("commands", new CommandsCommand(moBot.getCommandManager()));
         logger.info("Registered {} CLI-commands", commands.size());
     }
 
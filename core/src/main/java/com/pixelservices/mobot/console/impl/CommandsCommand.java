@@ -0,0 +1,70 @@
+package com.pixelservices.mobot.console.impl;
+
+import com.pixelservices.mobot.commands.CommandManager;
+import com.pixelservices.mobot.commands.CommandMetrics;
+import com.pixelservices.mobot.console.ConsoleCommand;
+import com.pixelservices.mobot.utils.LatencyHistogram;
+import org.slf4j.Logger;
+
+import java.util.Arrays;
+import java.util.Map;
+
+public class CommandsCommand implements ConsoleCommand {
+    private final CommandManager commandManager;
+
+    public CommandsCommand(CommandManager commandManager) {
+        this.commandManager = commandManager;
+    }
+
+    @Override
+    public void execute(String[] args, Logger logger) {
+        if (args.length == 0 || !args[0].equalsIgnoreCase("stats")) {
+            logger.info("Commands Command Usage:");
+            logger.info("commands stats - Show the invocations and latencies of all commands.");
+            logger.info("commands stats <command> - Show the detailed statistics of a command.");
+            return;
+        }
+
+        Map<String, CommandMetrics> metrics = commandManager.getMetrics();
+        if (args.length > 1) {
+            String name = String.join(" ", Arrays.copyOfRange(args, 1, args.length));
+            CommandMetrics commandMetrics = metrics.get(name);
+            if (commandMetrics == null) {
+                logger.error("Invalid command!");
+                return;
+            }
+
+            logger.info("/{} Statistics:", name);
+            logger.info("Invocations: {}, Errors: {}, Rejected: {}, Auto-deferred: {}", commandMetrics.getInvocations(), commandMetrics.getErrors(), commandMetrics.getRejections(), commandMetrics.getAutoDeferrals());
+            if (commandMetrics.getCacheHits() + commandMetrics.getCacheMisses() > 0) {
+                logger.info("Cache hits: {}, Cache misses: {}", commandMetrics.getCacheHits(), commandMetrics.getCacheMisses());
+            }
+            logger.info("Execution time: {}", formatLatencies(commandMetrics.getExecutionTimes()));
+            logger.info("Time to first response: {}", formatLatencies(commandMetrics.getResponseTimes()));
+            return;
+        }
+
+        if (metrics.isEmpty()) {
+            logger.info("No commands registered.");
+            return;
+        }
+
+        logger.info("Command Statistics:");
+        metrics.forEach((name, commandMetrics) -> logger.info("/{} - Invocations: {}, Errors: {}, Execution time: {}", name, commandMetrics.getInvocations(), commandMetrics.getErrors(), formatLatencies(commandMetrics.getExecutionTimes())));
+    }
+
+    private String formatLatencies(LatencyHistogram histogram) {
+        if (histogram.getCount() == 0) {
+            return "no samples";
+        }
+        return String.format("p50 %s, p99 %s, p999 %s, max %s",
+                formatNanos(histogram.getValueAtPercentile(50)),
+                formatNanos(histogram.getValueAtPercentile(99)),
+                formatNanos(histogram.getValueAtPercentile(99.9)),
+                formatNanos(histogram.getMax()));
+    }
+
+    private String formatNanos(long nanos) {
+        return String.format("%.2fms", nanos / 1_000_000.0);
+    }
+}
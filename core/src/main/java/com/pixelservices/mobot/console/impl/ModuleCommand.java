@@ -6,6 +6,8 @@ import com.pixelservices.mobot.api.modules.ModuleState;
 import com.pixelservices.mobot.api.scheduler.ScheduledTask;
 import com.pixelservices.mobot.api.scheduler.TaskScheduler;
 import com.pixelservices.mobot.console.ConsoleCommand;
+import com.pixelservices.mobot.events.EventBulkhead;
+import com.pixelservices.mobot.events.EventDispatcher;
 import com.pixelservices.mobot.modules.ModuleManager;
 import dev.siea.jonion.PluginWrapper;
 import org.slf4j.Logger;
@@ -18,10 +20,12 @@ public class ModuleCommand implements ConsoleCommand {
     private static final org.slf4j.Logger log = LoggerFactory.getLogger(ModuleCommand.class);
     private final TaskScheduler taskScheduler;
     private final ModuleManager moduleManager;
+    private final EventDispatcher eventDispatcher;
 
-    public ModuleCommand(TaskScheduler taskScheduler, ModuleManager moduleManager) {
+    public ModuleCommand(TaskScheduler taskScheduler, ModuleManager moduleManager, EventDispatcher eventDispatcher) {
         this.taskScheduler = taskScheduler;
         this.moduleManager = moduleManager;
+        this.eventDispatcher = eventDispatcher;
     }
 
     @Override
@@ -31,6 +35,7 @@ public class ModuleCommand implements ConsoleCommand {
             logger.info("module list - List all modules.");
             logger.info("module reload <module> - Reload a module");
             logger.info("module tasks <module> - List a modules scheduled tasks.");
+            logger.info("module events <module> - Show the event queue of an isolated module.");
             logger.info("module enable <module> - Attempt to enable a module.");
             logger.info("module disable <module> - Attempt to disable a module.");
             return;
@@ -71,8 +76,7 @@ public class ModuleCommand implements ConsoleCommand {
                 return;
             }
 
-            List<ScheduledTask> moduleTasks = taskScheduler.getTasks().values().stream()
-                    .filter(scheduledTask -> scheduledTask.getModule().getId().equalsIgnoreCase(module.getId())).toList();
+            List<ScheduledTask> moduleTasks = List.copyOf(taskScheduler.getTasks(module).values());
 
             if(moduleTasks.isEmpty()) {
                 logger.info(String.format("Module %s has no scheduled tasks.", module.getId()));
@@ -81,6 +85,33 @@ public class ModuleCommand implements ConsoleCommand {
 
             logger.info("{} Scheduled Tasks:", module.getId());
             logger.info("Total: {}, Async: {}, Repeating: {}", moduleTasks.size(), moduleTasks.stream().filter(ScheduledTask::isAsync).count(), moduleTasks.stream().filter(ScheduledTask::isRepeating).count());
+            logger.info("Runs: {}, Missed ticks: {}", moduleTasks.stream().mapToLong(ScheduledTask::getRuns).sum(), moduleTasks.stream().mapToLong(ScheduledTask::getMissedTicks).sum());
+            return;
+        }
+
+        if(args[0].equalsIgnoreCase("events")) {
+            if(args.length < 2) {
+                logger.warn("You must provide a module id!");
+                return;
+            }
+
+            MbModule module = moduleManager.getModule(args[1]);
+
+            if(module == null) {
+                logger.error("Invalid module!");
+                return;
+            }
+
+            EventBulkhead bulkhead = eventDispatcher.getBulkhead(module.getId());
+
+            if(bulkhead == null) {
+                logger.info(String.format("Module %s handles its events on the shard event threads.", module.getId()));
+                return;
+            }
+
+            logger.info("{} Event Queue:", module.getId());
+            logger.info("Depth: {}/{}, Threads: {}, Overflow: {}", bulkhead.getDepth(), bulkhead.getCapacity(), bulkhead.getThreads(), bulkhead.getPolicy());
+            logger.info("Delivered: {}, Dropped: {}, Failed: {}", bulkhead.getDelivered(), bulkhead.getDropped(), bulkhead.getFailed());
             return;
         }
 
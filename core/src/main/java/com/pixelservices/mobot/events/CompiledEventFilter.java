@@ -0,0 +1,106 @@
+package com.pixelservices.mobot.events;
+
+import com.pixelservices.mobot.api.modules.listener.AuthorType;
+import com.pixelservices.mobot.api.modules.listener.EventFilter;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import net.dv8tion.jda.api.events.message.MessageUpdateEvent;
+
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+/**
+ * An {@link EventFilter} prepared for matching, with the ids sorted for binary search and the pattern compiled.
+ * The properties of the events are read through {@link EventProperties}, and properties an event does not carry
+ * match no condition.
+ */
+final class CompiledEventFilter {
+    private final long[] guilds;
+    private final long[] channels;
+    private final AuthorType author;
+    private final String prefix;
+    private final Pattern pattern;
+
+    private CompiledEventFilter(EventFilter filter) {
+        this.guilds = sorted(filter.guilds());
+        this.channels = sorted(filter.channels());
+        this.author = filter.author();
+        this.prefix = filter.prefix().isEmpty() ? null : filter.prefix();
+        this.pattern = filter.pattern().isEmpty() ? null : Pattern.compile(filter.pattern());
+    }
+
+    /**
+     * Compiles a filter.
+     *
+     * @param filter the filter, or {@code null}
+     * @return the compiled filter, or {@code null} if the filter is {@code null} or lets every event through
+     * @throws java.util.regex.PatternSyntaxException if the pattern is not a valid regular expression
+     */
+    static CompiledEventFilter of(EventFilter filter) {
+        if (filter == null || (filter.guilds().length == 0 && filter.channels().length == 0 && filter.author() == AuthorType.ANY
+                && filter.prefix().isEmpty() && filter.pattern().isEmpty())) {
+            return null;
+        }
+        return new CompiledEventFilter(filter);
+    }
+
+    /**
+     * Checks whether an event passes the filter.
+     *
+     * @param event the event
+     * @return {@code true} if the event matches every condition
+     */
+    boolean test(GenericEvent event) {
+        if (guilds != null && Arrays.binarySearch(guilds, EventProperties.guildId(event)) < 0) {
+            return false;
+        }
+        if (channels != null && Arrays.binarySearch(channels, EventProperties.channelId(event)) < 0) {
+            return false;
+        }
+        if (author != AuthorType.ANY && !matchesAuthor(event)) {
+            return false;
+        }
+        if (prefix != null || pattern != null) {
+            String content = EventProperties.content(event);
+            if (content == null || (prefix != null && !content.startsWith(prefix)) || (pattern != null && !pattern.matcher(content).find())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean matchesAuthor(GenericEvent event) {
+        boolean webhook;
+        User user;
+        if (event instanceof MessageReceivedEvent message) {
+            webhook = message.isWebhookMessage();
+            user = message.getAuthor();
+        } else if (event instanceof MessageUpdateEvent message) {
+            webhook = message.getMessage().isWebhookMessage();
+            user = message.getAuthor();
+        } else {
+            webhook = false;
+            user = EventProperties.user(event);
+        }
+
+        if (user == null) {
+            return false;
+        }
+        return switch (author) {
+            case HUMAN -> !webhook && !user.isBot() && !user.isSystem();
+            case BOT -> !webhook && user.isBot();
+            case WEBHOOK -> webhook;
+            case ANY -> true;
+        };
+    }
+
+    private static long[] sorted(long[] ids) {
+        if (ids.length == 0) {
+            return null;
+        }
+        long[] sorted = ids.clone();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+}
@@ -0,0 +1,180 @@
+package com.pixelservices.mobot.events;
+
+import com.pixelservices.mobot.utils.ThreadUtil;
+import net.dv8tion.jda.api.events.GenericEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * EventBulkhead isolates the event handlers of a module from the shard event threads.
+ * <p>
+ * Events for the module are put into a bounded queue and handled on threads of the module, virtual threads where the
+ * runtime supports them, so a module blocking in a handler only delays its own events. When the queue is full, the
+ * {@link OverflowPolicy} decides which event is given up. With a single thread, the module receives its events in the
+ * order they were dispatched.
+ * </p>
+ */
+public class EventBulkhead {
+    private static final long BLOCK_CHECK_MILLIS = 100;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+    private final String owner;
+    private final OverflowPolicy policy;
+    private final int capacity;
+    private final int threads;
+    private final BlockingQueue<Delivery> queue;
+    private final ExecutorService executor;
+    private final AtomicInteger drainers = new AtomicInteger();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private volatile boolean closed;
+
+    /**
+     * Constructor for EventBulkhead.
+     *
+     * @param owner    the id of the module the events are handled for
+     * @param capacity the maximum number of queued events
+     * @param policy   what to do with events arriving while the queue is full
+     * @param threads  the number of threads handling the events of the module at the same time
+     */
+    EventBulkhead(String owner, int capacity, OverflowPolicy policy, int threads) {
+        this.owner = owner;
+        this.policy = policy;
+        this.capacity = Math.max(1, capacity);
+        this.threads = Math.max(1, threads);
+        this.queue = new ArrayBlockingQueue<>(this.capacity);
+        this.executor = ThreadUtil.newVirtualThreadExecutor("Events-" + owner, this.threads);
+    }
+
+    /**
+     * Queues an event for a handler of the module.
+     *
+     * @param handler the handler receiving the event
+     * @param event   the event
+     */
+    void submit(Consumer<GenericEvent> handler, GenericEvent event) {
+        if (closed) {
+            return;
+        }
+
+        Delivery delivery = new Delivery(handler, event);
+        switch (policy) {
+            case DROP_NEWEST -> {
+                if (!queue.offer(delivery)) {
+                    dropped.increment();
+                    return;
+                }
+            }
+            case DROP_OLDEST -> {
+                while (!queue.offer(delivery)) {
+                    if (queue.poll() != null) {
+                        dropped.increment();
+                    }
+                }
+            }
+            case BLOCK -> {
+                try {
+                    while (!queue.offer(delivery, BLOCK_CHECK_MILLIS, TimeUnit.MILLISECONDS)) {
+                        if (closed) {
+                            dropped.increment();
+                            return;
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    dropped.increment();
+                    return;
+                }
+            }
+        }
+
+        if (tryStartDrainer()) {
+            try {
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                drainers.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Stops handling events and drops the queued ones.
+     */
+    void close() {
+        closed = true;
+        queue.clear();
+        executor.shutdown();
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public OverflowPolicy getPolicy() {
+        return policy;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public int getDepth() {
+        return queue.size();
+    }
+
+    public long getDelivered() {
+        return delivered.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    private void drain() {
+        do {
+            Delivery delivery;
+            while (!closed && (delivery = queue.poll()) != null) {
+                try {
+                    delivery.handler().accept(delivery.event());
+                    delivered.increment();
+                } catch (Throwable e) {
+                    failed.increment();
+                    logger.error("{} threw an exception while handling {}", owner, delivery.event().getClass().getSimpleName(), e);
+                }
+            }
+            drainers.decrementAndGet();
+            // An event queued after the last poll may have seen this drainer still running, so check again
+        } while (!closed && !queue.isEmpty() && tryStartDrainer());
+    }
+
+    private boolean tryStartDrainer() {
+        int running;
+        while ((running = drainers.get()) < threads) {
+            if (drainers.compareAndSet(running, running + 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record Delivery(Consumer<GenericEvent> handler, GenericEvent event) {
+    }
+}
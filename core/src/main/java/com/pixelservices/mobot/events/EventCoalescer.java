@@ -0,0 +1,165 @@
+package com.pixelservices.mobot.events;
+
+import com.pixelservices.mobot.api.modules.listener.Coalesce;
+import com.pixelservices.mobot.api.modules.listener.CoalesceKey;
+import com.pixelservices.mobot.api.modules.listener.EventBatch;
+import com.pixelservices.mobot.utils.HashedWheelTimer;
+import net.dv8tion.jda.api.events.GenericEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * EventCoalescer collects the events of a {@link Coalesce} subscription into {@link EventBatch}es.
+ * <p>
+ * Open batches are kept by their key. The first event of a key schedules the delivery of its batch on a
+ * {@link HashedWheelTimer} after the window, so a batch costs a single timer entry however many events it collects.
+ * Batches are handed to the handler on an executor, keeping the timer thread free.
+ * </p>
+ */
+final class EventCoalescer implements Consumer<GenericEvent> {
+    private static final BatchKey GLOBAL_KEY = new BatchKey(0, 0);
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+    private final String name;
+    private final CoalesceKey key;
+    private final long windowNanos;
+    private final boolean latestOnly;
+    private final int maxEvents;
+    private final Consumer<GenericEvent> handler;
+    private final HashedWheelTimer timer;
+    private final Executor executor;
+    private final Map<BatchKey, PendingBatch> pending = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    /**
+     * Constructor for EventCoalescer.
+     *
+     * @param name     the name of the handler, for logging
+     * @param coalesce the annotation of the handler
+     * @param handler  the handler receiving the batches
+     * @param timer    the timer delivering the batches after their window
+     * @param executor the executor the batches are delivered on
+     */
+    EventCoalescer(String name, Coalesce coalesce, Consumer<GenericEvent> handler, HashedWheelTimer timer, Executor executor) {
+        if (coalesce.window() <= 0) {
+            throw new IllegalArgumentException("The coalescing window must be positive.");
+        }
+        if (coalesce.maxEvents() <= 0) {
+            throw new IllegalArgumentException("The maximum number of events of a batch must be positive.");
+        }
+        this.name = name;
+        this.key = coalesce.key();
+        this.windowNanos = coalesce.unit().toNanos(coalesce.window());
+        this.latestOnly = coalesce.latestOnly();
+        this.maxEvents = coalesce.maxEvents();
+        this.handler = handler;
+        this.timer = timer;
+        this.executor = executor;
+    }
+
+    @Override
+    public void accept(GenericEvent event) {
+        if (closed) {
+            return;
+        }
+
+        BatchKey batchKey = keyOf(event);
+        PendingBatch[] full = new PendingBatch[1];
+        pending.compute(batchKey, (k, batch) -> {
+            if (batch == null) {
+                PendingBatch opened = new PendingBatch(key == CoalesceKey.MEMBER ? k.second : k.first);
+                opened.timeout = timer.schedule(() -> flush(k, opened), windowNanos, TimeUnit.NANOSECONDS);
+                batch = opened;
+            }
+            batch.add(event, latestOnly);
+            if (batch.events.size() >= maxEvents) {
+                full[0] = batch;
+                return null;
+            }
+            return batch;
+        });
+
+        if (full[0] != null) {
+            full[0].timeout.cancel();
+            deliver(full[0]);
+        }
+    }
+
+    /**
+     * Drops the open batches and stops collecting events.
+     */
+    void close() {
+        closed = true;
+        pending.values().forEach(batch -> batch.timeout.cancel());
+        pending.clear();
+    }
+
+    private void flush(BatchKey batchKey, PendingBatch batch) {
+        if (pending.remove(batchKey, batch)) {
+            deliver(batch);
+        }
+    }
+
+    private void deliver(PendingBatch batch) {
+        if (closed) {
+            return;
+        }
+        EventBatch<GenericEvent> eventBatch = new EventBatch<>(batch.key, batch.events, batch.count);
+        try {
+            executor.execute(() -> {
+                try {
+                    handler.accept(eventBatch);
+                } catch (Throwable e) {
+                    logger.error("{} threw an exception while handling a batch of {} events", name, eventBatch.size(), e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            logger.debug("Dropped a batch of {} events for {}, the executor has been shut down.", eventBatch.size(), name);
+        }
+    }
+
+    private BatchKey keyOf(GenericEvent event) {
+        return switch (key) {
+            case NONE -> GLOBAL_KEY;
+            case GUILD -> new BatchKey(EventProperties.guildId(event), 0);
+            case CHANNEL -> new BatchKey(EventProperties.channelId(event), 0);
+            case USER -> new BatchKey(EventProperties.userId(event), 0);
+            case MEMBER -> new BatchKey(EventProperties.guildId(event), EventProperties.userId(event));
+            case MESSAGE -> new BatchKey(EventProperties.messageId(event), 0);
+        };
+    }
+
+    private record BatchKey(long first, long second) {
+    }
+
+    /**
+     * An open batch, only modified while holding the lock of its key in the pending map.
+     */
+    private static final class PendingBatch {
+        private final long key;
+        private final List<GenericEvent> events = new ArrayList<>();
+        private int count;
+        private HashedWheelTimer.Timeout timeout;
+
+        private PendingBatch(long key) {
+            this.key = key;
+        }
+
+        void add(GenericEvent event, boolean latestOnly) {
+            if (latestOnly) {
+                events.clear();
+            }
+            events.add(event);
+            count++;
+        }
+    }
+}
@@ -0,0 +1,412 @@
+package com.pixelservices.mobot.events;
+
+import com.pixelservices.mobot.api.modules.listener.Coalesce;
+import com.pixelservices.mobot.api.modules.listener.EventBatch;
+import com.pixelservices.mobot.api.modules.listener.EventFilter;
+import com.pixelservices.mobot.api.modules.listener.EventSubscriber;
+import com.pixelservices.mobot.api.modules.listener.ModuleListener;
+import com.pixelservices.mobot.api.modules.listener.Subscribe;
+import com.pixelservices.mobot.utils.ConfigUtil;
+import com.pixelservices.mobot.utils.HashedWheelTimer;
+import com.pixelservices.mobot.utils.ThreadUtil;
+import dev.siea.jonion.configuration.YamlPluginConfig;
+import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.hooks.EventListener;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * EventDispatcher is the single listener through which the events of the ShardManager reach the modules.
+ * <p>
+ * Instead of adding every {@link ModuleListener} to the ShardManager, where each event would pass through the
+ * dispatch of every listener, the listeners are indexed by the event types their overridden {@code on*} methods
+ * accept. The subscriptions interested in a concrete event class are resolved once and cached, so an event is only
+ * handed to the listeners handling it, and events nobody handles are dropped after a single lookup. The index is
+ * immutable and rebuilt when subscriptions change, so dispatching does not lock.
+ * </p>
+ * <p>
+ * {@link Subscribe} methods are bound to a {@link Consumer} once, when registered. The consumer is generated with the
+ * {@link LambdaMetafactory} where the subscriber class is accessible with full privileges, and otherwise wraps a
+ * {@link MethodHandle} of the exact event type, as modules are loaded by their own class loaders. Handlers of an event
+ * are invoked by descending priority, and by registration order within a priority.
+ * </p>
+ * <p>
+ * Modules listed in {@code event-isolated-modules} of the bot configuration receive their events through an
+ * {@link EventBulkhead} instead of on the shard event threads. {@link EventFilter}s are checked on the shard event
+ * thread before that, so filtered events are neither queued nor passed to module code.
+ * </p>
+ * <p>
+ * {@link Coalesce} methods receive {@link EventBatch}es collected by an {@link EventCoalescer}. The batches of all
+ * subscriptions are timed by a single {@link HashedWheelTimer}, started with the first such subscription.
+ * </p>
+ */
+public class EventDispatcher implements EventListener {
+    private static final EventSubscription[] NONE = new EventSubscription[0];
+    private static final MethodType HANDLER_TYPE = MethodType.methodType(void.class, GenericEvent.class);
+    private static final Comparator<EventSubscription> BY_PRIORITY = Comparator.comparingInt(EventSubscription::priority).reversed();
+    private static final ClassValue<Class<?>[]> HANDLED_TYPES = new ClassValue<>() {
+        @Override
+        protected Class<?>[] computeValue(@NotNull Class<?> type) {
+            return findHandledTypes(type);
+        }
+    };
+
+    private static final int DEFAULT_QUEUE_CAPACITY = 1024;
+    private static final int DEFAULT_QUEUE_THREADS = 1;
+    private static final String ALL_MODULES = "*";
+    private static final long COALESCING_TICK_MILLIS = 10;
+    private static final int COALESCING_WHEEL_SIZE = 512;
+    private static final int BATCH_THREADS = 4;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+    private final Set<String> isolatedModules;
+    private final int queueCapacity;
+    private final int queueThreads;
+    private final OverflowPolicy overflowPolicy;
+    private final Map<String, EventBulkhead> bulkheads = new ConcurrentHashMap<>();
+    private HashedWheelTimer coalescingTimer;
+    private ExecutorService batchExecutor;
+    private volatile Index index = new Index(List.of());
+
+    public EventDispatcher() {
+        YamlPluginConfig config = ConfigUtil.getBotConfig();
+        this.isolatedModules = config == null ? Set.of() : new HashSet<>(config.getYamlConfiguration().getStringList("event-isolated-modules"));
+        this.queueCapacity = config == null ? DEFAULT_QUEUE_CAPACITY : config.getYamlConfiguration().getInt("event-queue-capacity", DEFAULT_QUEUE_CAPACITY);
+        this.queueThreads = config == null ? DEFAULT_QUEUE_THREADS : config.getYamlConfiguration().getInt("event-queue-threads", DEFAULT_QUEUE_THREADS);
+        this.overflowPolicy = getOverflowPolicy(config);
+    }
+
+    @Override
+    public void onEvent(@NotNull GenericEvent event) {
+        for (EventSubscription subscription : index.find(event.getClass())) {
+            if (subscription.filter() != null && !subscription.filter().test(event)) {
+                continue;
+            }
+            try {
+                subscription.handler().accept(event);
+            } catch (Throwable e) {
+                logger.error("{} threw an exception while handling {}", describe(subscription), event.getClass().getSimpleName(), e);
+            }
+        }
+    }
+
+    /**
+     * Registers a {@link ModuleListener}, along with the {@link Subscribe} methods it declares.
+     * Listeners that do not override any event method only have their {@link Subscribe} methods indexed.
+     *
+     * @param owner    the id of the module registering the listener, or {@code null}
+     * @param listener the listener to register
+     */
+    public synchronized void registerListener(String owner, ModuleListener listener) {
+        Class<?>[] types = HANDLED_TYPES.get(listener.getClass());
+        if (types.length > 0) {
+            try {
+                CompiledEventFilter filter = CompiledEventFilter.of(listener.getClass().getAnnotation(EventFilter.class));
+                subscribe(new EventSubscription(owner, listener, types, 0, filter, isolate(owner, listener::onEvent)));
+            } catch (PatternSyntaxException e) {
+                logger.warn("Unable to register listener: " + listener.getClass().getSimpleName() + ". Invalid filter pattern: " + e.getMessage());
+                return;
+            }
+        }
+        registerSubscriber(owner, listener);
+    }
+
+    /**
+     * Registers the {@link Subscribe} methods of an {@link EventSubscriber}, including the methods inherited from its
+     * superclasses. A method overridden by a subclass is only registered if the overriding method is annotated.
+     *
+     * @param owner      the id of the module registering the subscriber, or {@code null}
+     * @param subscriber the subscriber declaring the methods
+     */
+    public synchronized void registerSubscriber(String owner, EventSubscriber subscriber) {
+        for (Method method : findSubscribeMethods(subscriber.getClass())) {
+            Subscribe annotation = method.getAnnotation(Subscribe.class);
+            try {
+                EventFilter filter = method.isAnnotationPresent(EventFilter.class) ? method.getAnnotation(EventFilter.class) : subscriber.getClass().getAnnotation(EventFilter.class);
+                Coalesce coalesce = method.getAnnotation(Coalesce.class);
+                Class<?> eventType = eventTypeOf(method, coalesce != null);
+                Consumer<GenericEvent> handler = isolate(owner, bind(subscriber, method));
+                if (coalesce != null) {
+                    handler = coalesce(subscriber.getClass().getSimpleName() + "#" + method.getName(), coalesce, handler);
+                }
+                subscribe(new EventSubscription(owner, subscriber, new Class<?>[]{eventType}, annotation.priority(), CompiledEventFilter.of(filter), handler));
+            } catch (IllegalArgumentException e) {
+                logger.warn("Unable to register event handler: " + subscriber.getClass().getSimpleName() + "#" + method.getName() + ". " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Removes the subscriptions registered from an object.
+     *
+     * @param target the listener the subscriptions were registered from
+     */
+    public synchronized void unregisterListener(Object target) {
+        publish(index.subscriptions.stream().filter(subscription -> subscription.target() != target).toList());
+    }
+
+    /**
+     * Removes the subscriptions registered by a module.
+     *
+     * @param owner the id of the module
+     */
+    public synchronized void unregister(String owner) {
+        publish(index.subscriptions.stream().filter(subscription -> !owner.equals(subscription.owner())).toList());
+        EventBulkhead bulkhead = bulkheads.remove(owner);
+        if (bulkhead != null) {
+            bulkhead.close();
+        }
+    }
+
+    /**
+     * Returns the bulkhead the events of a module are queued in.
+     *
+     * @param owner the id of the module
+     * @return the bulkhead, or {@code null} if the module is not isolated or has not registered any handlers
+     */
+    public EventBulkhead getBulkhead(String owner) {
+        return bulkheads.get(owner);
+    }
+
+    /**
+     * Stops the threads of the bulkheads, dropping the events still queued.
+     */
+    public synchronized void shutdown() {
+        index.subscriptions.forEach(EventDispatcher::close);
+        bulkheads.values().forEach(EventBulkhead::close);
+        bulkheads.clear();
+        if (coalescingTimer != null) {
+            coalescingTimer.stop();
+            batchExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Checks whether any subscription accepts events of a class.
+     *
+     * @param eventType the concrete class of the event
+     * @return {@code true} if the event would be dispatched to at least one handler
+     */
+    public boolean hasSubscribers(Class<? extends GenericEvent> eventType) {
+        return index.find(eventType).length > 0;
+    }
+
+    private void subscribe(EventSubscription subscription) {
+        List<EventSubscription> subscriptions = new ArrayList<>(index.subscriptions);
+        subscriptions.add(subscription);
+        publish(List.copyOf(subscriptions));
+    }
+
+    private void publish(List<EventSubscription> subscriptions) {
+        if (subscriptions.size() == index.subscriptions.size()) {
+            return;
+        }
+        Index previous = index;
+        index = new Index(subscriptions);
+        previous.subscriptions.stream().filter(subscription -> !subscriptions.contains(subscription)).forEach(EventDispatcher::close);
+    }
+
+    private static void close(EventSubscription subscription) {
+        if (subscription.handler() instanceof EventCoalescer coalescer) {
+            coalescer.close();
+        }
+    }
+
+    private Consumer<GenericEvent> coalesce(String name, Coalesce coalesce, Consumer<GenericEvent> handler) {
+        if (coalescingTimer == null) {
+            coalescingTimer = new HashedWheelTimer("Event-Coalescing", COALESCING_TICK_MILLIS, TimeUnit.MILLISECONDS, COALESCING_WHEEL_SIZE);
+            batchExecutor = ThreadUtil.newVirtualThreadExecutor("Event-Batches", BATCH_THREADS);
+        }
+        return new EventCoalescer(name, coalesce, handler, coalescingTimer, batchExecutor);
+    }
+
+    /**
+     * Routes the events of a handler through the bulkhead of its module, if the module is isolated.
+     */
+    private Consumer<GenericEvent> isolate(String owner, Consumer<GenericEvent> handler) {
+        if (owner == null || !(isolatedModules.contains(owner) || isolatedModules.contains(ALL_MODULES))) {
+            return handler;
+        }
+        EventBulkhead bulkhead = bulkheads.computeIfAbsent(owner, id -> new EventBulkhead(id, queueCapacity, overflowPolicy, queueThreads));
+        return event -> bulkhead.submit(handler, event);
+    }
+
+    private OverflowPolicy getOverflowPolicy(YamlPluginConfig config) {
+        String policy = config == null ? null : config.getYamlConfiguration().getString("event-overflow-policy", OverflowPolicy.DROP_OLDEST.name());
+        try {
+            return OverflowPolicy.valueOf(String.valueOf(policy).toUpperCase());
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid event-overflow-policy: {}. Falling back to {}.", policy, OverflowPolicy.DROP_OLDEST);
+            return OverflowPolicy.DROP_OLDEST;
+        }
+    }
+
+    private static Class<?> eventTypeOf(Method method, boolean coalesced) {
+        if (Modifier.isStatic(method.getModifiers())) {
+            throw new IllegalArgumentException("Event handlers must not be static.");
+        }
+        Class<?>[] parameters = method.getParameterTypes();
+        if (parameters.length != 1 || !GenericEvent.class.isAssignableFrom(parameters[0])) {
+            throw new IllegalArgumentException("Event handlers must take a single JDA event.");
+        }
+        if (coalesced != (parameters[0] == EventBatch.class)) {
+            throw new IllegalArgumentException("Event handlers must take an EventBatch if, and only if, they are annotated with @Coalesce.");
+        }
+        if (!coalesced) {
+            return parameters[0];
+        }
+
+        Type type = method.getGenericParameterTypes()[0];
+        if (type instanceof ParameterizedType parameterized && parameterized.getActualTypeArguments()[0] instanceof Class<?> eventType
+                && GenericEvent.class.isAssignableFrom(eventType)) {
+            return eventType;
+        }
+        throw new IllegalArgumentException("The EventBatch of a handler must declare the type of its events.");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Consumer<GenericEvent> bind(EventSubscriber subscriber, Method method) {
+        Class<?> type = method.getDeclaringClass();
+        Class<?> eventType = method.getParameterTypes()[0];
+        MethodHandle handle;
+        MethodHandles.Lookup lookup;
+        try {
+            method.setAccessible(true);
+            lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+            handle = lookup.unreflect(method);
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new IllegalArgumentException("Unable to access the method: " + e.getMessage(), e);
+        }
+
+        if (lookup.hasFullPrivilegeAccess()) {
+            try {
+                CallSite site = LambdaMetafactory.metafactory(lookup, "accept", MethodType.methodType(Consumer.class, type),
+                        MethodType.methodType(void.class, Object.class), handle, MethodType.methodType(void.class, eventType));
+                return (Consumer<GenericEvent>) site.getTarget().invoke(subscriber);
+            } catch (Throwable ignored) {
+                // Fall back to the method handle below
+            }
+        }
+
+        MethodHandle bound = handle.bindTo(subscriber).asType(HANDLER_TYPE);
+        return event -> {
+            try {
+                bound.invokeExact(event);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+
+    private static String describe(EventSubscription subscription) {
+        String name = subscription.target().getClass().getSimpleName();
+        return subscription.owner() == null ? name : subscription.owner() + " (" + name + ")";
+    }
+
+    /**
+     * Finds the {@link Subscribe} methods of a subscriber class and its superclasses, up to {@link ListenerAdapter}.
+     * Superclass methods overridden by a subclass are skipped, whether or not the overriding method is annotated.
+     */
+    private static List<Method> findSubscribeMethods(Class<?> subscriberClass) {
+        List<Method> methods = new ArrayList<>();
+        Set<String> declared = new HashSet<>();
+        for (Class<?> type = subscriberClass; type != null && type != Object.class && type != ListenerAdapter.class; type = type.getSuperclass()) {
+            for (Method method : type.getDeclaredMethods()) {
+                if (method.isBridge() || method.isSynthetic()) {
+                    continue;
+                }
+                boolean overridden = !declared.add(method.getName() + Arrays.toString(method.getParameterTypes()));
+                if (overridden && !Modifier.isPrivate(method.getModifiers()) && !Modifier.isStatic(method.getModifiers())) {
+                    continue;
+                }
+                if (method.isAnnotationPresent(Subscribe.class)) {
+                    methods.add(method);
+                }
+            }
+        }
+        return methods;
+    }
+
+    /**
+     * Finds the event types a listener class handles, by the {@link ListenerAdapter} methods it overrides.
+     * Overriding {@link ListenerAdapter#onGenericEvent(GenericEvent)} subscribes the listener to every event.
+     */
+    private static Class<?>[] findHandledTypes(Class<?> listenerClass) {
+        Set<Class<?>> types = new LinkedHashSet<>();
+        for (Class<?> type = listenerClass; type != null && type != ListenerAdapter.class; type = type.getSuperclass()) {
+            for (Method method : type.getDeclaredMethods()) {
+                if (!overridesEventMethod(method)) {
+                    continue;
+                }
+                Class<?> eventType = method.getParameterTypes()[0];
+                if (eventType == GenericEvent.class) {
+                    return new Class<?>[]{GenericEvent.class};
+                }
+                types.add(eventType);
+            }
+        }
+        return types.toArray(new Class<?>[0]);
+    }
+
+    private static boolean overridesEventMethod(Method method) {
+        if (method.getParameterCount() != 1 || !method.getName().startsWith("on") || method.isBridge() || method.isSynthetic()
+                || Modifier.isStatic(method.getModifiers()) || !GenericEvent.class.isAssignableFrom(method.getParameterTypes()[0])) {
+            return false;
+        }
+        try {
+            ListenerAdapter.class.getMethod(method.getName(), method.getParameterTypes());
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * An immutable list of subscriptions, with the subscriptions accepting each event class resolved on first use.
+     */
+    private static final class Index {
+        private final List<EventSubscription> subscriptions;
+        private final Map<Class<?>, EventSubscription[]> resolved = new ConcurrentHashMap<>();
+
+        private Index(List<EventSubscription> subscriptions) {
+            this.subscriptions = subscriptions;
+        }
+
+        EventSubscription[] find(Class<?> eventType) {
+            EventSubscription[] matching = resolved.get(eventType);
+            return matching != null ? matching : resolved.computeIfAbsent(eventType, this::resolve);
+        }
+
+        private EventSubscription[] resolve(Class<?> eventType) {
+            EventSubscription[] matching = subscriptions.stream().filter(subscription -> subscription.accepts(eventType)).sorted(BY_PRIORITY).toArray(EventSubscription[]::new);
+            return matching.length == 0 ? NONE : matching;
+        }
+    }
+}
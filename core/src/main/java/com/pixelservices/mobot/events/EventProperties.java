@@ -0,0 +1,143 @@
+package com.pixelservices.mobot.events;
+
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.ISnowflake;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.entities.channel.Channel;
+import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.events.channel.GenericChannelEvent;
+import net.dv8tion.jda.api.events.guild.GenericGuildEvent;
+import net.dv8tion.jda.api.events.guild.member.GenericGuildMemberEvent;
+import net.dv8tion.jda.api.events.message.GenericMessageEvent;
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import net.dv8tion.jda.api.events.message.MessageUpdateEvent;
+import net.dv8tion.jda.api.events.message.react.GenericMessageReactionEvent;
+import net.dv8tion.jda.api.events.user.GenericUserEvent;
+import net.dv8tion.jda.api.interactions.Interaction;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
+/**
+ * Reads the guild, channel, user, message and content of JDA events, for filtering and coalescing them.
+ * <p>
+ * The properties are read through the common JDA event types: messages, interactions, guild, channel, member and user
+ * events. Guilds and channels of other events are read through their {@code getGuild()} and {@code getChannel()}
+ * methods, looked up once per event class. Ids an event does not carry are {@code 0}, other properties {@code null}.
+ * </p>
+ */
+final class EventProperties {
+    private static final ClassValue<MethodHandle> GUILD_GETTERS = getterCache("getGuild", Guild.class);
+    private static final ClassValue<MethodHandle> CHANNEL_GETTERS = getterCache("getChannel", Channel.class);
+
+    private EventProperties() {
+    }
+
+    static long guildId(GenericEvent event) {
+        if (event instanceof GenericMessageEvent message) {
+            return message.isFromGuild() ? message.getGuild().getIdLong() : 0;
+        }
+        if (event instanceof GenericGuildEvent guildEvent) {
+            return guildEvent.getGuild().getIdLong();
+        }
+        if (event instanceof Interaction interaction) {
+            return interaction.getGuild() == null ? 0 : interaction.getGuild().getIdLong();
+        }
+        if (event instanceof GenericChannelEvent channelEvent) {
+            return channelEvent.isFromGuild() ? channelEvent.getGuild().getIdLong() : 0;
+        }
+        return idOf(GUILD_GETTERS.get(event.getClass()), event);
+    }
+
+    static long channelId(GenericEvent event) {
+        if (event instanceof GenericMessageEvent message) {
+            return message.getChannel().getIdLong();
+        }
+        if (event instanceof Interaction interaction) {
+            return interaction.getChannelIdLong();
+        }
+        if (event instanceof GenericChannelEvent channelEvent) {
+            return channelEvent.getChannel().getIdLong();
+        }
+        return idOf(CHANNEL_GETTERS.get(event.getClass()), event);
+    }
+
+    static User user(GenericEvent event) {
+        if (event instanceof Interaction interaction) {
+            return interaction.getUser();
+        }
+        if (event instanceof GenericMessageReactionEvent reaction) {
+            return reaction.getUser();
+        }
+        if (event instanceof GenericGuildMemberEvent member) {
+            return member.getUser();
+        }
+        if (event instanceof GenericUserEvent userEvent) {
+            return userEvent.getUser();
+        }
+        return null;
+    }
+
+    static String content(GenericEvent event) {
+        Message message = null;
+        if (event instanceof MessageReceivedEvent received) {
+            message = received.getMessage();
+        } else if (event instanceof MessageUpdateEvent updated) {
+            message = updated.getMessage();
+        }
+        return message == null ? null : message.getContentRaw();
+    }
+
+    static long userId(GenericEvent event) {
+        if (event instanceof MessageReceivedEvent message) {
+            return message.getAuthor().getIdLong();
+        }
+        if (event instanceof MessageUpdateEvent message) {
+            return message.getAuthor().getIdLong();
+        }
+        if (event instanceof GenericMessageReactionEvent reaction) {
+            return reaction.getUserIdLong();
+        }
+        User user = user(event);
+        return user == null ? 0 : user.getIdLong();
+    }
+
+    static long messageId(GenericEvent event) {
+        return event instanceof GenericMessageEvent message ? message.getMessageIdLong() : 0;
+    }
+
+    private static long idOf(MethodHandle getter, GenericEvent event) {
+        if (getter == null) {
+            return 0;
+        }
+        try {
+            ISnowflake entity = (ISnowflake) getter.invokeExact(event);
+            return entity == null ? 0 : entity.getIdLong();
+        } catch (Throwable e) {
+            // Events outside of a guild throw instead of returning null
+            return 0;
+        }
+    }
+
+    private static ClassValue<MethodHandle> getterCache(String name, Class<?> returnType) {
+        return new ClassValue<>() {
+            @Override
+            protected MethodHandle computeValue(@NotNull Class<?> type) {
+                try {
+                    Method method = type.getMethod(name);
+                    if (!returnType.isAssignableFrom(method.getReturnType())) {
+                        return null;
+                    }
+                    MethodHandle handle = MethodHandles.publicLookup().unreflect(method);
+                    return handle.asType(MethodType.methodType(ISnowflake.class, GenericEvent.class));
+                } catch (NoSuchMethodException | IllegalAccessException e) {
+                    return null;
+                }
+            }
+        };
+    }
+}
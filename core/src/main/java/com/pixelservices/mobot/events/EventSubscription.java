@@ -0,0 +1,33 @@
+package com.pixelservices.mobot.events;
+
+import net.dv8tion.jda.api.events.GenericEvent;
+
+import java.util.function.Consumer;
+
+/**
+ * A handler registered with the {@link EventDispatcher}, together with the event types it is interested in.
+ *
+ * @param owner    the id of the module that registered the handler, or {@code null}
+ * @param target   the object the handler was registered from, identifying the subscription
+ * @param types    the event classes and interfaces the handler accepts, including their subtypes
+ * @param priority the priority of the handler, handlers with higher priorities receiving an event first
+ * @param filter   the filter events must pass before reaching the handler, or {@code null}
+ * @param handler  the handler receiving the events
+ */
+record EventSubscription(String owner, Object target, Class<?>[] types, int priority, CompiledEventFilter filter, Consumer<GenericEvent> handler) {
+
+    /**
+     * Checks whether the subscription accepts events of a class.
+     *
+     * @param eventType the concrete class of the event
+     * @return {@code true} if the class is one of the accepted types or a subtype of one
+     */
+    boolean accepts(Class<?> eventType) {
+        for (Class<?> type : types) {
+            if (type.isAssignableFrom(eventType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,19 @@
+package com.pixelservices.mobot.events;
+
+/**
+ * What an {@link EventBulkhead} does with an event when its queue is full.
+ */
+public enum OverflowPolicy {
+    /**
+     * Drops the oldest queued event to make room for the new one.
+     */
+    DROP_OLDEST,
+    /**
+     * Drops the new event.
+     */
+    DROP_NEWEST,
+    /**
+     * Blocks the shard event thread until the queue has room, slowing down the event stream of the shard.
+     */
+    BLOCK
+}
@@ -1,8 +1,10 @@
 package com.pixelservices.mobot.modules;
 
-import com.pixelservices.mobot.api.env.FinalizedBotEnvironment;
+import com.pixelservices.mobot.api.modules.MbModule;
+import com.pixelservices.mobot.api.modules.listener.EventSubscriber;
 import com.pixelservices.mobot.api.modules.listener.ListenerBridge;
 import com.pixelservices.mobot.api.modules.listener.ModuleListener;
+import com.pixelservices.mobot.events.EventDispatcher;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -10,11 +12,14 @@ import java.util.Set;
 public class ListenerBridgeImpl implements ListenerBridge {
 
     private final Set<ModuleListener> listeners = new HashSet<>();
+    private final Set<EventSubscriber> subscribers = new HashSet<>();
 
-    private final FinalizedBotEnvironment botEnvironment;
+    private final EventDispatcher eventDispatcher;
+    private final MbModule module;
 
-    public ListenerBridgeImpl(FinalizedBotEnvironment botEnvironment) {
-        this.botEnvironment = botEnvironment;
+    public ListenerBridgeImpl(EventDispatcher eventDispatcher, MbModule module) {
+        this.eventDispatcher = eventDispatcher;
+        this.module = module;
     }
 
     @Override
@@ -24,7 +29,7 @@ public class ListenerBridgeImpl implements ListenerBridge {
         }
 
         listeners.add(listener);
-        botEnvironment.getShardManager().addEventListener(listener);
+        eventDispatcher.registerListener(module.getId(), listener);
     }
 
     @Override
@@ -32,4 +37,19 @@ public class ListenerBridgeImpl implements ListenerBridge {
         return listeners;
     }
 
+    @Override
+    public void registerSubscriber(EventSubscriber subscriber) {
+        if(subscribers.contains(subscriber)) {
+            return;
+        }
+
+        subscribers.add(subscriber);
+        eventDispatcher.registerSubscriber(module.getId(), subscriber);
+    }
+
+    @Override
+    public Set<EventSubscriber> getSubscribers() {
+        return subscribers;
+    }
+
 }
@@ -7,6 +7,7 @@ import com.pixelservices.mobot.api.modules.ModuleRegistry;
 import com.pixelservices.mobot.api.modules.ModuleState;
 import com.pixelservices.mobot.api.scheduler.TaskScheduler;
 import com.pixelservices.mobot.commands.CommandManager;
+import com.pixelservices.mobot.events.EventDispatcher;
 import dev.siea.jonion.PluginWrapper;
 import dev.siea.jonion.descriptor.finder.YamlDescriptorFinder;
 import dev.siea.jonion.lifecycle.PluginState;
@@ -24,14 +25,16 @@ public class ModuleManager extends AbstractPluginManager implements ModuleRegist
 
     private final TaskScheduler taskScheduler;
     private final CommandManager commandManager;
+    private final EventDispatcher eventDispatcher;
 
     private FinalizedBotEnvironment finalizedBotEnvironment;
 
-    public ModuleManager(TaskScheduler taskScheduler, CommandManager commandManager) {
+    public ModuleManager(TaskScheduler taskScheduler, CommandManager commandManager, EventDispatcher eventDispatcher) {
         super(Paths.get("modules"), new YamlDescriptorFinder("module.yml"));
 
         this.taskScheduler = taskScheduler;
         this.commandManager = commandManager;
+        this.eventDispatcher = eventDispatcher;
     }
 
     public void preEnable(PrimitiveBotEnvironment primitiveBotEnvironment) {
@@ -46,7 +49,7 @@ public class ModuleManager extends AbstractPluginManager implements ModuleRegist
             try {
                 if (pluginWrapper.getState().equals(PluginState.LOADED)) {
                     MbModule module = (MbModule) pluginWrapper.getPlugin();
-                    module.inject(taskScheduler, this, primitiveBotEnvironment, new RegistryBridgeImpl(commandManager));
+                    module.inject(taskScheduler, this, primitiveBotEnvironment, new RegistryBridgeImpl(commandManager, module));
 
                     moduleStates.put(module.getId(), ModuleState.PENDING_ENABLE);
 
@@ -55,6 +58,11 @@ public class ModuleManager extends AbstractPluginManager implements ModuleRegist
             } catch (Throwable e) {
                 logger.error("{} threw an exception during pre-enable", pluginWrapper.getPluginDescriptor().getPluginId(), e);
                 logger.error("Unloading {} due to exception during pre-enable.", pluginWrapper.getPluginDescriptor().getPluginId());
+                eventDispatcher.unregister(pluginWrapper.getPluginDescriptor().getPluginId());
+                commandManager.unregisterCommands(pluginWrapper.getPluginDescriptor().getPluginId());
+                if (pluginWrapper.getPlugin() instanceof MbModule module) {
+                    taskScheduler.cancelTasks(module);
+                }
                 pluginWrapper.unload();
                 failedCount.getAndIncrement();
             }
@@ -77,7 +85,7 @@ public class ModuleManager extends AbstractPluginManager implements ModuleRegist
                 if (pluginWrapper.getState().equals(PluginState.LOADED)) {
                     MbModule module = (MbModule) pluginWrapper.getPlugin();
                     module.finalizeBotEnvironment(finalizedBotEnvironment);
-                    module.listenerBridge(new ListenerBridgeImpl(finalizedBotEnvironment));
+                    module.listenerBridge(new ListenerBridgeImpl(eventDispatcher, module));
 
                     moduleStates.put(module.getId(), ModuleState.ENABLED);
 
@@ -86,6 +94,11 @@ public class ModuleManager extends AbstractPluginManager implements ModuleRegist
             } catch (Throwable e) {
                 logger.error("{} threw an exception during enable", pluginWrapper.getPluginDescriptor().getPluginId(), e);
                 logger.error("Unloading {} due to exception during enable.", pluginWrapper.getPluginDescriptor().getPluginId());
+                eventDispatcher.unregister(pluginWrapper.getPluginDescriptor().getPluginId());
+                commandManager.unregisterCommands(pluginWrapper.getPluginDescriptor().getPluginId());
+                if (pluginWrapper.getPlugin() instanceof MbModule module) {
+                    taskScheduler.cancelTasks(module);
+                }
                 pluginWrapper.unload();
                 failedCount.getAndIncrement();
             }
@@ -131,13 +144,16 @@ public class ModuleManager extends AbstractPluginManager implements ModuleRegist
                 if (pluginWrapper.getState().equals(PluginState.LOADED)) {
                     MbModule module = (MbModule) pluginWrapper.getPlugin();
 
-                    if(finalizedBotEnvironment != null) {
-                        module.getListenerBridge().getListeners().forEach(listener -> finalizedBotEnvironment.getShardManager().removeEventListener(listener));
-                    }
+                    eventDispatcher.unregister(module.getId());
 
                     moduleStates.put(module.getId(), ModuleState.DISABLED);
 
-                    module.onDisable();
+                    try {
+                        module.onDisable();
+                    } finally {
+                        // Tasks scheduled while disabling are cancelled as well, even if onDisable failed
+                        taskScheduler.cancelTasks(module);
+                    }
                 }
             } catch (Throwable e) {
                 logger.error("{} threw an exception during disable", pluginWrapper.getPluginDescriptor().getPluginId(), e);
@@ -182,7 +198,7 @@ public class ModuleManager extends AbstractPluginManager implements ModuleRegist
         try {
             if (pluginWrapper.getState().equals(PluginState.LOADED)) {
                 module.finalizeBotEnvironment(finalizedBotEnvironment);
-                module.listenerBridge(new ListenerBridgeImpl(finalizedBotEnvironment));
+                module.listenerBridge(new ListenerBridgeImpl(eventDispatcher, module));
                 module.onEnable();
             } else {
                 logger.error("Failed to enable module {}, it is not loaded.", module.getId());
@@ -191,6 +207,9 @@ public class ModuleManager extends AbstractPluginManager implements ModuleRegist
         } catch (Throwable e) {
             logger.error("{} threw an exception during enable", pluginWrapper.getPluginDescriptor().getPluginId(), e);
             logger.error("Unloading {} due to exception during enable.", pluginWrapper.getPluginDescriptor().getPluginId());
+            eventDispatcher.unregister(module.getId());
+            commandManager.unregisterCommands(module.getId());
+            taskScheduler.cancelTasks(module);
             pluginWrapper.unload();
             moduleStates.put(module.getId(), ModuleState.INVALID);
             return;
@@ -252,14 +271,19 @@ public class ModuleManager extends AbstractPluginManager implements ModuleRegist
         }
 
         try {
-            if(finalizedBotEnvironment != null) {
-                module.getListenerBridge().getListeners().forEach(listener -> finalizedBotEnvironment.getShardManager().removeEventListener(listener));
+            eventDispatcher.unregister(module.getId());
+            if(module.getListenerBridge() != null) {
                 module.getListenerBridge().getListeners().clear();
+                module.getListenerBridge().getSubscribers().clear();
             }
+            commandManager.unregisterCommands(module.getId());
             module.onDisable();
+            // Tasks scheduled while disabling are cancelled as well
+            taskScheduler.cancelTasks(module);
         } catch (Throwable e) {
             logger.error("{} threw an exception during disable", pluginWrapper.getPluginDescriptor().getPluginId(), e);
             logger.error("Unloading {} due to exception during disable.", pluginWrapper.getPluginDescriptor().getPluginId());
+            taskScheduler.cancelTasks(module);
             pluginWrapper.unload();
             moduleStates.put(module.getId(), ModuleState.INVALID);
             return;
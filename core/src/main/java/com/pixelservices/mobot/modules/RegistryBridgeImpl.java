@@ -1,23 +1,33 @@
 package com.pixelservices.mobot.modules;
 
 import com.pixelservices.mobot.api.commands.SlashCommandHandler;
+import com.pixelservices.mobot.api.components.ComponentHandler;
+import com.pixelservices.mobot.api.modules.MbModule;
 import com.pixelservices.mobot.api.modules.RegistryBridge;
 import com.pixelservices.mobot.commands.CommandManager;
 
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
 /**
  * This class serves as a bridge for registering commands and command handlers.
  * It is intended to be used by modules to register their commands and command handlers.
+ * Everything registered through the bridge is owned by its module and removed again when the module is disabled.
  */
 public class RegistryBridgeImpl implements RegistryBridge {
     private final CommandManager commandManager;
+    private final MbModule module;
 
     /**
      * Constructor for RegistryBridgeImpl.
      *
      * @param commandManager the CommandManager instance to be used for registering commands and command handlers
+     * @param module         the module owning the registered commands and handlers
      */
-    public RegistryBridgeImpl(CommandManager commandManager) {
+    public RegistryBridgeImpl(CommandManager commandManager, MbModule module) {
         this.commandManager = commandManager;
+        this.module = module;
     }
 
     /**
@@ -27,6 +37,63 @@ public class RegistryBridgeImpl implements RegistryBridge {
      */
     @Override
     public void registerCommandHandler(SlashCommandHandler slashCommandHandler) {
-        commandManager.registerCommandHandler(slashCommandHandler);
+        commandManager.registerCommandHandler(module.getId(), slashCommandHandler);
+    }
+
+    /**
+     * Drops the cached replies of a command.
+     *
+     * @param command the path of the command
+     */
+    @Override
+    public void invalidateCachedResponses(String command) {
+        commandManager.invalidateCachedResponses(command);
+    }
+
+    /**
+     * Drops the cached replies of a command in a scope.
+     *
+     * @param command the path of the command
+     * @param scopeId the id of the guild or user the replies were cached for
+     */
+    @Override
+    public void invalidateCachedResponses(String command, long scopeId) {
+        commandManager.invalidateCachedResponses(command, scopeId);
+    }
+
+    /**
+     * Registers a component handler with the specified ComponentHandler.
+     *
+     * @param componentHandler the ComponentHandler to be registered
+     */
+    @Override
+    public void registerComponentHandler(ComponentHandler componentHandler) {
+        commandManager.registerComponentHandler(module.getId(), componentHandler);
+    }
+
+    /**
+     * Registers a fixed set of autocomplete candidates for an option of a slash command.
+     *
+     * @param command    the name of the command
+     * @param option     the name of the option
+     * @param candidates the candidates
+     */
+    @Override
+    public void registerAutoComplete(String command, String option, Collection<?> candidates) {
+        commandManager.registerAutoComplete(module.getId(), command, option, candidates);
+    }
+
+    /**
+     * Registers a set of autocomplete candidates for an option of a slash command, reloaded periodically.
+     *
+     * @param command         the name of the command
+     * @param option          the name of the option
+     * @param candidates      the supplier of the candidates
+     * @param refreshInterval the time between two reloads of the candidates
+     * @param unit            the unit of the refresh interval
+     */
+    @Override
+    public void registerAutoComplete(String command, String option, Supplier<? extends Collection<?>> candidates, long refreshInterval, TimeUnit unit) {
+        commandManager.registerAutoComplete(module.getId(), command, option, candidates, refreshInterval, unit);
     }
 }
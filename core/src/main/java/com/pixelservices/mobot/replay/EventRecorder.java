@@ -0,0 +1,141 @@
+package com.pixelservices.mobot.replay;
+
+import com.pixelservices.mobot.utils.ThreadUtil;
+import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.events.RawGatewayEvent;
+import net.dv8tion.jda.api.hooks.EventListener;
+import net.dv8tion.jda.api.utils.data.DataObject;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * EventRecorder captures the dispatches received by the shards into a gateway log, which can be replayed offline
+ * by the {@link ReplayEngine}.
+ * <p>
+ * The recorder listens to {@link RawGatewayEvent}s, so raw events have to be enabled on the shard manager, and it has
+ * to be registered before the shards log in for the log to include the {@code READY} and {@code GUILD_CREATE}
+ * dispatches the caches are built from. The data of a dispatch is encoded on the shard thread, before JDA handles it,
+ * and written to the log on a thread of the recorder. Dispatches arriving while the queue of the writer is full are
+ * dropped rather than delaying the shard.
+ * </p>
+ */
+public class EventRecorder implements EventListener, Closeable {
+    private static final int QUEUE_CAPACITY = 65536;
+    private static final long FLUSH_INTERVAL_MILLIS = 1000;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+    private final Path path;
+    private final GatewayLogWriter writer;
+    private final BlockingQueue<Dispatch> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final LongAdder dropped = new LongAdder();
+    private final Thread thread;
+    private volatile boolean closed;
+    private volatile boolean failed;
+
+    /**
+     * Constructor for EventRecorder. Starts recording to the given file, replacing an existing log.
+     *
+     * @param path the path of the gateway log
+     * @throws IOException if the log could not be created
+     */
+    public EventRecorder(Path path) throws IOException {
+        this.path = path;
+        this.writer = GatewayLogWriter.create(path);
+        this.thread = ThreadUtil.newDaemonThreadFactory("EventRecorder").newThread(this::write);
+        this.thread.start();
+        logger.info("Recording gateway events to {}", path);
+    }
+
+    @Override
+    public void onEvent(@NotNull GenericEvent event) {
+        if (closed || failed || !(event instanceof RawGatewayEvent raw)) {
+            return;
+        }
+        DataObject payload = raw.getPackage().optObject("d").orElse(null);
+        if (payload == null) {
+            return;
+        }
+
+        Dispatch dispatch = new Dispatch(System.nanoTime(), raw.getJDA().getShardInfo().getShardId(), raw.getType(), raw.getResponseNumber(), payload.toETF());
+        if (!queue.offer(dispatch)) {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * Returns the number of dispatches dropped because the writer could not keep up.
+     *
+     * @return the number of dropped dispatches
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Stops recording, writing the queued dispatches and closing the log.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            logger.error("Failed to close the gateway log {}", path, e);
+        }
+        logger.info("Recorded {} gateway events to {}, {} dropped.", writer.getWritten(), path, getDropped());
+    }
+
+    private void write() {
+        long lastFlush = System.nanoTime();
+        boolean unflushed = false;
+        while (true) {
+            Dispatch dispatch;
+            try {
+                dispatch = queue.poll(FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                dispatch = null;
+            }
+            if (dispatch == null && closed) {
+                return;
+            }
+
+            try {
+                if (dispatch != null) {
+                    writer.write(dispatch.timeNanos, dispatch.shard, dispatch.type, dispatch.sequence, dispatch.data);
+                    unflushed = true;
+                }
+                // Flush regularly, so that a log stays readable up to the last second if the bot is killed
+                if (unflushed && System.nanoTime() - lastFlush >= TimeUnit.MILLISECONDS.toNanos(FLUSH_INTERVAL_MILLIS)) {
+                    writer.flush();
+                    lastFlush = System.nanoTime();
+                    unflushed = false;
+                }
+            } catch (IOException e) {
+                logger.error("Failed to write to the gateway log {}, recording stopped.", path, e);
+                failed = true;
+                queue.clear();
+                return;
+            }
+        }
+    }
+
+    private record Dispatch(long timeNanos, int shard, String type, long sequence, byte[] data) {
+    }
+}
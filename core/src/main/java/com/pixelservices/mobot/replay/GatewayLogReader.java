@@ -0,0 +1,141 @@
+package com.pixelservices.mobot.replay;
+
+import net.dv8tion.jda.api.utils.data.DataObject;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads the dispatches of a gateway log written by a {@link GatewayLogWriter}.
+ * <p>
+ * A log cut off in the middle of a dispatch, for example because the bot was killed while recording,
+ * ends with the last complete dispatch.
+ * </p>
+ */
+public final class GatewayLogReader implements GatewaySource {
+    private final DataInputStream input;
+    private final List<String> types = new ArrayList<>();
+    private final int shardsTotal;
+    private long offsetNanos;
+    private boolean exhausted;
+
+    /**
+     * Constructor for GatewayLogReader.
+     *
+     * @param input       the stream the log is read from
+     * @param shardsTotal the number of shards the dispatches are spread over
+     * @throws IOException if the stream is not a gateway log
+     */
+    public GatewayLogReader(InputStream input, int shardsTotal) throws IOException {
+        this.input = new DataInputStream(new BufferedInputStream(new GZIPInputStream(input, 1 << 16), 1 << 16));
+        this.shardsTotal = Math.max(1, shardsTotal);
+        if (this.input.readInt() != GatewayLogWriter.MAGIC) {
+            throw new IOException("Not a gateway log.");
+        }
+        int version = this.input.readUnsignedByte();
+        if (version != GatewayLogWriter.VERSION) {
+            throw new IOException("Unsupported gateway log version: " + version);
+        }
+    }
+
+    /**
+     * Opens a gateway log. The log is scanned once up front to find the number of shards it was recorded with.
+     *
+     * @param path the path of the log
+     * @return the reader of the log
+     * @throws IOException if the file could not be read or is not a gateway log
+     */
+    public static GatewayLogReader open(Path path) throws IOException {
+        int shards = 1;
+        try (GatewayLogReader scanner = new GatewayLogReader(Files.newInputStream(path), 1)) {
+            int shard;
+            while ((shard = scanner.skip()) >= 0) {
+                shards = Math.max(shards, shard + 1);
+            }
+        }
+        return new GatewayLogReader(Files.newInputStream(path), shards);
+    }
+
+    @Override
+    public GatewayRecord next() throws IOException {
+        if (exhausted) {
+            return null;
+        }
+        try {
+            long offset = readOffset();
+            int shard = (int) readVarLong();
+            String type = readType();
+            long sequence = readVarLong();
+            byte[] data = new byte[(int) readVarLong()];
+            input.readFully(data);
+            return new GatewayRecord(offset, shard, type, sequence, DataObject.fromETF(data));
+        } catch (EOFException e) {
+            exhausted = true;
+            return null;
+        }
+    }
+
+    @Override
+    public int getShardsTotal() {
+        return shardsTotal;
+    }
+
+    @Override
+    public boolean isTimed() {
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+
+    private int skip() throws IOException {
+        try {
+            readOffset();
+            int shard = (int) readVarLong();
+            readType();
+            readVarLong();
+            input.skipNBytes(readVarLong());
+            return shard;
+        } catch (EOFException e) {
+            return -1;
+        }
+    }
+
+    private long readOffset() throws IOException {
+        offsetNanos += TimeUnit.MICROSECONDS.toNanos(readVarLong());
+        return offsetNanos;
+    }
+
+    private String readType() throws IOException {
+        int index = (int) readVarLong();
+        if (index == types.size()) {
+            types.add(input.readUTF());
+        } else if (index > types.size()) {
+            throw new IOException("Corrupted gateway log, unknown dispatch type " + index);
+        }
+        return types.get(index);
+    }
+
+    private long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = input.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Corrupted gateway log, variable length integer too long");
+    }
+}
@@ -0,0 +1,138 @@
+package com.pixelservices.mobot.replay;
+
+import net.dv8tion.jda.api.utils.data.DataObject;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes gateway dispatches to a gateway log.
+ * <p>
+ * A gateway log is a gzip compressed stream starting with {@link #MAGIC} and {@link #VERSION}, followed by one entry
+ * per dispatch: the microseconds since the previous dispatch, the shard, the type, the sequence number and the length
+ * of the data, all as variable length integers, and the data encoded as ETF. The type is written as an index into the
+ * types seen so far, a new type being introduced by the next free index followed by its name, so that the type of a
+ * dispatch usually takes a single byte.
+ * </p>
+ */
+public final class GatewayLogWriter implements Closeable {
+    static final int MAGIC = 0x4D42474C;
+    static final int VERSION = 1;
+
+    private final DataOutputStream output;
+    private final Map<String, Integer> types = new HashMap<>();
+    private long lastTimeNanos = Long.MIN_VALUE;
+    private long written;
+
+    /**
+     * Constructor for GatewayLogWriter.
+     *
+     * @param output the stream the log is written to
+     * @throws IOException if the header could not be written
+     */
+    public GatewayLogWriter(OutputStream output) throws IOException {
+        this.output = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(output, 1 << 16, true), 1 << 16));
+        this.output.writeInt(MAGIC);
+        this.output.writeByte(VERSION);
+    }
+
+    /**
+     * Creates a gateway log, replacing an existing file.
+     *
+     * @param path the path of the log
+     * @return the writer of the log
+     * @throws IOException if the file could not be created
+     */
+    public static GatewayLogWriter create(Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        return new GatewayLogWriter(Files.newOutputStream(path));
+    }
+
+    /**
+     * Appends a dispatch to the log.
+     *
+     * @param timeNanos the time the dispatch was received at, as returned by {@link System#nanoTime()}
+     * @param shard     the id of the shard that received the dispatch
+     * @param type      the type of the dispatch
+     * @param sequence  the sequence number of the dispatch
+     * @param payload   the data of the dispatch
+     * @throws IOException if the dispatch could not be written
+     */
+    public void write(long timeNanos, int shard, String type, long sequence, DataObject payload) throws IOException {
+        write(timeNanos, shard, type, sequence, payload.toETF());
+    }
+
+    /**
+     * Appends a dispatch whose data is already encoded as ETF to the log.
+     *
+     * @param timeNanos the time the dispatch was received at, as returned by {@link System#nanoTime()}
+     * @param shard     the id of the shard that received the dispatch
+     * @param type      the type of the dispatch
+     * @param sequence  the sequence number of the dispatch
+     * @param data      the data of the dispatch, encoded as ETF
+     * @throws IOException if the dispatch could not be written
+     */
+    public void write(long timeNanos, int shard, String type, long sequence, byte[] data) throws IOException {
+        long deltaMicros = lastTimeNanos == Long.MIN_VALUE ? 0 : TimeUnit.NANOSECONDS.toMicros(Math.max(0, timeNanos - lastTimeNanos));
+        // Only advance by whole microseconds, so rounding errors do not add up over a long recording
+        lastTimeNanos = lastTimeNanos == Long.MIN_VALUE ? timeNanos : lastTimeNanos + TimeUnit.MICROSECONDS.toNanos(deltaMicros);
+
+        writeVarLong(deltaMicros);
+        writeVarLong(shard);
+        Integer index = types.get(type);
+        if (index == null) {
+            writeVarLong(types.size());
+            output.writeUTF(type);
+            types.put(type, types.size());
+        } else {
+            writeVarLong(index);
+        }
+        writeVarLong(sequence);
+        writeVarLong(data.length);
+        output.write(data);
+        written++;
+    }
+
+    /**
+     * Returns the number of dispatches written to the log.
+     *
+     * @return the number of dispatches
+     */
+    public long getWritten() {
+        return written;
+    }
+
+    /**
+     * Writes the buffered dispatches to the underlying stream.
+     *
+     * @throws IOException if the dispatches could not be written
+     */
+    public void flush() throws IOException {
+        output.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        output.close();
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            output.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        output.writeByte((int) value);
+    }
+}
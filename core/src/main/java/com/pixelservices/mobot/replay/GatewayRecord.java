@@ -0,0 +1,28 @@
+package com.pixelservices.mobot.replay;
+
+import net.dv8tion.jda.api.utils.data.DataObject;
+
+/**
+ * A dispatch received from the Discord gateway, as stored in a gateway log.
+ *
+ * @param offsetNanos the time the dispatch was received at, relative to the first record of the log
+ * @param shard       the id of the shard that received the dispatch
+ * @param type        the type of the dispatch, such as {@code MESSAGE_CREATE}
+ * @param sequence    the sequence number of the dispatch on its shard
+ * @param payload     the data of the dispatch
+ */
+public record GatewayRecord(long offsetNanos, int shard, String type, long sequence, DataObject payload) {
+
+    /**
+     * Wraps the record in a gateway payload, as it is received from the gateway.
+     *
+     * @return the payload with the opcode, type, sequence number and data of the dispatch
+     */
+    public DataObject toGatewayPayload() {
+        return DataObject.empty()
+                .put("op", 0)
+                .put("t", type)
+                .put("s", sequence)
+                .put("d", payload);
+    }
+}
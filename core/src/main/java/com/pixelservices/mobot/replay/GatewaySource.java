@@ -0,0 +1,33 @@
+package com.pixelservices.mobot.replay;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * A stream of gateway dispatches replayed by the {@link ReplayEngine}.
+ */
+public interface GatewaySource extends Closeable {
+
+    /**
+     * Returns the next dispatch.
+     *
+     * @return the next dispatch, or {@code null} if the source is exhausted
+     * @throws IOException if the dispatch could not be read
+     */
+    GatewayRecord next() throws IOException;
+
+    /**
+     * Returns the number of shards the dispatches are spread over.
+     *
+     * @return the number of shards, at least {@code 1}
+     */
+    int getShardsTotal();
+
+    /**
+     * Checks whether the offsets of the dispatches reflect the time they were received at,
+     * so that they can be replayed at their original pace.
+     *
+     * @return {@code true} if the dispatches were recorded
+     */
+    boolean isTimed();
+}
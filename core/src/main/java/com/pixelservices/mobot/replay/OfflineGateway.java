@@ -0,0 +1,189 @@
+package com.pixelservices.mobot.replay;
+
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.sharding.DefaultShardManagerBuilder;
+import net.dv8tion.jda.api.sharding.ShardManager;
+import net.dv8tion.jda.api.utils.ChunkingFilter;
+import net.dv8tion.jda.api.utils.SessionControllerAdapter;
+import net.dv8tion.jda.api.utils.TimeUtil;
+import net.dv8tion.jda.api.utils.data.DataObject;
+import net.dv8tion.jda.internal.JDAImpl;
+import net.dv8tion.jda.internal.requests.WebSocketClient;
+import okhttp3.OkHttpClient;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * OfflineGateway runs the shards of a {@link ShardManager} without a connection to Discord.
+ * <p>
+ * The shards log in against an {@link OfflineRestInterceptor} instead of the Discord API, and their gateway sessions
+ * are never started. Dispatches are then fed into the gateway client of a shard as if they had been received from the
+ * gateway, so that JDA builds its caches and events exactly as it does online and every listener of the shard manager
+ * receives them.
+ * </p>
+ * <p>
+ * Feeding the gateway client relies on JDA internals, {@link WebSocketClient#handleEvent(DataObject)} and the flag
+ * marking a session as starting, and may have to be adapted when JDA is updated.
+ * </p>
+ * <p>
+ * Interactions are given a new id before they are dispatched, as JDA considers an interaction created more than
+ * 15 minutes ago, which a recorded interaction usually is, to be expired and refuses to answer it.
+ * </p>
+ */
+public final class OfflineGateway {
+    /**
+     * The id of the bot user the shards log in as.
+     */
+    public static final long SELF_USER_ID = 1000000000000000001L;
+
+    private static final String OFFLINE_TOKEN = "offline";
+    private static final MethodHandle HANDLE_EVENT;
+    private static final MethodHandle SET_INITIATING;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(WebSocketClient.class, MethodHandles.lookup());
+            HANDLE_EVENT = lookup.findVirtual(WebSocketClient.class, "handleEvent", MethodType.methodType(void.class, DataObject.class));
+            SET_INITIATING = lookup.findSetter(WebSocketClient.class, "initiating", boolean.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final OfflineRestInterceptor rest = new OfflineRestInterceptor(selfUser());
+    private final AtomicLong interactionIds = new AtomicLong();
+    private WebSocketClient[] clients;
+
+    /**
+     * Configures a builder to create offline shards. The token of the builder is replaced, so that the real token
+     * is never used while offline.
+     *
+     * @param builder     the builder of the shard manager
+     * @param shardsTotal the number of shards to create
+     * @return the builder
+     */
+    public DefaultShardManagerBuilder configure(DefaultShardManagerBuilder builder, int shardsTotal) {
+        return builder.setToken(OFFLINE_TOKEN)
+                .setHttpClient(new OkHttpClient.Builder().addInterceptor(rest).build())
+                .setSessionController(new OfflineSessionController())
+                .setShardsTotal(shardsTotal)
+                // Member chunks would be requested through the gateway, and never arrive
+                .setChunkingFilter(ChunkingFilter.NONE);
+    }
+
+    /**
+     * Waits for the shards of an offline shard manager to log in, and prepares them to receive dispatches.
+     *
+     * @param shardManager the shard manager built from a builder passed to {@link #configure}
+     * @param timeout      the maximum time to wait
+     * @param unit         the unit of the timeout
+     * @throws TimeoutException     if the shards did not log in in time
+     * @throws InterruptedException if the thread was interrupted while waiting
+     */
+    public void attach(ShardManager shardManager, long timeout, TimeUnit unit) throws TimeoutException, InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        WebSocketClient[] attached = new WebSocketClient[shardManager.getShardsTotal()];
+        for (int shard = 0; shard < attached.length; shard++) {
+            while ((attached[shard] = clientOf(shardManager.getShardById(shard))) == null) {
+                if (System.nanoTime() > deadline) {
+                    throw new TimeoutException("Shard " + shard + " did not log in.");
+                }
+                Thread.sleep(10);
+            }
+            try {
+                // Set while connecting online, without it the shard never becomes ready
+                SET_INITIATING.invokeExact(attached[shard], true);
+            } catch (Throwable e) {
+                throw new IllegalStateException("Unable to prepare shard " + shard + " for offline dispatches.", e);
+            }
+        }
+        this.clients = attached;
+    }
+
+    /**
+     * Returns the number of attached shards.
+     *
+     * @return the number of shards
+     */
+    public int getShardsTotal() {
+        return clients == null ? 0 : clients.length;
+    }
+
+    /**
+     * Feeds a dispatch into its shard, returning once the shard and its listeners handled it.
+     * Dispatches of shards beyond the attached shards are fed into the shard with the same remainder.
+     *
+     * @param record the dispatch
+     */
+    public void dispatch(GatewayRecord record) {
+        if (record.type().equals("INTERACTION_CREATE")) {
+            // The lower 22 bits of a snowflake tell apart the ids created in the same millisecond
+            long increment = interactionIds.getAndIncrement() & 0x3FFFFF;
+            record.payload().put("id", Long.toUnsignedString(TimeUtil.getDiscordTimestamp(System.currentTimeMillis()) | increment));
+        }
+        WebSocketClient client = clients[Math.floorMod(record.shard(), clients.length)];
+        try {
+            HANDLE_EVENT.invokeExact(client, record.toGatewayPayload());
+        } catch (Throwable e) {
+            throw new IllegalStateException("Unable to dispatch " + record.type() + " offline.", e);
+        }
+    }
+
+    /**
+     * Returns the number of REST requests answered offline.
+     *
+     * @return the number of requests
+     */
+    public long getRestRequests() {
+        return rest.getRequests();
+    }
+
+    /**
+     * Returns the number of REST reads answered with a 404, because they have no offline counterpart.
+     *
+     * @return the number of unknown reads
+     */
+    public long getUnknownRestRequests() {
+        return rest.getUnknown();
+    }
+
+    /**
+     * Creates the data of the bot user the shards log in as.
+     *
+     * @return the data of the bot user
+     */
+    static DataObject selfUser() {
+        return DataObject.empty()
+                .put("id", Long.toUnsignedString(SELF_USER_ID))
+                .put("username", "MoBot")
+                .put("discriminator", "0000")
+                .put("avatar", null)
+                .put("bot", true)
+                .put("verified", true)
+                .put("mfa_enabled", false);
+    }
+
+    private static WebSocketClient clientOf(JDA shard) {
+        return shard instanceof JDAImpl impl ? impl.getClient() : null;
+    }
+
+    /**
+     * A session controller that never starts the gateway sessions of the shards.
+     */
+    private static final class OfflineSessionController extends SessionControllerAdapter {
+
+        @Override
+        public void appendSession(@NotNull SessionConnectNode node) {
+        }
+
+        @Override
+        public void removeSession(@NotNull SessionConnectNode node) {
+        }
+    }
+}
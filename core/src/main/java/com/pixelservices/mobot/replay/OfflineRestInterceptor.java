@@ -0,0 +1,150 @@
+package com.pixelservices.mobot.replay;
+
+import net.dv8tion.jda.api.utils.TimeUtil;
+import net.dv8tion.jda.api.utils.data.DataArray;
+import net.dv8tion.jda.api.utils.data.DataObject;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.OffsetDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Answers the REST requests of JDA without a network, standing in for the Discord API while replaying.
+ * <p>
+ * The requests made while logging in are answered with the bot user and a single shard, pushed commands are accepted,
+ * and sent or edited messages are echoed back as messages of the bot. Other requests are acknowledged without a body,
+ * and other reads fail with a 404, so that code fetching entities sees them as missing.
+ * </p>
+ */
+final class OfflineRestInterceptor implements Interceptor {
+    private static final MediaType JSON = MediaType.get("application/json");
+    private static final Pattern CHANNEL_MESSAGES = Pattern.compile("^channels/(\\d+)/messages(?:/\\d+)?$");
+    private static final Pattern WEBHOOK_MESSAGES = Pattern.compile("^webhooks/\\d+/[^/]+(?:/messages/[^/]+)?$");
+
+    private final DataObject selfUser;
+    private final AtomicLong nextId = new AtomicLong(TimeUtil.getDiscordTimestamp(System.currentTimeMillis()));
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder unknown = new LongAdder();
+
+    OfflineRestInterceptor(DataObject selfUser) {
+        this.selfUser = selfUser;
+    }
+
+    /**
+     * Returns the number of requests answered.
+     *
+     * @return the number of requests
+     */
+    long getRequests() {
+        return requests.sum();
+    }
+
+    /**
+     * Returns the number of reads answered with a 404, because they have no offline counterpart.
+     *
+     * @return the number of unknown reads
+     */
+    long getUnknown() {
+        return unknown.sum();
+    }
+
+    @NotNull
+    @Override
+    public Response intercept(@NotNull Chain chain) {
+        Request request = chain.request();
+        requests.increment();
+
+        String path = request.url().encodedPath().replaceFirst("^/api/v\\d+/", "");
+        String method = request.method();
+        if (method.equals("GET")) {
+            return switch (path) {
+                case "gateway" -> respond(request, 200, DataObject.empty().put("url", "wss://offline.invalid"));
+                case "gateway/bot" -> respond(request, 200, DataObject.empty()
+                        .put("url", "wss://offline.invalid")
+                        .put("shards", 1)
+                        .put("session_start_limit", DataObject.empty()
+                                .put("total", 1000)
+                                .put("remaining", 1000)
+                                .put("reset_after", 0)
+                                .put("max_concurrency", 1)));
+                case "users/@me" -> respond(request, 200, selfUser);
+                case "oauth2/applications/@me" -> respond(request, 200, DataObject.empty()
+                        .put("id", selfUser.getString("id"))
+                        .put("name", selfUser.getString("username"))
+                        .put("description", "")
+                        .put("bot_public", false)
+                        .put("bot_require_code_grant", false)
+                        .put("flags", 0));
+                default -> {
+                    if (path.endsWith("/commands")) {
+                        yield respond(request, 200, DataArray.empty().toString());
+                    }
+                    unknown.increment();
+                    yield respond(request, 404, DataObject.empty().put("message", "Unknown offline route").put("code", 0));
+                }
+            };
+        }
+
+        if (path.endsWith("/commands")) {
+            return respond(request, 200, DataArray.empty().toString());
+        }
+        if (method.equals("POST") || method.equals("PATCH")) {
+            Matcher matcher = CHANNEL_MESSAGES.matcher(path);
+            if (matcher.matches()) {
+                return respond(request, 200, message(matcher.group(1)));
+            }
+            if (WEBHOOK_MESSAGES.matcher(path).matches()) {
+                return respond(request, 200, message("0"));
+            }
+        }
+        return new Response.Builder()
+                .request(request)
+                .protocol(Protocol.HTTP_1_1)
+                .code(204)
+                .message("No Content")
+                .body(ResponseBody.create("", null))
+                .build();
+    }
+
+    private DataObject message(String channelId) {
+        return DataObject.empty()
+                .put("id", Long.toUnsignedString(nextId.incrementAndGet()))
+                .put("channel_id", channelId)
+                .put("author", selfUser)
+                .put("content", "")
+                .put("timestamp", OffsetDateTime.now().toString())
+                .put("edited_timestamp", null)
+                .put("tts", false)
+                .put("mention_everyone", false)
+                .put("mentions", DataArray.empty())
+                .put("mention_roles", DataArray.empty())
+                .put("attachments", DataArray.empty())
+                .put("embeds", DataArray.empty())
+                .put("components", DataArray.empty())
+                .put("pinned", false)
+                .put("type", 0);
+    }
+
+    private Response respond(Request request, int code, DataObject body) {
+        return respond(request, code, body.toString());
+    }
+
+    private Response respond(Request request, int code, String body) {
+        return new Response.Builder()
+                .request(request)
+                .protocol(Protocol.HTTP_1_1)
+                .code(code)
+                .message(code == 200 ? "OK" : "Not Found")
+                .body(ResponseBody.create(body, JSON))
+                .build();
+    }
+}
@@ -0,0 +1,197 @@
+package com.pixelservices.mobot.replay;
+
+import com.pixelservices.mobot.utils.LatencyHistogram;
+import com.pixelservices.mobot.utils.ThreadUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * ReplayEngine feeds the dispatches of a {@link GatewaySource} into the shards of an {@link OfflineGateway} and
+ * measures how the bot copes with them.
+ * <p>
+ * Dispatches are read on a separate thread and fed into their shards one after the other on the calling thread, like
+ * a gateway connection does. They are replayed at a fixed rate, at the pace they were recorded at, or as fast as the
+ * bot handles them. The latency of a dispatch is measured from the moment it was due, so that a bot falling behind
+ * the rate shows up in the latencies instead of silently lowering the rate. Allocations are summed over the threads of
+ * the bot, excluding the thread reading the dispatches.
+ * </p>
+ */
+public class ReplayEngine {
+    /**
+     * Replays the dispatches at the pace they were recorded at, or as fast as possible if they were not recorded.
+     */
+    public static final double RECORDED_RATE = -1;
+
+    /**
+     * Replays the dispatches as fast as possible.
+     */
+    public static final double UNLIMITED_RATE = 0;
+
+    private static final int READ_AHEAD = 4096;
+    private static final long PROGRESS_INTERVAL_NANOS = 5_000_000_000L;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+    private final OfflineGateway gateway;
+    private final GatewaySource source;
+    private final double rate;
+
+    /**
+     * Constructor for ReplayEngine.
+     *
+     * @param gateway the gateway whose shards receive the dispatches, already attached to the shard manager
+     * @param source  the dispatches to replay
+     * @param rate    the dispatches per second, {@link #RECORDED_RATE} or {@link #UNLIMITED_RATE}
+     */
+    public ReplayEngine(OfflineGateway gateway, GatewaySource source, double rate) {
+        this.gateway = gateway;
+        this.source = source;
+        this.rate = rate;
+    }
+
+    /**
+     * Replays the dispatches of the source, returning once all of them were handled.
+     *
+     * @return the results of the replay
+     * @throws IOException if the dispatches could not be read
+     */
+    public ReplayReport run() throws IOException {
+        Reader reader = new Reader();
+        Thread readerThread = ThreadUtil.newDaemonThreadFactory("ReplayReader").newThread(reader);
+        readerThread.start();
+
+        boolean recordedPace = rate < 0 && source.isTimed();
+        LatencyHistogram latencies = new LatencyHistogram();
+        Map<String, Long> types = new TreeMap<>();
+        long restRequests = gateway.getRestRequests();
+        Map<Long, Long> allocations = allocatedBytes(readerThread.getId(), null);
+        long dispatched = 0;
+        long failed = 0;
+        long firstOffset = -1;
+
+        long start = System.nanoTime();
+        long nextProgress = start + PROGRESS_INTERVAL_NANOS;
+        GatewayRecord record;
+        while ((record = reader.take()) != null) {
+            long due;
+            if (rate > 0) {
+                due = start + (long) (dispatched * 1_000_000_000.0 / rate);
+            } else if (recordedPace) {
+                if (firstOffset < 0) {
+                    firstOffset = record.offsetNanos();
+                }
+                due = start + record.offsetNanos() - firstOffset;
+            } else {
+                due = System.nanoTime();
+            }
+            long wait;
+            while ((wait = due - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            try {
+                gateway.dispatch(record);
+            } catch (IllegalStateException e) {
+                failed++;
+                logger.warn("Unable to replay {}: {}", record.type(), e.getMessage());
+            }
+            long now = System.nanoTime();
+            latencies.record(now - due);
+            types.merge(record.type(), 1L, Long::sum);
+            dispatched++;
+
+            if (now >= nextProgress) {
+                logger.info("Replayed {} dispatches...", dispatched);
+                nextProgress = now + PROGRESS_INTERVAL_NANOS;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        long allocated = -1;
+        if (allocations != null) {
+            Map<Long, Long> after = allocatedBytes(readerThread.getId(), allocations);
+            allocated = after == null ? -1 : after.values().stream().mapToLong(Long::longValue).sum();
+        }
+
+        if (reader.error != null) {
+            throw reader.error;
+        }
+        return new ReplayReport(dispatched, failed, elapsed, latencies, allocated, gateway.getRestRequests() - restRequests, types);
+    }
+
+    /**
+     * Returns the bytes allocated by each live thread, except the given one.
+     *
+     * @param excludedThread the id of the thread to leave out
+     * @param baseline       the bytes allocated by each thread earlier, subtracted from the current values, or {@code null}
+     * @return the allocated bytes by thread id, or {@code null} if the runtime does not measure allocations
+     */
+    private static Map<Long, Long> allocatedBytes(long excludedThread, Map<Long, Long> baseline) {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (!(threadBean instanceof com.sun.management.ThreadMXBean bean) || !bean.isThreadAllocatedMemorySupported()) {
+            return null;
+        }
+        if (!bean.isThreadAllocatedMemoryEnabled()) {
+            bean.setThreadAllocatedMemoryEnabled(true);
+        }
+
+        long[] ids = bean.getAllThreadIds();
+        long[] bytes = bean.getThreadAllocatedBytes(ids);
+        Map<Long, Long> allocations = new HashMap<>();
+        for (int i = 0; i < ids.length; i++) {
+            // Threads that terminated in the meantime report -1
+            if (ids[i] != excludedThread && bytes[i] >= 0) {
+                allocations.put(ids[i], bytes[i] - (baseline == null ? 0 : baseline.getOrDefault(ids[i], 0L)));
+            }
+        }
+        return allocations;
+    }
+
+    /**
+     * Reads the dispatches ahead of the replay, so that reading and decoding them is not measured.
+     */
+    private final class Reader implements Runnable {
+        private final BlockingQueue<GatewayRecord> queue = new ArrayBlockingQueue<>(READ_AHEAD);
+        private final GatewayRecord end = new GatewayRecord(0, 0, "", 0, null);
+        private volatile IOException error;
+
+        @Override
+        public void run() {
+            try {
+                GatewayRecord record;
+                while ((record = source.next()) != null) {
+                    queue.put(record);
+                }
+            } catch (IOException e) {
+                error = e;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                try {
+                    queue.put(end);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        GatewayRecord take() {
+            try {
+                GatewayRecord record = queue.take();
+                return record == end ? null : record;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.pixelservices.mobot.replay;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The settings of a replay, given on the command line.
+ * <pre>
+ * --replay &lt;log|synthetic&gt;  the gateway log to replay, or synthetic to generate the dispatches
+ * --replay-rate &lt;n&gt;         dispatches per second, 0 for as fast as possible, the recorded pace by default
+ * --replay-shards &lt;n&gt;       the number of shards of a synthetic replay
+ * --replay-guilds &lt;n&gt;       the number of guilds of a synthetic replay
+ * --replay-events &lt;n&gt;       the number of messages and interactions of a synthetic replay
+ * --replay-commands &lt;share&gt; the share of the events of a synthetic replay that are slash commands
+ * </pre>
+ *
+ * @param source       the path of the gateway log, or {@link #SYNTHETIC}
+ * @param rate         the dispatches per second, {@link ReplayEngine#RECORDED_RATE} or {@link ReplayEngine#UNLIMITED_RATE}
+ * @param shards       the number of shards of a synthetic replay
+ * @param guilds       the number of guilds of a synthetic replay
+ * @param events       the number of messages and interactions of a synthetic replay
+ * @param commandShare the share of the events of a synthetic replay that are slash command interactions
+ */
+public record ReplayOptions(String source, double rate, int shards, int guilds, long events, double commandShare) {
+    /**
+     * The source of a replay generating its dispatches with a {@link SyntheticGateway}.
+     */
+    public static final String SYNTHETIC = "synthetic";
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplayOptions.class);
+    private static final int DEFAULT_SHARDS = 1;
+    private static final int DEFAULT_GUILDS = 100;
+    private static final long DEFAULT_EVENTS = 100_000;
+    private static final double DEFAULT_COMMAND_SHARE = 0.1;
+
+    /**
+     * Reads the settings of a replay from the command line arguments.
+     *
+     * @param args the command line arguments
+     * @return the settings, or {@code null} if no replay was requested
+     */
+    public static ReplayOptions parse(String[] args) {
+        String source = null;
+        double rate = ReplayEngine.RECORDED_RATE;
+        int shards = DEFAULT_SHARDS;
+        int guilds = DEFAULT_GUILDS;
+        long events = DEFAULT_EVENTS;
+        double commandShare = DEFAULT_COMMAND_SHARE;
+
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length && !args[i + 1].startsWith("--") ? args[i + 1] : null;
+            switch (args[i]) {
+                case "--replay" -> source = value == null ? SYNTHETIC : value;
+                case "--replay-rate" -> rate = Math.max(0, parse(args[i], value, rate));
+                case "--replay-shards" -> shards = (int) Math.max(1, parse(args[i], value, shards));
+                case "--replay-guilds" -> guilds = (int) Math.max(1, parse(args[i], value, guilds));
+                case "--replay-events" -> events = (long) Math.max(0, parse(args[i], value, events));
+                case "--replay-commands" -> commandShare = Math.min(1, Math.max(0, parse(args[i], value, commandShare)));
+                default -> {
+                    continue;
+                }
+            }
+            if (value != null) {
+                i++;
+            }
+        }
+        return source == null ? null : new ReplayOptions(source, rate, shards, guilds, events, commandShare);
+    }
+
+    /**
+     * Checks whether the dispatches are generated rather than read from a gateway log.
+     *
+     * @return {@code true} if the replay is synthetic
+     */
+    public boolean isSynthetic() {
+        return source.equalsIgnoreCase(SYNTHETIC);
+    }
+
+    private static double parse(String option, String value, double fallback) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NullPointerException | NumberFormatException e) {
+            logger.warn("Invalid {}: {}. Falling back to {}.", option, value, fallback);
+            return fallback;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.pixelservices.mobot.replay;
+
+import com.pixelservices.mobot.utils.LatencyHistogram;
+import org.slf4j.Logger;
+
+import java.util.Map;
+
+/**
+ * The results of a replay.
+ *
+ * @param dispatched      the number of dispatches replayed
+ * @param failed          the number of dispatches that could not be fed into their shard
+ * @param elapsedNanos    the time the replay took
+ * @param latencies       the time from the moment a dispatch was due until its shard and listeners handled it
+ * @param allocatedBytes  the bytes allocated by the threads of the bot during the replay, or {@code -1} if unknown
+ * @param restRequests    the number of REST requests answered offline during the replay
+ * @param dispatchedTypes the number of dispatches by type
+ */
+public record ReplayReport(long dispatched, long failed, long elapsedNanos, LatencyHistogram latencies, long allocatedBytes,
+                           long restRequests, Map<String, Long> dispatchedTypes) {
+
+    /**
+     * Returns the number of dispatches replayed per second.
+     *
+     * @return the throughput of the replay
+     */
+    public double getThroughput() {
+        return elapsedNanos == 0 ? 0 : dispatched * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    /**
+     * Logs the results.
+     *
+     * @param logger the logger
+     */
+    public void log(Logger logger) {
+        logger.info("Replayed {} dispatches in {} ({} failed), {} dispatches/s.", dispatched, formatNanos(elapsedNanos), failed, String.format("%.0f", getThroughput()));
+        dispatchedTypes.forEach((type, count) -> logger.info(" - {}: {}", type, count));
+        logger.info("Dispatch latency: p50 {}, p90 {}, p99 {}, p999 {}, max {}",
+                formatNanos(latencies.getValueAtPercentile(50)),
+                formatNanos(latencies.getValueAtPercentile(90)),
+                formatNanos(latencies.getValueAtPercentile(99)),
+                formatNanos(latencies.getValueAtPercentile(99.9)),
+                formatNanos(latencies.getMax()));
+        if (allocatedBytes < 0) {
+            logger.info("Allocation rate: not supported by this Java runtime.");
+        } else {
+            double seconds = Math.max(elapsedNanos, 1) / 1_000_000_000.0;
+            logger.info("Allocation rate: {} MB/s, {} MB in total, {} bytes per dispatch.",
+                    String.format("%.1f", allocatedBytes / 1_048_576.0 / seconds),
+                    String.format("%.1f", allocatedBytes / 1_048_576.0),
+                    dispatched == 0 ? 0 : allocatedBytes / dispatched);
+        }
+        logger.info("REST requests answered offline: {}", restRequests);
+    }
+
+    private static String formatNanos(long nanos) {
+        return String.format("%.3fms", nanos / 1_000_000.0);
+    }
+}
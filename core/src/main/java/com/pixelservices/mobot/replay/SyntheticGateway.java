@@ -0,0 +1,257 @@
+package com.pixelservices.mobot.replay;
+
+import net.dv8tion.jda.api.utils.TimeUtil;
+import net.dv8tion.jda.api.utils.data.DataArray;
+import net.dv8tion.jda.api.utils.data.DataObject;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * SyntheticGateway generates the dispatches of a bot in a number of guilds, for replaying without a recording.
+ * <p>
+ * Every shard is first sent a {@code READY} and a {@code GUILD_CREATE} for each of its guilds, each guild with a few
+ * text channels. Then messages by random users in random channels are generated, a share of them replaced by slash
+ * command interactions for the given commands, invoked without options. The dispatches are generated from a fixed
+ * seed, so that two runs with the same settings replay the same dispatches.
+ * </p>
+ */
+public final class SyntheticGateway implements GatewaySource {
+    private static final int CHANNELS_PER_GUILD = 5;
+    private static final int USERS = 1000;
+    private static final long SEED = 0x4D6F426F74L;
+
+    private final int shardsTotal;
+    private final long events;
+    private final double commandShare;
+    private final List<String> commands;
+    private final SplittableRandom random = new SplittableRandom(SEED);
+    private final long baseId = TimeUtil.getDiscordTimestamp(System.currentTimeMillis() - 86_400_000L);
+    private final long[] guilds;
+    private final long[] sequences;
+    private final String timestamp = OffsetDateTime.now().toString();
+    private int setupIndex;
+    private long generated;
+    private long nextId;
+
+    /**
+     * Constructor for SyntheticGateway.
+     *
+     * @param shardsTotal  the number of shards
+     * @param guilds       the number of guilds, spread over the shards
+     * @param events       the number of messages and interactions to generate after the guilds were created
+     * @param commandShare the share of the events that are slash command interactions, between {@code 0} and {@code 1}
+     * @param commands     the paths of the commands to invoke, such as {@code "config set"}
+     */
+    public SyntheticGateway(int shardsTotal, int guilds, long events, double commandShare, Collection<String> commands) {
+        this.shardsTotal = Math.max(1, shardsTotal);
+        this.events = Math.max(0, events);
+        this.commands = List.copyOf(commands);
+        this.commandShare = this.commands.isEmpty() ? 0 : Math.min(Math.max(commandShare, 0), 1);
+        this.guilds = new long[Math.max(1, guilds)];
+        for (int i = 0; i < this.guilds.length; i++) {
+            this.guilds[i] = id();
+        }
+        this.sequences = new long[this.shardsTotal];
+    }
+
+    @Override
+    public GatewayRecord next() {
+        // The READY of each shard, followed by the GUILD_CREATE of its guilds
+        int setupLength = shardsTotal + guilds.length;
+        if (setupIndex < setupLength) {
+            int index = setupIndex++;
+            if (index < shardsTotal) {
+                return record(index, "READY", ready(index));
+            }
+            int guild = index - shardsTotal;
+            return record(guild % shardsTotal, "GUILD_CREATE", guildCreate(guilds[guild]));
+        }
+
+        if (generated >= events) {
+            return null;
+        }
+        generated++;
+
+        int guild = random.nextInt(guilds.length);
+        long channel = channelId(guilds[guild], random.nextInt(CHANNELS_PER_GUILD));
+        DataObject user = user(random.nextInt(USERS));
+        if (random.nextDouble() < commandShare) {
+            return record(guild % shardsTotal, "INTERACTION_CREATE", interaction(guilds[guild], channel, user, commands.get(random.nextInt(commands.size()))));
+        }
+        return record(guild % shardsTotal, "MESSAGE_CREATE", message(guilds[guild], channel, user));
+    }
+
+    @Override
+    public int getShardsTotal() {
+        return shardsTotal;
+    }
+
+    @Override
+    public boolean isTimed() {
+        return false;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private GatewayRecord record(int shard, String type, DataObject payload) {
+        return new GatewayRecord(0, shard, type, ++sequences[shard], payload);
+    }
+
+    private DataObject ready(int shard) {
+        DataArray unavailableGuilds = DataArray.empty();
+        for (int i = shard; i < guilds.length; i += shardsTotal) {
+            unavailableGuilds.add(DataObject.empty().put("id", Long.toUnsignedString(guilds[i])).put("unavailable", true));
+        }
+        return DataObject.empty()
+                .put("v", 10)
+                .put("user", OfflineGateway.selfUser())
+                .put("guilds", unavailableGuilds)
+                .put("private_channels", DataArray.empty())
+                .put("session_id", "synthetic-" + shard)
+                .put("resume_gateway_url", "wss://offline.invalid")
+                .put("shard", DataArray.empty().add(shard).add(shardsTotal))
+                .put("application", DataObject.empty().put("id", Long.toUnsignedString(OfflineGateway.SELF_USER_ID)).put("flags", 0));
+    }
+
+    private DataObject guildCreate(long guildId) {
+        String id = Long.toUnsignedString(guildId);
+        DataArray channels = DataArray.empty();
+        for (int i = 0; i < CHANNELS_PER_GUILD; i++) {
+            channels.add(channel(guildId, i));
+        }
+        return DataObject.empty()
+                .put("id", id)
+                .put("name", "Synthetic Guild " + id)
+                .put("owner_id", Long.toUnsignedString(OfflineGateway.SELF_USER_ID))
+                .put("member_count", USERS + 1)
+                .put("large", false)
+                .put("unavailable", false)
+                .put("joined_at", timestamp)
+                .put("afk_timeout", 300)
+                .put("verification_level", 0)
+                .put("default_message_notifications", 0)
+                .put("explicit_content_filter", 0)
+                .put("mfa_level", 0)
+                .put("nsfw_level", 0)
+                .put("premium_tier", 0)
+                .put("preferred_locale", "en-US")
+                .put("system_channel_flags", 0)
+                .put("features", DataArray.empty())
+                .put("roles", DataArray.empty().add(DataObject.empty()
+                        .put("id", id)
+                        .put("name", "@everyone")
+                        .put("permissions", "0")
+                        .put("position", 0)
+                        .put("color", 0)
+                        .put("hoist", false)
+                        .put("managed", false)
+                        .put("mentionable", false)))
+                .put("channels", channels)
+                .put("members", DataArray.empty().add(member(OfflineGateway.selfUser())))
+                .put("emojis", DataArray.empty())
+                .put("stickers", DataArray.empty())
+                .put("voice_states", DataArray.empty())
+                .put("presences", DataArray.empty())
+                .put("threads", DataArray.empty())
+                .put("stage_instances", DataArray.empty())
+                .put("guild_scheduled_events", DataArray.empty());
+    }
+
+    private DataObject channel(long guildId, int index) {
+        return DataObject.empty()
+                .put("id", Long.toUnsignedString(channelId(guildId, index)))
+                .put("guild_id", Long.toUnsignedString(guildId))
+                .put("type", 0)
+                .put("name", "channel-" + index)
+                .put("position", index)
+                .put("permission_overwrites", DataArray.empty());
+    }
+
+    private DataObject message(long guildId, long channelId, DataObject user) {
+        return DataObject.empty()
+                .put("id", Long.toUnsignedString(id()))
+                .put("channel_id", Long.toUnsignedString(channelId))
+                .put("guild_id", Long.toUnsignedString(guildId))
+                .put("author", user)
+                .put("member", member(null))
+                .put("content", "Synthetic message " + generated)
+                .put("timestamp", timestamp)
+                .put("edited_timestamp", null)
+                .put("tts", false)
+                .put("mention_everyone", false)
+                .put("mentions", DataArray.empty())
+                .put("mention_roles", DataArray.empty())
+                .put("attachments", DataArray.empty())
+                .put("embeds", DataArray.empty())
+                .put("pinned", false)
+                .put("type", 0);
+    }
+
+    private DataObject interaction(long guildId, long channelId, DataObject user, String path) {
+        String[] parts = path.split(" ");
+        DataArray options = DataArray.empty();
+        if (parts.length == 3) {
+            options.add(DataObject.empty().put("type", 2).put("name", parts[1]).put("options", DataArray.empty()
+                    .add(DataObject.empty().put("type", 1).put("name", parts[2]).put("options", DataArray.empty()))));
+        } else if (parts.length == 2) {
+            options.add(DataObject.empty().put("type", 1).put("name", parts[1]).put("options", DataArray.empty()));
+        }
+
+        return DataObject.empty()
+                .put("id", Long.toUnsignedString(id()))
+                .put("application_id", Long.toUnsignedString(OfflineGateway.SELF_USER_ID))
+                .put("type", 2)
+                .put("token", "synthetic-" + generated)
+                .put("version", 1)
+                .put("guild_id", Long.toUnsignedString(guildId))
+                .put("guild", DataObject.empty().put("id", Long.toUnsignedString(guildId)).put("locale", "en-US").put("features", DataArray.empty()))
+                .put("channel_id", Long.toUnsignedString(channelId))
+                .put("channel", channel(guildId, (int) (channelId - guildId - 1)))
+                .put("member", member(user).put("permissions", "0"))
+                .put("app_permissions", "0")
+                .put("locale", "en-US")
+                .put("guild_locale", "en-US")
+                .put("entitlements", DataArray.empty())
+                .put("authorizing_integration_owners", DataObject.empty())
+                .put("context", 0)
+                .put("data", DataObject.empty()
+                        .put("id", Long.toUnsignedString(id()))
+                        .put("name", parts[0])
+                        .put("type", 1)
+                        .put("options", options));
+    }
+
+    private DataObject member(DataObject user) {
+        DataObject member = DataObject.empty()
+                .put("roles", DataArray.empty())
+                .put("joined_at", timestamp)
+                .put("deaf", false)
+                .put("mute", false);
+        return user == null ? member : member.put("user", user);
+    }
+
+    private DataObject user(int index) {
+        return DataObject.empty()
+                .put("id", Long.toUnsignedString(baseId + index))
+                .put("username", "user" + index)
+                .put("discriminator", "0000")
+                .put("global_name", null)
+                .put("avatar", null);
+    }
+
+    private long channelId(long guildId, int index) {
+        // Guild ids are generated far enough apart for their channel ids to follow them
+        return guildId + 1 + index;
+    }
+
+    private long id() {
+        // Leave room for the channels of a guild and the users after the base id
+        nextId += CHANNELS_PER_GUILD + 1;
+        return baseId + USERS + nextId;
+    }
+}
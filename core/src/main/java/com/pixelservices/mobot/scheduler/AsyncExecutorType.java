@@ -0,0 +1,15 @@
+package com.pixelservices.mobot.scheduler;
+
+/**
+ * The threads the asynchronous tasks of the {@link BotTaskScheduler} run on.
+ */
+public enum AsyncExecutorType {
+    /**
+     * Runs every task on a new virtual thread, or on the platform thread pool if the runtime does not support them.
+     */
+    VIRTUAL,
+    /**
+     * Runs the tasks on a bounded pool of platform threads, queueing them while all threads are busy.
+     */
+    PLATFORM
+}
@@ -1,8 +1,13 @@
 package com.pixelservices.mobot.scheduler;
 
 import com.pixelservices.mobot.api.modules.MbModule;
+import com.pixelservices.mobot.api.scheduler.RepeatPolicy;
 import com.pixelservices.mobot.api.scheduler.ScheduledTask;
 import com.pixelservices.mobot.api.scheduler.TaskScheduler;
+import com.pixelservices.mobot.utils.ConfigUtil;
+import com.pixelservices.mobot.utils.HashedWheelTimer;
+import com.pixelservices.mobot.utils.ThreadUtil;
+import dev.siea.jonion.configuration.YamlPluginConfig;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
@@ -12,34 +17,56 @@ import java.util.Collections;
 import java.util.Map;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * The {@link TaskScheduler} of the bot.
+ * <p>
+ * Delayed and repeating tasks wait on a {@link HashedWheelTimer}, so scheduling and cancelling a task takes constant
+ * time however many tasks are pending, at the cost of running tasks up to one tick late. The tick is set with
+ * {@code scheduler-tick} in the {@code bot.yml}. Once due, synchronous tasks run on the scheduler threads and
+ * asynchronous tasks on the async workers. Tasks due right away skip the timer. Repeating tasks are rescheduled as
+ * their {@link RepeatPolicy} demands.
+ * </p>
+ * <p>
+ * The async workers are virtual threads or a bounded pool of platform threads, as set with
+ * {@code scheduler-async-executor}. With {@code scheduler-module-max-concurrent}, the asynchronous tasks of a module
+ * running at the same time are limited, and further tasks of the module wait for a running one to complete.
+ * </p>
+ * <p>
+ * Tasks are also indexed by the id of the module owning them, so the tasks of a module are listed, counted and
+ * cancelled without going over the tasks of all other modules.
+ * </p>
+ */
 public class BotTaskScheduler implements TaskScheduler {
+    private static final long DEFAULT_TICK_MILLIS = 10;
+    private static final int WHEEL_SIZE = 512;
+    private static final int SCHEDULER_THREADS = 2;
+    private static final int DEFAULT_ASYNC_THREADS = 32;
 
     private final Logger logger;
     private final Map<Integer, ScheduledTask> tasks = new ConcurrentHashMap<>();
+    private final Map<String, Map<Integer, ScheduledTask>> moduleTasks = new ConcurrentHashMap<>();
     private final AtomicInteger taskIdCounter = new AtomicInteger(0);
-    private final ScheduledExecutorService scheduler;
+    private final HashedWheelTimer timer;
+    private final ExecutorService scheduler;
     private final ExecutorService asyncExecutor;
+    private final Map<String, ModuleTaskLimiter> moduleLimiters = new ConcurrentHashMap<>();
+    private final int moduleMaxConcurrent;
 
     public BotTaskScheduler() {
         this.logger = LoggerFactory.getLogger("Console");
 
-        this.scheduler = Executors.newScheduledThreadPool(2, r -> {
-            Thread thread = new Thread(r, "TaskScheduler-SchedulerThread");
-            thread.setDaemon(true);
-            return thread;
-        });
-
-        this.asyncExecutor = Executors.newCachedThreadPool(new ThreadFactory() {
-            private final AtomicInteger counter = new AtomicInteger(0);
+        YamlPluginConfig config = ConfigUtil.getBotConfig();
+        int asyncThreads = config == null ? DEFAULT_ASYNC_THREADS : config.getYamlConfiguration().getInt("scheduler-async-threads", DEFAULT_ASYNC_THREADS);
+        this.moduleMaxConcurrent = config == null ? 0 : config.getYamlConfiguration().getInt("scheduler-module-max-concurrent", 0);
 
-            @Override
-            public Thread newThread(@NotNull Runnable runnable) {
-                Thread thread = new Thread(runnable, "TaskScheduler-AsyncWorker-" + counter.incrementAndGet());
-                thread.setDaemon(true);
-                return thread;
-            }
-        });
+        this.timer = new HashedWheelTimer("TaskScheduler-Timer", getTickMillis(config), TimeUnit.MILLISECONDS, WHEEL_SIZE);
+        this.scheduler = Executors.newFixedThreadPool(SCHEDULER_THREADS, ThreadUtil.newDaemonThreadFactory("TaskScheduler-SchedulerThread"));
+        this.asyncExecutor = switch (getAsyncExecutorType(config)) {
+            case VIRTUAL -> ThreadUtil.newVirtualThreadExecutor("TaskScheduler-AsyncWorker", asyncThreads);
+            case PLATFORM -> ThreadUtil.newPlatformThreadExecutor("TaskScheduler-AsyncWorker", asyncThreads);
+        };
     }
 
     @Override
@@ -47,6 +74,12 @@ public class BotTaskScheduler implements TaskScheduler {
         return Collections.unmodifiableMap(tasks);
     }
 
+    @Override
+    public Map<Integer, ScheduledTask> getTasks(@NotNull MbModule module) {
+        Map<Integer, ScheduledTask> owned = moduleTasks.get(module.getId());
+        return owned == null ? Collections.emptyMap() : Collections.unmodifiableMap(owned);
+    }
+
     @Override
     public ScheduledTask runTask(@NotNull MbModule module, Runnable runnable) {
         return scheduleTask(module, runnable, null, 0, 0, false);
@@ -62,6 +95,11 @@ public class BotTaskScheduler implements TaskScheduler {
         return scheduleTask(module, runnable, timeUnit, delayMillis, periodMillis, false);
     }
 
+    @Override
+    public ScheduledTask runTaskTimer(@NotNull MbModule module, Runnable runnable, @Nullable TimeUnit timeUnit, long delayMillis, long periodMillis, @NotNull RepeatPolicy policy) {
+        return scheduleTask(module, runnable, timeUnit, delayMillis, periodMillis, false, policy);
+    }
+
     @Override
     public ScheduledTask runTaskAsync(@NotNull MbModule module, Runnable runnable) {
         return scheduleTask(module, runnable, null, 0, 0, true);
@@ -77,43 +115,25 @@ public class BotTaskScheduler implements TaskScheduler {
         return scheduleTask(module, runnable, timeUnit, delayMillis, periodMillis, true);
     }
 
-    private ScheduledTask scheduleTask(@NotNull MbModule module, Runnable runnable, @Nullable TimeUnit timeUnit, long delayMillis, long periodMillis, boolean async) {
-        int taskId = taskIdCounter.incrementAndGet();
-        ScheduledTask task = new ScheduledTask(taskId, module, runnable, async, periodMillis > 0);
-        tasks.put(taskId, task);
-
-        Runnable wrappedTask = () -> {
-            try {
-                runnable.run();
-            } catch (Exception e) {
-                logger.error(String.format("Task #%d threw an error while executing.", taskId));
-                e.printStackTrace();
-            }
-
-            if (!task.isRepeating()) {
-                tasks.remove(taskId);
-            }
-        };
+    @Override
+    public ScheduledTask runTaskTimerAsync(@NotNull MbModule module, Runnable runnable, @Nullable TimeUnit timeUnit, long delayMillis, long periodMillis, @NotNull RepeatPolicy policy) {
+        return scheduleTask(module, runnable, timeUnit, delayMillis, periodMillis, true, policy);
+    }
 
-        ScheduledFuture<?> future;
-        Runnable finalRunnable = async ? () -> asyncExecutor.execute(wrappedTask) : wrappedTask;
-
-        if (periodMillis > 0) {
-            future = scheduler.scheduleAtFixedRate(
-                    finalRunnable,
-                    delayMillis,
-                    periodMillis,
-                    timeUnit == null ? TimeUnit.SECONDS : timeUnit
-            );
-        } else {
-            future = scheduler.schedule(
-                    finalRunnable,
-                    delayMillis,
-                    timeUnit == null ? TimeUnit.SECONDS : timeUnit
-            );
-        }
+    private ScheduledTask scheduleTask(@NotNull MbModule module, Runnable runnable, @Nullable TimeUnit timeUnit, long delayMillis, long periodMillis, boolean async) {
+        return scheduleTask(module, runnable, timeUnit, delayMillis, periodMillis, async, RepeatPolicy.FIXED_RATE);
+    }
 
-        task.setFuture(future);
+    private ScheduledTask scheduleTask(@NotNull MbModule module, Runnable runnable, @Nullable TimeUnit timeUnit, long delayMillis, long periodMillis, boolean async, RepeatPolicy policy) {
+        int taskId = taskIdCounter.incrementAndGet();
+        TimeUnit unit = timeUnit == null ? TimeUnit.SECONDS : timeUnit;
+        TaskHandle handle = new TaskHandle(module, taskId, runnable, async, policy == null ? RepeatPolicy.FIXED_RATE : policy, unit.toNanos(Math.max(0, periodMillis)));
+        // The counters are only exposed read-only and the cancel handler is fixed, so modules can neither change the
+        // counters nor detach the task from the scheduler
+        ScheduledTask task = new ScheduledTask(taskId, module, runnable, async, periodMillis > 0, handle.repeatPolicy,
+                handle.runs::get, handle.missedTicks::get, handle::cancel);
+        addTask(task);
+        handle.start(System.nanoTime() + unit.toNanos(Math.max(0, delayMillis)));
         return task;
     }
 
@@ -126,12 +146,241 @@ public class BotTaskScheduler implements TaskScheduler {
         return true;
     }
 
+    @Override
+    public int cancelTasks(@NotNull MbModule module) {
+        moduleLimiters.remove(module.getId());
+        Map<Integer, ScheduledTask> owned = moduleTasks.remove(module.getId());
+        if (owned == null) {
+            return 0;
+        }
+        owned.values().forEach(ScheduledTask::cancel);
+        return owned.size();
+    }
+
     public void shutdown() {
         tasks.values().forEach(ScheduledTask::cancel);
         tasks.clear();
+        moduleTasks.clear();
 
+        timer.stop();
         scheduler.shutdown();
         asyncExecutor.shutdown();
     }
 
+    private void addTask(ScheduledTask task) {
+        tasks.put(task.getTaskId(), task);
+        // Computed atomically with the removal of the index of the module, so a task is never added to a removed index
+        moduleTasks.compute(task.getModule().getId(), (id, owned) -> {
+            Map<Integer, ScheduledTask> index = owned == null ? new ConcurrentHashMap<>() : owned;
+            index.put(task.getTaskId(), task);
+            return index;
+        });
+    }
+
+    private void removeTask(MbModule module, int taskId) {
+        tasks.remove(taskId);
+        moduleTasks.computeIfPresent(module.getId(), (id, owned) -> {
+            owned.remove(taskId);
+            return owned.isEmpty() ? null : owned;
+        });
+    }
+
+    /**
+     * Runs the body of an asynchronous task on the async workers, within the concurrency limit of its module.
+     */
+    private void executeAsync(MbModule module, Runnable body) {
+        if (moduleMaxConcurrent <= 0 || module == null) {
+            asyncExecutor.execute(body);
+            return;
+        }
+        moduleLimiters.computeIfAbsent(module.getId(), id -> new ModuleTaskLimiter(asyncExecutor, moduleMaxConcurrent)).execute(body);
+    }
+
+    private AsyncExecutorType getAsyncExecutorType(YamlPluginConfig config) {
+        String type = config == null ? null : config.getYamlConfiguration().getString("scheduler-async-executor", AsyncExecutorType.VIRTUAL.name());
+        if (type == null) {
+            return AsyncExecutorType.VIRTUAL;
+        }
+        try {
+            return AsyncExecutorType.valueOf(type.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid scheduler-async-executor: {}. Falling back to {}.", type, AsyncExecutorType.VIRTUAL);
+            return AsyncExecutorType.VIRTUAL;
+        }
+    }
+
+    private long getTickMillis(YamlPluginConfig config) {
+        long tickMillis = config == null ? DEFAULT_TICK_MILLIS : config.getYamlConfiguration().getLong("scheduler-tick", DEFAULT_TICK_MILLIS);
+        if (tickMillis < 1) {
+            logger.warn("Invalid scheduler-tick: {}. Falling back to {}.", tickMillis, DEFAULT_TICK_MILLIS);
+            return DEFAULT_TICK_MILLIS;
+        }
+        return tickMillis;
+    }
+
+    /**
+     * Runs a task and keeps its pending timeout, rescheduling repeating tasks once they are due.
+     */
+    private final class TaskHandle {
+        private final MbModule module;
+        private final int taskId;
+        private final Runnable runnable;
+        private final boolean async;
+        private final RepeatPolicy repeatPolicy;
+        private final long periodNanos;
+        private final AtomicLong runs = new AtomicLong();
+        private final AtomicLong missedTicks = new AtomicLong();
+        private final AtomicInteger runningAsync = new AtomicInteger();
+        private volatile HashedWheelTimer.Timeout timeout;
+        private volatile boolean cancelled;
+        private long dueTime;
+
+        TaskHandle(MbModule module, int taskId, Runnable runnable, boolean async, RepeatPolicy repeatPolicy, long periodNanos) {
+            this.module = module;
+            this.taskId = taskId;
+            this.runnable = runnable;
+            this.async = async;
+            this.repeatPolicy = repeatPolicy;
+            this.periodNanos = periodNanos;
+        }
+
+        /**
+         * Schedules the first run of the task, running it right away if it is already due.
+         */
+        void start(long dueTime) {
+            if (dueTime - System.nanoTime() > 0) {
+                schedule(dueTime);
+            } else {
+                this.dueTime = dueTime;
+                fire();
+            }
+        }
+
+        void schedule(long dueTime) {
+            this.dueTime = dueTime;
+            this.timeout = timer.schedule(this::fire, dueTime - System.nanoTime(), TimeUnit.NANOSECONDS);
+            // A cancellation racing with the scheduling may have missed the new timeout
+            if (cancelled) {
+                timeout.cancel();
+            }
+        }
+
+        /**
+         * Cancels the task with the scheduler, run by {@link ScheduledTask#cancel()}.
+         */
+        void cancel() {
+            cancelled = true;
+            HashedWheelTimer.Timeout current = timeout;
+            if (current != null) {
+                current.cancel();
+            }
+            removeTask(module, taskId);
+        }
+
+        /**
+         * Runs the task once.
+         */
+        private void run() {
+            // The task may have been cancelled while it was queued for a thread
+            if (cancelled) {
+                return;
+            }
+            runs.incrementAndGet();
+            try {
+                runnable.run();
+            } catch (Exception e) {
+                logger.error(String.format("Task #%d threw an error while executing.", taskId));
+                e.printStackTrace();
+            }
+
+            if (periodNanos <= 0) {
+                removeTask(module, taskId);
+            }
+        }
+
+        /**
+         * Runs on the worker thread of the timer, or on the scheduling thread for tasks due right away,
+         * so the task itself is always handed off.
+         */
+        private void fire() {
+            if (cancelled) {
+                return;
+            }
+            if (periodNanos <= 0) {
+                execute(this::run);
+            } else if (repeatPolicy == RepeatPolicy.FIXED_DELAY) {
+                execute(() -> {
+                    run();
+                    if (!cancelled) {
+                        schedule(System.nanoTime() + periodNanos);
+                    }
+                });
+            } else if (async) {
+                fireAsyncAtRate();
+            } else {
+                fireSyncAtRate();
+            }
+        }
+
+        /**
+         * Asynchronous runs at a fixed rate are started on time, so the next run is scheduled right away.
+         */
+        private void fireAsyncAtRate() {
+            schedule(dueTime + periodNanos);
+            if (runningAsync.get() > 0) {
+                missedTicks.incrementAndGet();
+                if (repeatPolicy == RepeatPolicy.SKIP_IF_RUNNING) {
+                    return;
+                }
+            }
+            runningAsync.incrementAndGet();
+            try {
+                executeAsync(module, () -> {
+                    try {
+                        run();
+                    } finally {
+                        runningAsync.decrementAndGet();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                runningAsync.decrementAndGet();
+                throw e;
+            }
+        }
+
+        /**
+         * Synchronous runs at a fixed rate never overlap, so the next run is scheduled once this one is done.
+         */
+        private void fireSyncAtRate() {
+            scheduler.execute(() -> {
+                long startTime = System.nanoTime();
+                run();
+                if (cancelled) {
+                    return;
+                }
+                // The ticks that were due while the task was running
+                long now = System.nanoTime();
+                long missed = Math.floorDiv(now - dueTime, periodNanos) - Math.floorDiv(startTime - dueTime, periodNanos);
+                if (missed > 0) {
+                    missedTicks.addAndGet(missed);
+                }
+                if (repeatPolicy == RepeatPolicy.SKIP_IF_RUNNING) {
+                    // Continue with the first tick that is not due yet
+                    schedule(dueTime + (Math.floorDiv(now - dueTime, periodNanos) + 1) * periodNanos);
+                } else {
+                    // Catch up with the missed ticks one after the other
+                    schedule(dueTime + periodNanos);
+                }
+            });
+        }
+
+        private void execute(Runnable runnable) {
+            if (async) {
+                executeAsync(module, runnable);
+            } else {
+                scheduler.execute(runnable);
+            }
+        }
+    }
+
 }
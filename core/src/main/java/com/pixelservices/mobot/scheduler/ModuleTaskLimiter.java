@@ -0,0 +1,91 @@
+package com.pixelservices.mobot.scheduler;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ModuleTaskLimiter limits the number of asynchronous tasks of a module running at the same time.
+ * <p>
+ * Tasks beyond the limit are queued and started in order as the running ones complete, so a module starting many
+ * blocking tasks at once neither occupies every thread of the platform pool nor piles up virtual threads. Every task
+ * is submitted to the executor on its own, so the tasks of different modules keep taking turns on a shared pool.
+ * </p>
+ */
+class ModuleTaskLimiter implements Executor {
+    private final Executor executor;
+    private final int limit;
+    private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger running = new AtomicInteger();
+
+    /**
+     * Constructor for ModuleTaskLimiter.
+     *
+     * @param executor the executor running the tasks
+     * @param limit    the maximum number of tasks running at the same time
+     */
+    ModuleTaskLimiter(Executor executor, int limit) {
+        this.executor = executor;
+        this.limit = Math.max(1, limit);
+    }
+
+    /**
+     * Runs the task once fewer than the limit of tasks are running.
+     *
+     * @param task the task
+     * @throws RejectedExecutionException if the executor was shut down
+     */
+    @Override
+    public void execute(Runnable task) {
+        queue.add(task);
+        startNext();
+    }
+
+    public int getRunning() {
+        return running.get();
+    }
+
+    public int getQueued() {
+        return queue.size();
+    }
+
+    private void startNext() {
+        if (!tryAcquire()) {
+            return;
+        }
+        Runnable task = queue.poll();
+        if (task == null) {
+            running.decrementAndGet();
+            // A task queued after the poll may have seen the limit reached, so check again
+            if (!queue.isEmpty()) {
+                startNext();
+            }
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    running.decrementAndGet();
+                    startNext();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            running.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private boolean tryAcquire() {
+        int current;
+        while ((current = running.get()) < limit) {
+            if (running.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
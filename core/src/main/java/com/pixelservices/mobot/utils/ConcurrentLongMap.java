@@ -0,0 +1,225 @@
+package com.pixelservices.mobot.utils;
+
+import java.util.function.ObjLongConsumer;
+
+/**
+ * A thread-safe map from primitive {@code long} keys, such as Discord snowflake ids, to non-null values.
+ * <p>
+ * Like {@link ConcurrentLongSet}, the map is split into independently locked stripes, each an open-addressing hash
+ * table with linear probing, so putting, removing and looking up a key is O(1) without boxing the key.
+ * </p>
+ *
+ * @param <V> the type of the values
+ */
+public class ConcurrentLongMap<V> {
+    private static final int STRIPES = 16;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Stripe<V>[] stripes;
+
+    @SuppressWarnings("unchecked")
+    public ConcurrentLongMap() {
+        stripes = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe<>();
+        }
+    }
+
+    /**
+     * Returns the value of a key.
+     *
+     * @param key the key
+     * @return the value, or {@code null} if the map does not contain the key
+     */
+    public V get(long key) {
+        long hash = mix(key);
+        return stripe(hash).get(key, hash);
+    }
+
+    /**
+     * Sets the value of a key.
+     *
+     * @param key   the key
+     * @param value the value, not {@code null}
+     * @return the previous value, or {@code null} if the map did not contain the key
+     */
+    public V put(long key, V value) {
+        if (value == null) {
+            throw new NullPointerException("value");
+        }
+        long hash = mix(key);
+        return stripe(hash).put(key, hash, value);
+    }
+
+    /**
+     * Removes a key from the map.
+     *
+     * @param key the key
+     * @return the removed value, or {@code null} if the map did not contain the key
+     */
+    public V remove(long key) {
+        long hash = mix(key);
+        return stripe(hash).remove(key, hash, null);
+    }
+
+    /**
+     * Removes a key from the map if it is mapped to the given value.
+     *
+     * @param key   the key
+     * @param value the expected value
+     * @return {@code true} if the key was removed
+     */
+    public boolean remove(long key, V value) {
+        long hash = mix(key);
+        return value != null && stripe(hash).remove(key, hash, value) != null;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe<V> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    /**
+     * Performs the given action for every entry of the map.
+     * Each stripe is copied before its entries are passed to the action, so the action may modify the map.
+     *
+     * @param action the action to perform, called with the value and the key of every entry
+     */
+    public void forEach(ObjLongConsumer<? super V> action) {
+        for (Stripe<V> stripe : stripes) {
+            stripe.forEach(action);
+        }
+    }
+
+    private Stripe<V> stripe(long hash) {
+        return stripes[(int) (hash >>> 60) & (STRIPES - 1)];
+    }
+
+    private static long mix(long key) {
+        key = (key ^ (key >>> 33)) * 0xff51afd7ed558ccdL;
+        key = (key ^ (key >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return key ^ (key >>> 33);
+    }
+
+    /**
+     * An open-addressing table, using a {@code null} value as the empty slot marker, so that any key can be stored.
+     */
+    private static final class Stripe<V> {
+        private long[] keys = new long[INITIAL_CAPACITY];
+        private Object[] values = new Object[INITIAL_CAPACITY];
+        private int size;
+
+        synchronized V get(long key, long hash) {
+            int index = indexOf(key, hash);
+            return index < 0 ? null : value(index);
+        }
+
+        synchronized V put(long key, long hash, V value) {
+            int mask = keys.length - 1;
+            int index = (int) hash & mask;
+            while (values[index] != null) {
+                if (keys[index] == key) {
+                    V previous = value(index);
+                    values[index] = value;
+                    return previous;
+                }
+                index = (index + 1) & mask;
+            }
+
+            keys[index] = key;
+            values[index] = value;
+            if (++size * 2 > keys.length) {
+                resize();
+            }
+            return null;
+        }
+
+        /**
+         * Removes a key, if it is mapped to the expected value or if no value is expected.
+         */
+        synchronized V remove(long key, long hash, V expected) {
+            int index = indexOf(key, hash);
+            if (index < 0 || (expected != null && !expected.equals(values[index]))) {
+                return null;
+            }
+            V removed = value(index);
+
+            // Shift the following entries of the probe chain back, so lookups never stop at the freed slot
+            int mask = keys.length - 1;
+            int free = index;
+            for (int next = (free + 1) & mask; values[next] != null; next = (next + 1) & mask) {
+                int home = (int) mix(keys[next]) & mask;
+                if (((next - home) & mask) >= ((next - free) & mask)) {
+                    keys[free] = keys[next];
+                    values[free] = values[next];
+                    free = next;
+                }
+            }
+            keys[free] = 0;
+            values[free] = null;
+            size--;
+            return removed;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        void forEach(ObjLongConsumer<? super V> action) {
+            long[] entryKeys;
+            Object[] entryValues;
+            synchronized (this) {
+                entryKeys = new long[size];
+                entryValues = new Object[size];
+                int i = 0;
+                for (int index = 0; index < keys.length; index++) {
+                    if (values[index] != null) {
+                        entryKeys[i] = keys[index];
+                        entryValues[i++] = values[index];
+                    }
+                }
+            }
+            for (int i = 0; i < entryKeys.length; i++) {
+                @SuppressWarnings("unchecked")
+                V value = (V) entryValues[i];
+                action.accept(value, entryKeys[i]);
+            }
+        }
+
+        private int indexOf(long key, long hash) {
+            int mask = keys.length - 1;
+            for (int index = (int) hash & mask; values[index] != null; index = (index + 1) & mask) {
+                if (keys[index] == key) {
+                    return index;
+                }
+            }
+            return -1;
+        }
+
+        @SuppressWarnings("unchecked")
+        private V value(int index) {
+            return (V) values[index];
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            Object[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new Object[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldValues[i] != null) {
+                    int index = (int) mix(oldKeys[i]) & mask;
+                    while (values[index] != null) {
+                        index = (index + 1) & mask;
+                    }
+                    keys[index] = oldKeys[i];
+                    values[index] = oldValues[i];
+                }
+            }
+        }
+    }
+}
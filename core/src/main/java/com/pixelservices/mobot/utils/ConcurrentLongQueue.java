@@ -0,0 +1,58 @@
+package com.pixelservices.mobot.utils;
+
+/**
+ * A thread-safe first-in-first-out queue of primitive {@code long} values, such as Discord snowflake ids.
+ * <p>
+ * The values are stored in a growable ring buffer guarded by the queue's lock, so adding and polling a value is
+ * O(1) amortized without boxing.
+ * </p>
+ */
+public class ConcurrentLongQueue {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] values = new long[INITIAL_CAPACITY];
+    private int head;
+    private int size;
+
+    /**
+     * Adds a value at the tail of the queue.
+     *
+     * @param value the value
+     */
+    public synchronized void add(long value) {
+        if (size == values.length) {
+            long[] grown = new long[values.length * 2];
+            for (int i = 0; i < size; i++) {
+                grown[i] = values[(head + i) & (values.length - 1)];
+            }
+            values = grown;
+            head = 0;
+        }
+        values[(head + size) & (values.length - 1)] = value;
+        size++;
+    }
+
+    /**
+     * Removes the value at the head of the queue.
+     *
+     * @param defaultValue the value returned if the queue is empty
+     * @return the value, or {@code defaultValue} if the queue is empty
+     */
+    public synchronized long poll(long defaultValue) {
+        if (size == 0) {
+            return defaultValue;
+        }
+        long value = values[head];
+        head = (head + 1) & (values.length - 1);
+        size--;
+        return value;
+    }
+
+    public synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+}
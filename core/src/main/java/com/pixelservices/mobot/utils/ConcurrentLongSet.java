@@ -0,0 +1,198 @@
+package com.pixelservices.mobot.utils;
+
+import java.util.function.LongConsumer;
+
+/**
+ * A thread-safe set of primitive {@code long} values, such as Discord snowflake ids.
+ * <p>
+ * The set is split into independently locked stripes, each an open-addressing hash table with linear probing,
+ * so adding, removing and looking up a value is O(1) without boxing, and threads working on different
+ * values rarely contend.
+ * </p>
+ */
+public class ConcurrentLongSet {
+    private static final int STRIPES = 16;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    public ConcurrentLongSet() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Adds a value to the set.
+     *
+     * @param value the value
+     * @return {@code true} if the set did not already contain the value
+     */
+    public boolean add(long value) {
+        long hash = mix(value);
+        return stripe(hash).add(value, hash);
+    }
+
+    /**
+     * Removes a value from the set.
+     *
+     * @param value the value
+     * @return {@code true} if the set contained the value
+     */
+    public boolean remove(long value) {
+        long hash = mix(value);
+        return stripe(hash).remove(value, hash);
+    }
+
+    public boolean contains(long value) {
+        long hash = mix(value);
+        return stripe(hash).contains(value, hash);
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    /**
+     * Performs the given action for every value in the set.
+     * Each stripe is copied before its values are passed to the action, so the action may modify the set.
+     *
+     * @param action the action to perform
+     */
+    public void forEach(LongConsumer action) {
+        for (Stripe stripe : stripes) {
+            for (long value : stripe.toArray()) {
+                action.accept(value);
+            }
+        }
+    }
+
+    private Stripe stripe(long hash) {
+        return stripes[(int) (hash >>> 60) & (STRIPES - 1)];
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
+        value = (value ^ (value >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return value ^ (value >>> 33);
+    }
+
+    /**
+     * An open-addressing table, using {@code 0} as the empty slot marker and a flag for the value {@code 0} itself.
+     */
+    private static final class Stripe {
+        private long[] table = new long[INITIAL_CAPACITY];
+        private int size;
+        private boolean containsZero;
+
+        synchronized boolean add(long value, long hash) {
+            if (value == 0) {
+                if (containsZero) {
+                    return false;
+                }
+                containsZero = true;
+                size++;
+                return true;
+            }
+
+            int mask = table.length - 1;
+            int index = (int) hash & mask;
+            while (table[index] != 0) {
+                if (table[index] == value) {
+                    return false;
+                }
+                index = (index + 1) & mask;
+            }
+
+            table[index] = value;
+            if (++size * 2 > table.length) {
+                resize();
+            }
+            return true;
+        }
+
+        synchronized boolean remove(long value, long hash) {
+            if (value == 0) {
+                if (!containsZero) {
+                    return false;
+                }
+                containsZero = false;
+                size--;
+                return true;
+            }
+
+            int mask = table.length - 1;
+            int index = (int) hash & mask;
+            while (table[index] != value) {
+                if (table[index] == 0) {
+                    return false;
+                }
+                index = (index + 1) & mask;
+            }
+
+            // Shift the following entries of the probe chain back, so lookups never stop at the freed slot
+            int free = index;
+            for (int next = (free + 1) & mask; table[next] != 0; next = (next + 1) & mask) {
+                int home = (int) mix(table[next]) & mask;
+                if (((next - home) & mask) >= ((next - free) & mask)) {
+                    table[free] = table[next];
+                    free = next;
+                }
+            }
+            table[free] = 0;
+            size--;
+            return true;
+        }
+
+        synchronized boolean contains(long value, long hash) {
+            if (value == 0) {
+                return containsZero;
+            }
+
+            int mask = table.length - 1;
+            for (int index = (int) hash & mask; table[index] != 0; index = (index + 1) & mask) {
+                if (table[index] == value) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized long[] toArray() {
+            long[] values = new long[size];
+            int i = 0;
+            if (containsZero) {
+                values[i++] = 0;
+            }
+            for (long value : table) {
+                if (value != 0) {
+                    values[i++] = value;
+                }
+            }
+            return values;
+        }
+
+        private void resize() {
+            long[] old = table;
+            table = new long[old.length * 2];
+            int mask = table.length - 1;
+            for (long value : old) {
+                if (value != 0) {
+                    int index = (int) mix(value) & mask;
+                    while (table[index] != 0) {
+                        index = (index + 1) & mask;
+                    }
+                    table[index] = value;
+                }
+            }
+        }
+    }
+}
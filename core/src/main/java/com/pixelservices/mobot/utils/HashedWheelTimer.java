@@ -0,0 +1,301 @@
+package com.pixelservices.mobot.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A timer running short tasks after a delay, with O(1) scheduling and cancellation.
+ * <p>
+ * Timeouts are kept in a hierarchy of wheels of buckets. The buckets of the lowest wheel span a single tick, and the
+ * buckets of every further wheel span a full turn of the wheel below it. A timeout is put into the lowest wheel whose
+ * turn its tick falls into, so scheduling neither sorts nor locks, whatever the delay. When the wheel below completes
+ * a turn, the next bucket of a wheel is emptied into the wheels below it, so each timeout is moved at most once per
+ * wheel before it expires.
+ * </p>
+ * <p>
+ * A single worker thread advances the wheels once per tick and runs the expired tasks, so tasks run up to one tick
+ * late and must not block; longer work should be handed off to an executor.
+ * </p>
+ */
+public class HashedWheelTimer {
+    private static final Logger logger = LoggerFactory.getLogger(HashedWheelTimer.class);
+
+    private final long tickNanos;
+    private final Bucket[][] wheels;
+    private final int bits;
+    private final int mask;
+    private final Queue<Timeout> added = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+    private final AtomicLong pending = new AtomicLong();
+    private final Thread worker;
+    private final long startTime;
+    private volatile boolean stopped;
+
+    /**
+     * Constructor for HashedWheelTimer.
+     *
+     * @param name          the name of the worker thread
+     * @param tickDuration  the resolution of the timer
+     * @param unit          the unit of the tick duration
+     * @param ticksPerWheel the number of buckets per wheel, rounded up to a power of two
+     */
+    public HashedWheelTimer(String name, long tickDuration, TimeUnit unit, int ticksPerWheel) {
+        int buckets = Integer.highestOneBit(Math.max(1, ticksPerWheel - 1)) << 1;
+        this.tickNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(1), unit.toNanos(tickDuration));
+        this.bits = Integer.numberOfTrailingZeros(buckets);
+        this.mask = buckets - 1;
+        // Enough wheels for any tick a positive long can hold
+        this.wheels = new Bucket[(Long.SIZE - 1 + bits - 1) / bits][buckets];
+        for (Bucket[] wheel : wheels) {
+            for (int i = 0; i < buckets; i++) {
+                wheel[i] = new Bucket();
+            }
+        }
+
+        this.startTime = System.nanoTime();
+        this.worker = ThreadUtil.newDaemonThreadFactory(name).newThread(this::run);
+        this.worker.start();
+    }
+
+    /**
+     * Schedules a task.
+     *
+     * @param task  the task, run on the worker thread of the timer
+     * @param delay the delay after which the task is run
+     * @param unit  the unit of the delay
+     * @return the timeout, which can be used to cancel the task
+     * @throws IllegalStateException if the timer was stopped
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        if (stopped) {
+            throw new IllegalStateException("The timer has been stopped.");
+        }
+        long deadline = System.nanoTime() - startTime + Math.max(0, unit.toNanos(delay));
+        Timeout timeout = new Timeout(this, task, deadline);
+        pending.incrementAndGet();
+        added.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Returns the number of scheduled tasks that have neither run nor been cancelled.
+     *
+     * @return the number of pending tasks
+     */
+    public long getPending() {
+        return pending.get();
+    }
+
+    /**
+     * Stops the timer. Pending tasks are not run.
+     */
+    public void stop() {
+        stopped = true;
+        worker.interrupt();
+    }
+
+    private void run() {
+        long tick = 0;
+        while (!stopped) {
+            long deadline = tickNanos * (tick + 1);
+            long sleepNanos = deadline - (System.nanoTime() - startTime);
+            if (sleepNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException e) {
+                    if (stopped) {
+                        return;
+                    }
+                }
+                continue;
+            }
+
+            removeCancelled();
+            transferAdded(tick);
+            cascade(tick);
+            wheels[0][(int) (tick & mask)].expire();
+            tick++;
+        }
+    }
+
+    private void transferAdded(long tick) {
+        Timeout timeout;
+        // Bound the transfer, so that a flood of new timeouts cannot stall the wheel
+        for (int i = 0; i < 100_000 && (timeout = added.poll()) != null; i++) {
+            if (timeout.state.get() == Timeout.CANCELLED) {
+                continue;
+            }
+            place(timeout, tick);
+        }
+    }
+
+    /**
+     * Empties the buckets of the higher wheels starting with this tick into the wheels below them,
+     * from the highest to the lowest wheel, so that timeouts can cascade through several wheels at once.
+     */
+    private void cascade(long tick) {
+        int level = 0;
+        while (level + 1 < wheels.length && (tick & ((1L << (bits * (level + 1))) - 1)) == 0) {
+            level++;
+        }
+        for (; level > 0; level--) {
+            Timeout timeout = wheels[level][(int) ((tick >>> (bits * level)) & mask)].clear();
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                timeout.next = null;
+                timeout.previous = null;
+                if (!timeout.isCancelled()) {
+                    place(timeout, tick);
+                }
+                timeout = next;
+            }
+        }
+    }
+
+    /**
+     * Puts a timeout into the wheel of the highest digit its expiry tick differs from the current tick in,
+     * so that the bucket is reached when the wheels below it complete their turns.
+     */
+    private void place(Timeout timeout, long tick) {
+        long expiryTick = Math.max(timeout.deadline / tickNanos, tick);
+        long difference = expiryTick ^ tick;
+        int level = difference == 0 ? 0 : (Long.SIZE - 1 - Long.numberOfLeadingZeros(difference)) / bits;
+        wheels[level][(int) ((expiryTick >>> (bits * level)) & mask)].add(timeout);
+    }
+
+    private void removeCancelled() {
+        Timeout timeout;
+        while ((timeout = cancelled.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    /**
+     * A task scheduled on a {@link HashedWheelTimer}.
+     */
+    public static final class Timeout {
+        private static final int WAITING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final HashedWheelTimer timer;
+        private final Runnable task;
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+        private Bucket bucket;
+        private Timeout next;
+        private Timeout previous;
+
+        private Timeout(HashedWheelTimer timer, Runnable task, long deadline) {
+            this.timer = timer;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Cancels the task, if it has not run yet.
+         *
+         * @return {@code true} if the task was cancelled by this call
+         */
+        public boolean cancel() {
+            if (!state.compareAndSet(WAITING, CANCELLED)) {
+                return false;
+            }
+            timer.pending.decrementAndGet();
+            timer.cancelled.add(this);
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+
+        private void expire() {
+            if (!state.compareAndSet(WAITING, EXPIRED)) {
+                return;
+            }
+            timer.pending.decrementAndGet();
+            try {
+                task.run();
+            } catch (Throwable e) {
+                logger.error("A timer task threw an exception", e);
+            }
+        }
+    }
+
+    /**
+     * A doubly linked list of timeouts, only accessed by the worker thread.
+     */
+    private static final class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.previous = tail;
+                tail = timeout;
+            }
+        }
+
+        void expire() {
+            Timeout timeout = clear();
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                timeout.next = null;
+                timeout.previous = null;
+                timeout.expire();
+                timeout = next;
+            }
+        }
+
+        /**
+         * Detaches all timeouts from the bucket.
+         *
+         * @return the first timeout, still linked to the others
+         */
+        Timeout clear() {
+            Timeout first = head;
+            for (Timeout timeout = first; timeout != null; timeout = timeout.next) {
+                timeout.bucket = null;
+            }
+            head = null;
+            tail = null;
+            return first;
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.bucket != this) {
+                return;
+            }
+            if (timeout.previous != null) {
+                timeout.previous.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.previous = timeout.previous;
+            } else {
+                tail = timeout.previous;
+            }
+            timeout.next = null;
+            timeout.previous = null;
+            timeout.bucket = null;
+        }
+    }
+}
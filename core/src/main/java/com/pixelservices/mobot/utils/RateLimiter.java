@@ -0,0 +1,213 @@
+package com.pixelservices.mobot.utils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A thread-safe rate limiter granting a number of uses per period to every primitive {@code long} key,
+ * such as a Discord snowflake id.
+ * <p>
+ * Each key is a token bucket stored as the theoretical arrival time of its next use (the generic cell rate
+ * algorithm), so a check is a single compare-and-set on an open-addressing table with linear probing and does not
+ * lock or allocate. Since a key whose arrival time has passed is equivalent to an absent key, entries are evicted by
+ * time instead of being removed: once a period has passed, new keys go to a fresh table and the previous table only
+ * serves the keys still limited, until it is dropped a period later.
+ * </p>
+ * <p>
+ * A use granted in a table that was rotated out meanwhile may have been missed by the copy into the new table, so it
+ * is granted again against the new table. If the copy did see it, the use is counted twice, which errs on the side
+ * of limiting the key.
+ * </p>
+ */
+public class RateLimiter {
+    private static final int MIN_CAPACITY = 64;
+    private static final long ZERO_KEY = Long.MIN_VALUE;
+
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final long rotationNanos;
+    private final long origin = System.nanoTime();
+    private final AtomicReference<Tables> tables;
+
+    /**
+     * Constructor for RateLimiter.
+     *
+     * @param uses         the number of uses granted per period, at least {@code 1}
+     * @param periodMillis the period in milliseconds, at least {@code 1}
+     */
+    public RateLimiter(int uses, long periodMillis) {
+        long periodNanos = Math.max(1, periodMillis) * 1_000_000L;
+        this.intervalNanos = Math.max(1, periodNanos / Math.max(1, uses));
+        this.toleranceNanos = periodNanos - intervalNanos;
+        this.rotationNanos = periodNanos;
+        this.tables = new AtomicReference<>(new Tables(new Table(MIN_CAPACITY), null, 0));
+    }
+
+    /**
+     * Uses the bucket of a key, if it has a use left.
+     *
+     * @param key the key
+     * @return {@code 0} if the use was granted, otherwise the number of milliseconds until the key has a use left
+     */
+    public long tryAcquire(long key) {
+        if (key == 0) {
+            key = ZERO_KEY;
+        }
+
+        long now = System.nanoTime() - origin;
+        retry:
+        while (true) {
+            Tables current = tables.get();
+            if (now - current.rotatedAt >= rotationNanos && current.table.count.get() > 0) {
+                rotate(current, now);
+                continue;
+            }
+
+            int slot = current.table.claim(key);
+            if (slot < 0) {
+                rotate(current, now);
+                continue;
+            }
+
+            AtomicLongArray arrivals = current.table.arrivals;
+            if (current.previous != null && arrivals.get(slot) == 0) {
+                arrivals.compareAndSet(slot, 0, current.previous.arrival(key));
+            }
+
+            while (true) {
+                long stored = arrivals.get(slot);
+                long arrival = Math.max(stored, now);
+                long wait = arrival - now - toleranceNanos;
+                if (wait > 0) {
+                    return Math.max(1, (wait + 999_999L) / 1_000_000L);
+                }
+                if (arrivals.compareAndSet(slot, stored, arrival + intervalNanos)) {
+                    if (tables.get() != current) {
+                        // The tables were rotated, and the new table may have copied the arrival time before this use
+                        continue retry;
+                    }
+                    return 0;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of keys tracked by the limiter, including keys that are no longer limited
+     * but were not evicted yet.
+     *
+     * @return the number of tracked keys
+     */
+    public int size() {
+        Tables current = tables.get();
+        return current.table.count.get() + (current.previous == null ? 0 : current.previous.count.get());
+    }
+
+    private synchronized void rotate(Tables expected, long now) {
+        if (tables.get() != expected) {
+            return;
+        }
+
+        Table table = expected.table;
+        if (now - expected.rotatedAt >= rotationNanos || expected.previous == null) {
+            // Every arrival time in the previous table lies in the past, so it can be dropped
+            tables.set(new Tables(new Table(capacityFor(table.count.get())), table, now));
+            return;
+        }
+
+        // The table filled up within a period, so the keys of both tables are still needed
+        Table grown = new Table(capacityFor(table.count.get() + expected.previous.count.get()));
+        expected.previous.copyTo(grown, now);
+        table.copyTo(grown, now);
+        tables.set(new Tables(grown, null, expected.rotatedAt));
+    }
+
+    private static int capacityFor(int keys) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < keys * 4 && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static int mix(long key) {
+        key = (key ^ (key >>> 33)) * 0xff51afd7ed558ccdL;
+        key = (key ^ (key >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return (int) (key ^ (key >>> 33));
+    }
+
+    private record Tables(Table table, Table previous, long rotatedAt) {
+    }
+
+    /**
+     * An insert-only open-addressing table, using {@code 0} as the empty key and arrival time.
+     */
+    private static final class Table {
+        private final AtomicLongArray keys;
+        private final AtomicLongArray arrivals;
+        private final AtomicInteger count = new AtomicInteger();
+        private final int mask;
+        private final int maxCount;
+
+        Table(int capacity) {
+            this.keys = new AtomicLongArray(capacity);
+            this.arrivals = new AtomicLongArray(capacity);
+            this.mask = capacity - 1;
+            this.maxCount = capacity / 2;
+        }
+
+        /**
+         * Finds the slot of a key, inserting the key if it is absent.
+         *
+         * @return the slot, or {@code -1} if the table is full
+         */
+        int claim(long key) {
+            for (int index = mix(key) & mask, probes = 0; probes <= mask; index = (index + 1) & mask, probes++) {
+                long current = keys.get(index);
+                if (current == key) {
+                    return index;
+                }
+                if (current == 0) {
+                    if (count.get() >= maxCount) {
+                        return -1;
+                    }
+                    if (keys.compareAndSet(index, 0, key)) {
+                        count.incrementAndGet();
+                        return index;
+                    }
+                    if (keys.get(index) == key) {
+                        return index;
+                    }
+                }
+            }
+            return -1;
+        }
+
+        long arrival(long key) {
+            for (int index = mix(key) & mask, probes = 0; probes <= mask; index = (index + 1) & mask, probes++) {
+                long current = keys.get(index);
+                if (current == key) {
+                    return arrivals.get(index);
+                }
+                if (current == 0) {
+                    return 0;
+                }
+            }
+            return 0;
+        }
+
+        void copyTo(Table target, long now) {
+            for (int index = 0; index <= mask; index++) {
+                long key = keys.get(index);
+                long arrival = arrivals.get(index);
+                if (key != 0 && arrival > now) {
+                    int slot = target.claim(key);
+                    if (slot >= 0) {
+                        target.arrivals.accumulateAndGet(slot, arrival, Math::max);
+                    }
+                }
+            }
+        }
+    }
+}
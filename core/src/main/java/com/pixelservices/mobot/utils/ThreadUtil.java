@@ -0,0 +1,104 @@
+package com.pixelservices.mobot.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ThreadUtil {
+    private final static Logger logger = LoggerFactory.getLogger("MoBot");
+    private final static ThreadFactory virtualThreadFactory = findVirtualThreadFactory();
+    private final static Method threadPerTaskExecutor = findThreadPerTaskExecutor();
+
+    /**
+     * Checks whether the runtime supports virtual threads.
+     *
+     * @return true if virtual threads are available
+     */
+    public static boolean isVirtualThreadSupported() {
+        return virtualThreadFactory != null && threadPerTaskExecutor != null;
+    }
+
+    /**
+     * Creates an executor starting a new virtual thread for every task.
+     * MoBot targets Java 17, so virtual threads are looked up reflectively. On runtimes without virtual threads,
+     * a pool of at most {@code fallbackThreads} daemon threads is created instead.
+     *
+     * @param name            the name prefix of the threads
+     * @param fallbackThreads the maximum number of platform threads used if virtual threads are not available
+     * @return the executor
+     */
+    public static ExecutorService newVirtualThreadExecutor(String name, int fallbackThreads) {
+        if (isVirtualThreadSupported()) {
+            AtomicInteger counter = new AtomicInteger();
+            ThreadFactory factory = runnable -> {
+                Thread thread = virtualThreadFactory.newThread(runnable);
+                thread.setName(name + "-" + counter.incrementAndGet());
+                return thread;
+            };
+            try {
+                return (ExecutorService) threadPerTaskExecutor.invoke(null, factory);
+            } catch (ReflectiveOperationException e) {
+                logger.warn("Failed to create a virtual thread executor, falling back to platform threads.", e);
+            }
+        }
+
+        return newPlatformThreadExecutor(name, fallbackThreads);
+    }
+
+    /**
+     * Creates an executor running tasks on a pool of at most {@code threads} daemon platform threads.
+     * Tasks submitted while all threads are busy are queued, and idle threads are released after a minute.
+     *
+     * @param name    the name prefix of the threads
+     * @param threads the maximum number of threads
+     * @return the executor
+     */
+    public static ExecutorService newPlatformThreadExecutor(String name, int threads) {
+        int poolSize = Math.max(1, threads);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), newDaemonThreadFactory(name));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Creates a factory for named daemon platform threads.
+     *
+     * @param name the name prefix of the threads
+     * @return the thread factory
+     */
+    public static ThreadFactory newDaemonThreadFactory(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static Method findThreadPerTaskExecutor() {
+        try {
+            return Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static ThreadFactory findVirtualThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Method factory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+            return (ThreadFactory) factory.invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            logger.debug("Virtual threads are not supported by this runtime, falling back to platform threads.");
+            return null;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.pixelservices.mobot.commands;
+
+import net.dv8tion.jda.api.interactions.commands.build.CommandData;
+import net.dv8tion.jda.api.interactions.commands.build.Commands;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the REST calls made by the {@link CommandSyncEngine}, against a {@link CountingCommandPublisher} instead of
+ * Discord.
+ * <p>
+ * Unchanged command sets must not be pushed again, even after a restart, changed sets must be pushed once per scope
+ * however many changes are requested, switching between {@link CommandSyncEngine.Mode#GLOBAL} and
+ * {@link CommandSyncEngine.Mode#GUILD} must clear the scopes of the previous mode once, and failed pushes must be
+ * retried.
+ * </p>
+ */
+class CommandSyncEngineTest {
+    private static final long[] GUILDS = {101L, 102L, 103L};
+    private static final long SETTLE_MILLIS = 300;
+    private static final long TIMEOUT_MILLIS = 5_000;
+
+    private static final List<CommandData> COMMANDS = List.of(Commands.slash("ping", "Replies with pong"));
+    private static final List<CommandData> CHANGED = List.of(Commands.slash("ping", "Replies with pong"), Commands.slash("echo", "Repeats a message"));
+
+    @TempDir
+    Path directory;
+
+    private final CountingCommandPublisher publisher = new CountingCommandPublisher();
+    private Path cacheFile;
+    private CommandSyncEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        cacheFile = directory.resolve("commands.cache");
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (engine != null) {
+            engine.shutdown();
+        }
+    }
+
+    @Test
+    void firstStartPushesEveryGuildOnce() throws InterruptedException {
+        restart(CommandSyncEngine.Mode.GUILD, COMMANDS);
+        assertCalls(1, 0, 0);
+        for (long guild : GUILDS) {
+            assertEquals(1, publisher.getRegistered(guild).size());
+        }
+    }
+
+    @Test
+    void restartWithUnchangedCommandsMakesNoCalls() throws InterruptedException {
+        restart(CommandSyncEngine.Mode.GUILD, COMMANDS);
+        assertCalls(1, 0, 0);
+
+        restart(CommandSyncEngine.Mode.GUILD, COMMANDS);
+        assertCalls(0, 0, 0);
+    }
+
+    @Test
+    void burstOfChangesPushesEveryGuildOnce() throws InterruptedException {
+        restart(CommandSyncEngine.Mode.GUILD, COMMANDS);
+        assertCalls(1, 0, 0);
+
+        for (int i = 0; i < 5; i++) {
+            engine.setCommands(i % 2 == 0 ? CHANGED : COMMANDS);
+            engine.requestSync();
+        }
+        engine.setCommands(CHANGED);
+        engine.requestSync();
+        assertCalls(1, 0, 0);
+        for (long guild : GUILDS) {
+            assertEquals(2, publisher.getRegistered(guild).size());
+        }
+    }
+
+    @Test
+    void switchingModesClearsThePreviousScopesOnce() throws InterruptedException {
+        restart(CommandSyncEngine.Mode.GUILD, CHANGED);
+        assertCalls(1, 0, 0);
+
+        restart(CommandSyncEngine.Mode.GLOBAL, CHANGED);
+        assertCalls(1, 1, 0);
+        for (long guild : GUILDS) {
+            assertTrue(publisher.getRegistered(guild).isEmpty());
+        }
+
+        restart(CommandSyncEngine.Mode.GLOBAL, CHANGED);
+        assertCalls(0, 0, 0);
+
+        restart(CommandSyncEngine.Mode.GUILD, CHANGED);
+        assertCalls(1, 1, 0);
+        assertTrue(publisher.getRegistered(0).isEmpty());
+    }
+
+    @Test
+    void failedPushesAreRetriedAndRemembered() throws InterruptedException {
+        publisher.failNext(2);
+        restart(CommandSyncEngine.Mode.GUILD, COMMANDS);
+        assertCalls(1, 0, 2);
+
+        restart(CommandSyncEngine.Mode.GUILD, COMMANDS);
+        assertCalls(0, 0, 0);
+    }
+
+    private void restart(CommandSyncEngine.Mode mode, List<CommandData> commands) {
+        if (engine != null) {
+            engine.shutdown();
+        }
+        engine = new CommandSyncEngine(publisher, mode, cacheFile, 50, 0, 50);
+        engine.setCommands(commands);
+        engine.start();
+        engine.syncGlobal();
+        for (long guild : GUILDS) {
+            engine.syncGuild(guild);
+        }
+    }
+
+    /**
+     * Checks the calls made since the last check, once the engine settled.
+     *
+     * @param guildCalls  the calls expected for every guild, not counting retries
+     * @param globalCalls the calls expected for the global scope
+     * @param retries     the calls expected to be repeated after a failure
+     */
+    private void assertCalls(int guildCalls, int globalCalls, int retries) throws InterruptedException {
+        int expectedCalls = guildCalls * GUILDS.length + globalCalls + retries;
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (publisher.getCalls() < expectedCalls && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        // Wait for the engine to settle, so that surplus calls are counted as well
+        Thread.sleep(SETTLE_MILLIS);
+
+        assertEquals(expectedCalls, publisher.getCalls());
+        assertEquals(globalCalls, publisher.getGlobalCalls());
+        for (long guild : GUILDS) {
+            assertTrue(publisher.getGuildCalls(guild) >= guildCalls, "calls for guild " + guild);
+        }
+        publisher.reset();
+    }
+}
@@ -0,0 +1,101 @@
+package com.pixelservices.mobot.commands;
+
+import net.dv8tion.jda.api.interactions.commands.build.CommandData;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@link CommandPublisher} that never contacts Discord, counting the pushes it receives instead.
+ * <p>
+ * Used to check offline which REST calls a {@link CommandSyncEngine} makes. Pushes complete right away,
+ * unless failures were requested with {@link #failNext(int)}.
+ * </p>
+ */
+class CountingCommandPublisher implements CommandPublisher {
+    private static final long GLOBAL_SCOPE = 0L;
+
+    private final Map<Long, AtomicInteger> calls = new ConcurrentHashMap<>();
+    private final Map<Long, List<CommandData>> registered = new ConcurrentHashMap<>();
+    private final AtomicInteger total = new AtomicInteger();
+    private final AtomicInteger pendingFailures = new AtomicInteger();
+
+    @Override
+    public CompletableFuture<?> publishGlobal(List<CommandData> commands) {
+        return publish(GLOBAL_SCOPE, commands);
+    }
+
+    @Override
+    public CompletableFuture<?> publishGuild(long guildId, List<CommandData> commands) {
+        return publish(guildId, commands);
+    }
+
+    /**
+     * Makes the next pushes fail, as if Discord had rejected them.
+     *
+     * @param pushes the number of pushes to fail
+     */
+    void failNext(int pushes) {
+        pendingFailures.addAndGet(pushes);
+    }
+
+    /**
+     * Returns the number of pushes received in total, including failed ones.
+     *
+     * @return the number of pushes
+     */
+    int getCalls() {
+        return total.get();
+    }
+
+    /**
+     * Returns the number of pushes received for the global scope, including failed ones.
+     *
+     * @return the number of pushes
+     */
+    int getGlobalCalls() {
+        return getGuildCalls(GLOBAL_SCOPE);
+    }
+
+    /**
+     * Returns the number of pushes received for a guild, including failed ones.
+     *
+     * @param guildId the id of the guild
+     * @return the number of pushes
+     */
+    int getGuildCalls(long guildId) {
+        AtomicInteger counter = calls.get(guildId);
+        return counter == null ? 0 : counter.get();
+    }
+
+    /**
+     * Returns the commands last pushed successfully to a guild, or to the global scope for {@code 0}.
+     *
+     * @param scope the id of the guild, or {@code 0}
+     * @return the commands, or {@code null} if nothing was pushed to the scope
+     */
+    List<CommandData> getRegistered(long scope) {
+        return registered.get(scope);
+    }
+
+    /**
+     * Forgets the counted pushes, keeping the registered commands.
+     */
+    void reset() {
+        calls.clear();
+        total.set(0);
+    }
+
+    private CompletableFuture<?> publish(long scope, List<CommandData> commands) {
+        calls.computeIfAbsent(scope, id -> new AtomicInteger()).incrementAndGet();
+        total.incrementAndGet();
+        if (pendingFailures.getAndUpdate(failures -> Math.max(0, failures - 1)) > 0) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Simulated REST failure"));
+        }
+        registered.put(scope, List.copyOf(commands));
+        return CompletableFuture.completedFuture(null);
+    }
+}
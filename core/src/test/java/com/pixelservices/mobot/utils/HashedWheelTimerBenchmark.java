@@ -0,0 +1,132 @@
+package com.pixelservices.mobot.utils;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A standalone benchmark of scheduling and cancelling delayed tasks on the {@link HashedWheelTimer} backing the
+ * task scheduler, at increasing numbers of pending tasks.
+ * <p>
+ * Every count is measured with random delays of 1 to 61 minutes, a 10 ms tick and 512 slots per wheel, and compared
+ * with the {@link ScheduledThreadPoolExecutor} the scheduler used before, both as is and with
+ * {@link ScheduledThreadPoolExecutor#setRemoveOnCancelPolicy(boolean)}, where cancelling removes the task from the
+ * queue as the wheel does. Tasks are cancelled in random order; each count is run three times and only the last run
+ * is reported, the others serving as warm-up.
+ * </p>
+ * <p>
+ * It lives with the tests so it is not shipped, but is not run by the build. Run it after {@code mvn test-compile} with
+ * {@code java -cp target/classes:target/test-classes com.pixelservices.mobot.utils.HashedWheelTimerBenchmark [pending...]};
+ * the counts default to {@code 10000 100000 1000000}. Give the JVM enough heap for the largest count.
+ * </p>
+ */
+public final class HashedWheelTimerBenchmark {
+    private static final int[] DEFAULT_PENDING = {10_000, 100_000, 1_000_000};
+    private static final int RUNS = 3;
+    private static final long MIN_DELAY_MILLIS = 60_000;
+    private static final int DELAY_RANGE_MILLIS = 3_600_000;
+    private static final Runnable NOOP = () -> {
+    };
+
+    private HashedWheelTimerBenchmark() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int[] counts = DEFAULT_PENDING;
+        if (args.length > 0) {
+            counts = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                counts[i] = Integer.parseInt(args[i]);
+            }
+        }
+
+        System.out.printf("%-10s %16s %16s %16s %16s %16s%n", "pending", "schedule stpe", "schedule wheel",
+                "cancel stpe", "cancel stpe(roc)", "cancel wheel");
+        for (int pending : counts) {
+            for (int run = 1; run <= RUNS; run++) {
+                double[] result = measure(pending);
+                if (run == RUNS) {
+                    System.out.printf("%-10d %16.0f %16.0f %16.0f %16.0f %16.0f%n", pending,
+                            result[0], result[1], result[2], result[3], result[4]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Schedules and cancels the given number of tasks on every implementation.
+     *
+     * @return the nanoseconds per schedule on the executor and the wheel, then per cancel on the executor, the
+     * executor removing on cancel and the wheel
+     */
+    private static double[] measure(int pending) throws InterruptedException {
+        long[] delays = new long[pending];
+        SplittableRandom random = new SplittableRandom(1);
+        for (int i = 0; i < pending; i++) {
+            delays[i] = MIN_DELAY_MILLIS + random.nextInt(DELAY_RANGE_MILLIS);
+        }
+        int[] order = shuffledIndices(pending);
+
+        double[] result = new double[5];
+        ScheduledFuture<?>[] futures = new ScheduledFuture<?>[pending];
+
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(2);
+        long start = System.nanoTime();
+        for (int i = 0; i < pending; i++) {
+            futures[i] = executor.schedule(NOOP, delays[i], TimeUnit.MILLISECONDS);
+        }
+        result[0] = (System.nanoTime() - start) / (double) pending;
+        start = System.nanoTime();
+        for (int index : order) {
+            futures[index].cancel(false);
+        }
+        result[2] = (System.nanoTime() - start) / (double) pending;
+        executor.shutdownNow();
+
+        executor = new ScheduledThreadPoolExecutor(2);
+        executor.setRemoveOnCancelPolicy(true);
+        for (int i = 0; i < pending; i++) {
+            futures[i] = executor.schedule(NOOP, delays[i], TimeUnit.MILLISECONDS);
+        }
+        start = System.nanoTime();
+        for (int index : order) {
+            futures[index].cancel(false);
+        }
+        result[3] = (System.nanoTime() - start) / (double) pending;
+        executor.shutdownNow();
+
+        HashedWheelTimer timer = new HashedWheelTimer("HashedWheelTimerBenchmark", 10, TimeUnit.MILLISECONDS, 512);
+        HashedWheelTimer.Timeout[] timeouts = new HashedWheelTimer.Timeout[pending];
+        start = System.nanoTime();
+        for (int i = 0; i < pending; i++) {
+            timeouts[i] = timer.schedule(NOOP, delays[i], TimeUnit.MILLISECONDS);
+        }
+        result[1] = (System.nanoTime() - start) / (double) pending;
+        // Let the worker move the new timeouts into their buckets, so the cancels below unlink them from the wheel
+        Thread.sleep(50);
+        start = System.nanoTime();
+        for (int index : order) {
+            timeouts[index].cancel();
+        }
+        result[4] = (System.nanoTime() - start) / (double) pending;
+        timer.stop();
+
+        return result;
+    }
+
+    private static int[] shuffledIndices(int count) {
+        int[] indices = new int[count];
+        for (int i = 0; i < count; i++) {
+            indices[i] = i;
+        }
+        SplittableRandom random = new SplittableRandom(2);
+        for (int i = count - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int index = indices[i];
+            indices[i] = indices[j];
+            indices[j] = index;
+        }
+        return indices;
+    }
+}
@@ -0,0 +1,138 @@
+package com.pixelservices.mobot.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * A standalone benchmark of the cooldown check path, the {@link RateLimiter#tryAcquire(long)} call made for every
+ * slash command with a cooldown, at increasing thread counts.
+ * <p>
+ * Every thread count is measured for two workloads: a spam wave spread over many users, as with
+ * {@link com.pixelservices.mobot.api.commands.CooldownScope#USER} cooldowns, and every thread hitting the same key,
+ * as with {@link com.pixelservices.mobot.api.commands.CooldownScope#GLOBAL} cooldowns. Each is compared with the
+ * {@code HashMap} guarded by {@code synchronized} that modules used to write for their cooldowns.
+ * </p>
+ * <p>
+ * It lives with the tests so it is not shipped, but is not run by the build. Run it after {@code mvn test-compile} with
+ * {@code java -cp target/classes:target/test-classes com.pixelservices.mobot.utils.RateLimiterBenchmark [threads...]};
+ * the thread counts default to {@code 1 4 16 64}. The results are only meaningful on a machine with as many cores as
+ * threads.
+ * </p>
+ */
+public final class RateLimiterBenchmark {
+    private static final int[] DEFAULT_THREADS = {1, 4, 16, 64};
+    private static final long WARMUP_MILLIS = 1_000;
+    private static final long MEASURE_MILLIS = 2_000;
+    private static final int USERS = 100_000;
+    private static final long PERIOD_MILLIS = 10_000;
+
+    private static volatile long sink;
+
+    private RateLimiterBenchmark() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int[] threadCounts = DEFAULT_THREADS;
+        if (args.length > 0) {
+            threadCounts = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                threadCounts[i] = Integer.parseInt(args[i]);
+            }
+        }
+
+        System.out.printf("%-22s %8s %14s %12s%n", "workload", "threads", "ops/s", "ns/op");
+        for (int threads : threadCounts) {
+            run("rate limiter, users", threads, newRateLimiter(), true);
+            run("synchronized, users", threads, newSynchronizedMap(), true);
+            run("rate limiter, one key", threads, newRateLimiter(), false);
+            run("synchronized, one key", threads, newSynchronizedMap(), false);
+        }
+    }
+
+    private static LongUnaryOperator newRateLimiter() {
+        RateLimiter limiter = new RateLimiter(3, PERIOD_MILLIS);
+        return limiter::tryAcquire;
+    }
+
+    /**
+     * The cooldown check modules wrote before cooldowns were declarative.
+     */
+    private static LongUnaryOperator newSynchronizedMap() {
+        Map<Long, Long> lastUses = new HashMap<>();
+        return key -> {
+            long now = System.currentTimeMillis();
+            synchronized (lastUses) {
+                Long lastUse = lastUses.get(key);
+                if (lastUse != null && now - lastUse < PERIOD_MILLIS) {
+                    return PERIOD_MILLIS - (now - lastUse);
+                }
+                lastUses.put(key, now);
+                return 0;
+            }
+        };
+    }
+
+    private static void run(String workload, int threads, LongUnaryOperator check, boolean manyKeys) throws InterruptedException {
+        measure(threads, check, manyKeys, WARMUP_MILLIS);
+        long operations = measure(threads, check, manyKeys, MEASURE_MILLIS);
+        double perSecond = operations * 1000.0 / MEASURE_MILLIS;
+        double nanosPerOperation = threads * MEASURE_MILLIS * 1_000_000.0 / Math.max(1, operations);
+        System.out.printf("%-22s %8d %14.0f %12.1f%n", workload, threads, perSecond, nanosPerOperation);
+    }
+
+    /**
+     * Runs the check on the given number of threads for a while.
+     *
+     * @return the number of checks made by all threads
+     */
+    private static long measure(int threads, LongUnaryOperator check, boolean manyKeys, long millis) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        long[] operations = new long[threads];
+        long[] results = new long[threads];
+        AtomicBoolean stop = new AtomicBoolean();
+        List<Thread> workers = new ArrayList<>(threads);
+
+        for (int i = 0; i < threads; i++) {
+            int index = i;
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long count = 0;
+                long result = 0;
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                while (!stop.get()) {
+                    for (int j = 0; j < 256; j++) {
+                        long key = manyKeys ? 1 + random.nextInt(USERS) : 1;
+                        result += check.applyAsLong(key);
+                    }
+                    count += 256;
+                }
+                operations[index] = count;
+                results[index] = result;
+            }, "RateLimiterBenchmark-" + i);
+            workers.add(worker);
+            worker.start();
+        }
+
+        start.countDown();
+        Thread.sleep(millis);
+        stop.set(true);
+
+        long total = 0;
+        for (int i = 0; i < threads; i++) {
+            workers.get(i).join();
+            total += operations[i];
+            sink += results[i];
+        }
+        return total;
+    }
+}